@@ -0,0 +1,59 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to solve generated academies with Branch-And-Bound, for each search
+ * strategy and the lower bounds strong enough to finish them. The basic bound
+ * leaves tens of millions of nodes on these sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BranchAndBoundBenchmark {
+    // Instances as "M:N:exercisesPerStudent:seed"
+    @Param({ "3:6:3:6", "4:7:3:13", "5:8:3:2", "4:7:3:3" })
+    String academy;
+
+    @Param({ "LOAD", "ONE_MACHINE" })
+    String lowerBound;
+
+    private Main.BenchmarkInstance instance;
+
+    @Setup
+    public void setUp() {
+        instance = createInstance(academy);
+    }
+
+    @Benchmark
+    public double depthFirst() {
+        return instance.branchAndBound(lowerBound, false);
+    }
+
+    @Benchmark
+    public double bestFirst() {
+        return instance.branchAndBound(lowerBound, true);
+    }
+
+    static Main.BenchmarkInstance createInstance(String academy) {
+        final String[] parts = academy.split(":");
+
+        return new Main.BenchmarkInstance(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+    }
+}
@@ -0,0 +1,43 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to solve small generated academies by enumerating every permutation.
+ * The permutation count grows too fast to go much further.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BruteForceBenchmark {
+    // Instances as "M:N:exercisesPerStudent:seed"
+    @Param({ "2:3:2:1", "3:4:2:2", "3:5:2:3", "3:4:3:4" })
+    String academy;
+
+    private Main.BenchmarkInstance instance;
+
+    @Setup
+    public void setUp() {
+        instance = BranchAndBoundBenchmark.createInstance(academy);
+    }
+
+    @Benchmark
+    public double bruteForce() {
+        return instance.bruteForce();
+    }
+}
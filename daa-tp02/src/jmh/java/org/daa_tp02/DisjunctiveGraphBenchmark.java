@@ -0,0 +1,44 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to solve generated academies of 10 to 20 students and a hundred or more
+ * exercises by the disjunctive graph search. Depth-first Branch-And-Bound does
+ * not finish any of them within 10 s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisjunctiveGraphBenchmark {
+    // Instances as "M:N:exercisesPerStudent:seed"
+    @Param({ "5:15:7:15", "5:20:6:20", "8:15:8:15", "10:15:10:15", "10:10:10:10" })
+    String academy;
+
+    private Main.BenchmarkInstance instance;
+
+    @Setup
+    public void setUp() {
+        instance = BranchAndBoundBenchmark.createInstance(academy);
+    }
+
+    @Benchmark
+    public double disjunctiveGraph() {
+        return instance.disjunctiveGraph();
+    }
+}
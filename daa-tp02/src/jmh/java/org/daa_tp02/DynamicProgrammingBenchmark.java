@@ -0,0 +1,44 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to solve generated academies with few students and long sheets by the
+ * dynamic programming over progress vectors. Depth-first Branch-And-Bound
+ * needs more than 10 s on most of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicProgrammingBenchmark {
+    // Instances as "M:N:exercisesPerStudent:seed"
+    @Param({ "4:3:8:3", "4:3:12:3", "5:4:6:4", "5:4:8:4", "6:5:5:5", "6:2:30:2" })
+    String academy;
+
+    private Main.BenchmarkInstance instance;
+
+    @Setup
+    public void setUp() {
+        instance = BranchAndBoundBenchmark.createInstance(academy);
+    }
+
+    @Benchmark
+    public double dynamicProgramming() {
+        return instance.dynamicProgramming();
+    }
+}
@@ -0,0 +1,57 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of the Giffler-Thompson generation and of the list evaluation of the
+ * event simulator, with three units per equipment, on generated academies of a
+ * thousand to fifty thousand students.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSimulationBenchmark {
+    @Param({ "1000", "10000", "50000" })
+    int N;
+
+    @Param({ "EARLIEST_START", "MWKR" })
+    String rule;
+
+    @Param({ "ACTIVE", "NON_DELAY" })
+    String kind;
+
+    private Main.BenchmarkInstance instance;
+
+    @Setup
+    public void setUp() {
+        instance = new Main.BenchmarkInstance(20, N, 10, N);
+        instance.useEquipmentUnits(3);
+        // The evaluation benchmark replays this schedule
+        instance.generateEventSchedule(rule, kind);
+    }
+
+    @Benchmark
+    public double generate() {
+        return instance.generateEventSchedule(rule, kind);
+    }
+
+    @Benchmark
+    public double evaluate() {
+        return instance.evaluateEventSchedule();
+    }
+}
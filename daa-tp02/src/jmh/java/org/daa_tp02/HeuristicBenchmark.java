@@ -0,0 +1,51 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to build the approximate heuristic schedule with every dispatch rule,
+ * from small academies up to a hundred thousand exercises.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicBenchmark {
+    @Param({ "4", "20" })
+    int M;
+
+    @Param({ "10", "500", "5000" })
+    int N;
+
+    @Param({ "20" })
+    int exercisesPerStudent;
+
+    @Param({ "EARLIEST_START", "EARLIEST_FINISH", "SPT", "LPT", "MWKR" })
+    String rule;
+
+    private Main.BenchmarkInstance instance;
+
+    @Setup
+    public void setUp() {
+        instance = new Main.BenchmarkInstance(M, N, exercisesPerStudent, 42);
+    }
+
+    @Benchmark
+    public double heuristic() {
+        return instance.heuristic(rule);
+    }
+}
@@ -0,0 +1,72 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of one incremental repair after a random change, against solving the
+ * changed academy again with every dispatch rule, on generated academies from
+ * a thousand to a hundred thousand exercises. The changes are spread over the
+ * first half of the day, on a fresh scheduler for every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalBenchmark {
+    private static final int CHANGES = 1_000;
+
+    // Instances as "M:N:exercisesPerStudent:seed"
+    @Param({ "20:50:20:1000", "20:500:20:10000", "20:5000:20:100000" })
+    String academy;
+
+    private Main.BenchmarkInstance instance;
+
+    /**
+     * Restarts the incremental scheduler before every invocation, out of the
+     * measured time.
+     */
+    @State(Scope.Thread)
+    public static class Day {
+        @Setup(Level.Invocation)
+        public void start(IncrementalBenchmark benchmark) {
+            benchmark.instance.startIncremental(CHANGES, 1);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        instance = BranchAndBoundBenchmark.createInstance(academy);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHANGES)
+    public long applyChange(Day day) {
+        long replayedCount = 0;
+
+        for (int change = 0; change < CHANGES; change++)
+            replayedCount += instance.applyChange();
+
+        return replayedCount;
+    }
+
+    @Benchmark
+    public double resolve() {
+        return instance.bestHeuristic();
+    }
+}
@@ -0,0 +1,71 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Moves evaluated per second by both local search methods, one restart at a
+ * time from the heuristic schedule, on generated academies from a thousand to
+ * a hundred thousand exercises. Each restart runs for a fixed budget, so the
+ * score that matters is the evaluatedMoves counter, not the restart rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalSearchBenchmark {
+    private static final long RESTART_MILLIS = 100;
+
+    // Instances as "M:N:exercisesPerStudent:seed"
+    @Param({ "32:32:32:32", "100:100:100:100", "316:316:316:316" })
+    String academy;
+
+    @Param({ "TABU", "ANNEALING" })
+    String method;
+
+    private Main.BenchmarkInstance instance;
+    private long seed;
+
+    /**
+     * Moves evaluated during an iteration, reported by JMH per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Moves {
+        public long evaluatedMoves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            evaluatedMoves = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        instance = BranchAndBoundBenchmark.createInstance(academy);
+    }
+
+    @Benchmark
+    public long localSearch(Moves moves) {
+        final long evaluatedMoves = instance.localSearch(method, RESTART_MILLIS, seed++);
+
+        moves.evaluatedMoves += evaluatedMoves;
+
+        return evaluatedMoves;
+    }
+}
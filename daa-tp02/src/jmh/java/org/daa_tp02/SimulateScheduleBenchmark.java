@@ -0,0 +1,48 @@
+package org.daa_tp02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the kernel schedule simulation, the inner loop of the brute
+ * force and the replay paths, on complete schedules of generated academies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulateScheduleBenchmark {
+    @Param({ "4", "20" })
+    int M;
+
+    @Param({ "10", "100", "1000" })
+    int N;
+
+    @Param({ "5", "20" })
+    int exercisesPerStudent;
+
+    private Main.BenchmarkInstance instance;
+
+    @Setup
+    public void setUp() {
+        instance = new Main.BenchmarkInstance(M, N, exercisesPerStudent, 42);
+    }
+
+    @Benchmark
+    public double simulateSchedule() {
+        return instance.simulateSchedule();
+    }
+}
@@ -9,25 +9,65 @@
 package org.daa_tp02;
 
 import java.awt.Color;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.swing.JFrame;
 import javax.swing.JTabbedPane;
 import javax.swing.SwingUtilities;
 
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
+import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.CategoryPlot;
 import org.jfree.chart.renderer.category.GanttRenderer;
@@ -115,6 +155,37 @@ public class Main {
     }
 
     private static class ChartPlotter {
+        /**
+         * Builds a Gantt chart per solution and shows them in a window, one tab each.
+         *
+         * @param titles    tab title of each solution
+         * @param solutions solutions containing an ordered exercise object list
+         */
+        public static void showGanttCharts(List<String> titles, List<List<Exercise>> solutions) {
+            final List<ChartPanel> charts = new ArrayList<>();
+
+            for (int i = 0; i < titles.size(); i++)
+                charts.add(handleGanttChart(titles.get(i) + " Solution", solutions.get(i)));
+
+            plotGanttChart(titles, charts);
+        }
+
+        /**
+         * Renders a Gantt chart offscreen and writes it as a PNG image.
+         *
+         * @param title    The title of the chart
+         * @param solution The solution containing an ordered exercise object list
+         * @param file     PNG file to write
+         * @throws IOException if the file cannot be written
+         */
+        public static void saveGanttChartAsPng(String title, List<Exercise> solution, Path file)
+                throws IOException {
+            final JFreeChart chart = createChart(title, createDataset(solution));
+
+            customizeChart(chart);
+            ChartUtils.saveChartAsPNG(file.toFile(), chart, 1000, 600);
+        }
+
         /**
          * Handles a Gantt chart plot, managing its data and also the window in which
          * it'll be rendered.
@@ -255,445 +326,9453 @@ public class Main {
     // region File reading
 
     /**
-     * Reads the input file and parses it into an Academy object.
+     * Reads the input file and parses it into an Academy object. Files in the
+     * binary format are detected by their magic number.
      *
      * @param filePath the path to the input file
      * @return a list of exercises parsed from the file
-     * @throws IOException if the file cannot be read
+     * @throws IOException if the file cannot be read or is malformed
      */
     private static Academy readAcademyDataFromFile(String filePath) throws IOException {
-        final BufferedReader reader = new BufferedReader(new FileReader(filePath));
-        final int equipmentCount = Integer.parseInt(reader.readLine().split("=")[1].trim());
-        final int studentCount = Integer.parseInt(reader.readLine().split("=")[1].trim());
-        final int exerciseCount = Integer.parseInt(reader.readLine().split("=")[1].trim());
-        final Academy academy = new Academy(equipmentCount, studentCount, exerciseCount);
-
-        while (true) {
-            final String line = reader.readLine();
-
-            if (line == null)
-                break;
-
-            final Exercise exercise = parseReadLineToExercise(line);
-            Student student = academy.students.stream().filter(auxStudent -> auxStudent.studentId == exercise.studentId)
-                    .findFirst().orElse(null);
-
-            if (student == null) {
-                student = new Student(exercise.studentId);
-                academy.addStudent(student);
-            }
-
-            student.addExercise(exercise);
-        }
-
-        reader.close();
+        if (isBinaryAcademyFile(filePath))
+            return readBinaryAcademy(filePath).toAcademy();
 
-        return academy;
+        return readAcademyRecords(filePath).toAcademy();
     }
 
     /**
-     * Parses a read line into an Exercise object.
+     * Reads the input file straight into the compact representation used by the
+     * solvers, without building Academy objects.
      *
-     * @param line read line with an exercise data
-     * @return an Exercise object
+     * @param filePath the path to the input file, text or binary
+     * @return the academy kernel
+     * @throws IOException if the file cannot be read or is malformed
      */
-    private static Exercise parseReadLineToExercise(String line) {
-        final String[] parts = line.split(" ");
-        final int studentId = Integer.parseInt(parts[0]);
-        final int equipmentId = Integer.parseInt(parts[1]);
-        final double duration = Double.parseDouble(parts[2]);
+    private static ScheduleKernel readAcademyKernel(String filePath) throws IOException {
+        if (isBinaryAcademyFile(filePath))
+            return readBinaryAcademy(filePath);
 
-        return new Exercise(studentId, equipmentId, duration);
+        return readAcademyRecords(filePath).toKernel();
     }
-    // endregion
 
     /**
-     * Calculates the duration time for a given permutation.
-     *
-     * @param M        an academy equipments count
-     * @param schedule exercises list from a permutation
-     * @return minutes duration in double
+     * Exercises of an academy file in primitive arrays, in file order.
      */
-    private static double simulateSchedule(int M, List<Exercise> schedule) {
-        final double[] equipmentFreeTimes = new double[M];
-        final Map<Integer, Double> studentsElapsedTimes = new HashMap<>();
-    
-        for (Exercise exercise : schedule) {
-            final int equipmentIdIndex = exercise.equipmentId - 1;
-            final double equipmentFreeTime = equipmentFreeTimes[equipmentIdIndex];
-            final double studentsElapsedTime = studentsElapsedTimes.getOrDefault(exercise.studentId, 0.0);
-            final double startTime = Math.max(equipmentFreeTime, studentsElapsedTime);
-            exercise.startTime = startTime;
-            final double finishTime = startTime + exercise.duration;
-    
-            equipmentFreeTimes[equipmentIdIndex] = finishTime;
-            studentsElapsedTimes.put(exercise.studentId, finishTime);
-        }
-    
-        // Verifica se o mapa não está vazio antes de chamar Collections.max
-        if (studentsElapsedTimes.isEmpty()) {
-            return 0.0; // Se não houver estudantes, o tempo de execução é 0
+    private static class AcademyRecords {
+        int M; // Highest equipment id read, ids above it up to the header M are unused
+        final int N;
+        final int n;
+        final int[] studentIds;
+        final int[] equipmentIds;
+        final double[] durations;
+
+        AcademyRecords(int M, int N, int n) {
+            this.M = M;
+            this.N = N;
+            this.n = n;
+            this.studentIds = new int[n];
+            this.equipmentIds = new int[n];
+            this.durations = new double[n];
         }
-    
-        // Retorna o maior tempo entre os estudantes
-        return Collections.max(studentsElapsedTimes.values());
-    }
-    
 
-    // region Brute Force Permutation
+        /**
+         * Builds the Academy, with the students in order of first appearance.
+         *
+         * @return an Academy object
+         */
+        Academy toAcademy() {
+            final Academy academy = new Academy(M, N, n);
+            final Student[] studentsById = new Student[N + 1];
 
-    /**
-     * For a given group of exercises, process all combinations possible, respecting
-     * that each student must complete
-     * its exercises sequence in order.
-     *
-     * @param students        a list of Students objects containing all exercises
-     *                        sequences
-     * @param stepPermutation current permutation recursion step
-     * @param permutations    result permutations
-     */
-    private static void generateBruteForcePermutations(List<Student> students, List<Exercise> stepPermutation,
-            List<List<Exercise>> permutations) {
-        if (students.isEmpty()) {
-            permutations.add(new ArrayList<>(stepPermutation));
+            for (int i = 0; i < n; i++) {
+                final int studentId = studentIds[i];
+                Student student = studentsById[studentId];
 
-            return;
+                if (student == null) {
+                    student = new Student(studentId);
+                    studentsById[studentId] = student;
+                    academy.addStudent(student);
+                }
+
+                student.addExercise(new Exercise(studentId, equipmentIds[i], durations[i]));
+            }
+
+            return academy;
         }
 
-        for (Student student : students) {
-            final List<Exercise> exercises = student.exercises;
-            final List<Student> remainingStudents = new ArrayList<>(students);
+        /**
+         * Builds the scheduling kernel without going through Exercise objects,
+         * with the students in order of first appearance.
+         *
+         * @return the kernel
+         */
+        ScheduleKernel toKernel() {
+            final int[] studentIndexes = new int[N + 1];
+            final int[] studentIdsByIndex = new int[N];
+            final int[] sheetOffsets = new int[N + 1];
+            final int[] equipments = new int[n];
+            final double[] sheetDurations = new double[n];
+            int studentsCount = 0;
+
+            Arrays.fill(studentIndexes, -1);
+
+            for (int i = 0; i < n; i++) {
+                if (studentIndexes[studentIds[i]] < 0) {
+                    studentIndexes[studentIds[i]] = studentsCount;
+                    studentIdsByIndex[studentsCount++] = studentIds[i];
+                }
+
+                sheetOffsets[studentIndexes[studentIds[i]] + 1]++;
+            }
+
+            for (int s = 0; s < studentsCount; s++)
+                sheetOffsets[s + 1] += sheetOffsets[s];
+
+            final int[] sheetFill = Arrays.copyOf(sheetOffsets, studentsCount);
 
-            remainingStudents.remove(student);
-            stepPermutation.addAll(exercises);
-            generateBruteForcePermutations(remainingStudents, stepPermutation, permutations);
-            // Remove changes to current permutation and continue to next student
-            stepPermutation.subList(stepPermutation.size() - exercises.size(), stepPermutation.size()).clear();
+            for (int i = 0; i < n; i++) {
+                final int position = sheetFill[studentIndexes[studentIds[i]]]++;
+
+                equipments[position] = equipmentIds[i] - 1;
+                sheetDurations[position] = durations[i];
+            }
+
+            return new ScheduleKernel(M, Arrays.copyOf(studentIdsByIndex, studentsCount),
+                    Arrays.copyOf(sheetOffsets, studentsCount + 1), equipments, sheetDurations);
         }
     }
 
     /**
-     * Controls brute-force permutation processing
+     * Reads the input file into primitive arrays. The header counts are checked
+     * while reading: student ids must be within 1..N, equipment ids within 1..M,
+     * and the file must hold exactly N students and n exercises. The equipment
+     * count is then lowered to the highest id read, so a huge M in the header
+     * allocates nothing.
      *
-     * @param academy receives an Academy object generated from the read file
-     * @return a list of exercises that represents the optimal solution
+     * @param filePath the path to the input file
+     * @return the exercises read
+     * @throws IOException if the file cannot be read or is malformed
      */
-    private static List<Exercise> handleBruteForcePermutation(Academy academy) {
-        final List<List<Exercise>> permutations = new ArrayList<>();
-        generateBruteForcePermutations(academy.students, new ArrayList<>(), permutations);
-        System.out.println("\nGenerate Brute Force permutations count: " + permutations.size());
+    private static AcademyRecords readAcademyRecords(String filePath) throws IOException {
+        try (AcademyFileTokenizer tokenizer = new AcademyFileTokenizer(filePath)) {
+            // Every exercise line takes at least five bytes and a line break, and every student has an exercise,
+            // so both counts are bounded by the file size before any array is allocated
+            final long maxRecords = (tokenizer.fileSize() + 1) / 6;
+            final int equipmentCount = tokenizer.readHeader("M");
+            final int studentCount = tokenizer.readHeader("N", maxRecords);
+            final int exerciseCount = tokenizer.readHeader("n", maxRecords);
+            final AcademyRecords records = new AcademyRecords(equipmentCount, studentCount, exerciseCount);
+            final boolean[] seenStudents = new boolean[studentCount + 1];
+            int studentsRead = 0;
+            int exercisesRead = 0;
+            int highestEquipmentId = 0;
 
-        double minTime = Double.MAX_VALUE;
-        List<Exercise> optimalBruteForceSolution = new ArrayList<>();
+            while (tokenizer.skipBlankLines()) {
+                final int studentId = tokenizer.readInt();
+                final int equipmentId = tokenizer.readInt();
+                final double duration = tokenizer.readDouble();
+
+                if (studentId < 1 || studentId > studentCount)
+                    throw tokenizer.error("Student id " + studentId + " outside 1.." + studentCount);
+                if (equipmentId < 1 || equipmentId > equipmentCount)
+                    throw tokenizer.error("Equipment id " + equipmentId + " outside 1.." + equipmentCount);
+                if (!(duration >= 0) || Double.isInfinite(duration))
+                    throw tokenizer.error("Invalid duration " + duration);
+                if (exercisesRead == exerciseCount)
+                    throw tokenizer.error("More exercises than n=" + exerciseCount);
 
-        for (List<Exercise> permutation : permutations) {
-            double elapsed = simulateSchedule(academy.M, permutation);
+                tokenizer.readEndOfLine();
+
+                if (!seenStudents[studentId]) {
+                    seenStudents[studentId] = true;
+                    studentsRead++;
+                }
 
-            if (elapsed < minTime) {
-                minTime = elapsed;
-                optimalBruteForceSolution = permutation;
+                records.studentIds[exercisesRead] = studentId;
+                records.equipmentIds[exercisesRead] = equipmentId;
+                records.durations[exercisesRead] = duration;
+                highestEquipmentId = Math.max(highestEquipmentId, equipmentId);
+                exercisesRead++;
             }
-        }
 
-        System.out.printf("Lowest time: %.2f minutes%n", minTime);
-        System.out.println("Optimal sequence solution:");
+            if (exercisesRead != exerciseCount)
+                throw new IOException("Expected n=" + exerciseCount + " exercises, found " + exercisesRead);
+            if (studentsRead != studentCount)
+                throw new IOException("Expected N=" + studentCount + " students, found " + studentsRead);
 
-        for (Exercise exercise : optimalBruteForceSolution)
-            System.out.println("> " + exercise);
+            records.M = highestEquipmentId;
 
-        return optimalBruteForceSolution;
+            return records;
+        }
     }
-    // endregion
-
-    // region Branch and Bound
 
     /**
-     * Controls Branch-And-Bound processing
-     *
-     * @param academy receives an Academy object generated from the read file
-     * @return a list of exercises that represents the optimal solution
+     * Reads an academy file through a file channel and a large buffer, turning
+     * the bytes straight into ints and doubles without building strings. The
+     * buffer always holds a whole token ahead of the read position, so numbers
+     * are scanned without checking for refills.
      */
-    private static List<Exercise> handleBranchAndBound(Academy academy) {
-        final List<Exercise> optimalBranchAndBoundSolution = new ArrayList<>();
-        final List<Exercise> currentSolution = new ArrayList<>();
-        final double[] minTime = { Double.MAX_VALUE };
-        final double[] equipmentFreeTimes = new double[academy.M];
-        final Map<Integer, Double> studentsElapsedTimes = new HashMap<>();
-        final Map<Integer, Integer> studentProgress = new HashMap<>();
+    private static class AcademyFileTokenizer implements AutoCloseable {
+        private static final int BUFFER_SIZE = 1 << 20;
+        private static final int MAX_TOKEN = 64;
+        // Powers of ten that are exact doubles, so a mantissa below 2^53 divided by
+        // one of them rounds the same way as Double.parseDouble
+        private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+                1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final byte[] bytes = buffer.array();
+        private int position;
+        private int limit;
+        private boolean endOfFile;
+        private int line = 1;
 
-        for (Student student : academy.students) {
-            studentProgress.put(student.studentId, 0);
+        AcademyFileTokenizer(String filePath) throws IOException {
+            this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
         }
 
-        exploreBranch(academy, currentSolution, optimalBranchAndBoundSolution, minTime, equipmentFreeTimes,
-                studentsElapsedTimes, studentProgress);
+        /**
+         * Makes sure the buffer holds at least a token ahead of the read position,
+         * unless the file ends first.
+         */
+        private void ensureToken() throws IOException {
+            if (limit - position >= MAX_TOKEN || endOfFile)
+                return;
 
-        System.out.printf("\nBranch-and-Bound lowest time: %.2f minutes%n", minTime[0]);
-        System.out.println("Optimal sequence solution:");
+            System.arraycopy(bytes, position, bytes, 0, limit - position);
+            limit -= position;
+            position = 0;
 
-        for (Exercise exercise : optimalBranchAndBoundSolution)
-            System.out.println("> " + exercise);
+            while (limit < MAX_TOKEN) {
+                buffer.limit(BUFFER_SIZE).position(limit);
 
-        return optimalBranchAndBoundSolution;
-    }
+                final int read = channel.read(buffer);
 
-    /**
-     * Recursively explores branches of the solution tree for the Branch-And-Bound
-     * algorithm.
-     *
-     * @param academy                       receives an Academy object generated
-     *                                      from the read file
-     * @param currentSolution               the current partial solution being
-     *                                      explored
-     * @param optimalBranchAndBoundSolution the list that stores the best solution
-     *                                      found so far
-     * @param minTime                       an array containing the minimum time
-     *                                      found so far, updated during the process
-     * @param equipmentFreeTimes            an array representing the availability
-     *                                      of each piece of equipment
-     * @param studentsElapsedTimes          a map tracking the elapsed time for each
-     *                                      student
-     * @param studentProgress               a map tracking the current progress of
-     *                                      each student (index of their next
-     *                                      exercise)
-     */
-    private static void exploreBranch(Academy academy, List<Exercise> currentSolution,
-            List<Exercise> optimalBranchAndBoundSolution,
-            double[] minTime, double[] equipmentFreeTimes, Map<Integer, Double> studentsElapsedTimes,
-            Map<Integer, Integer> studentProgress) {
-
-        // Calcula o tempo atual de execução para a solução parcial usando a simulação de agendamento
-        double currentElapsed = simulateSchedule(academy.M, currentSolution);
-        
-        // Calcula o lower bound para a solução parcial
-        double lowerBound = calculateLowerBound(
-                academy, currentSolution, equipmentFreeTimes, studentsElapsedTimes, studentProgress);
+                if (read < 0) {
+                    endOfFile = true;
+                    return;
+                }
 
-        // Poda: Se o lower bound for maior ou igual ao menor tempo conhecido, descarta
-        if (lowerBound >= minTime[0]) {
-            return;
+                limit += read;
+            }
         }
 
-        // Verifica se todos os exercícios foram alocados
-        if (currentSolution.size() == academy.n) {
-            if (currentElapsed < minTime[0]) {
-                minTime[0] = currentElapsed;
-                optimalBranchAndBoundSolution.clear();
-                optimalBranchAndBoundSolution.addAll(currentSolution);
+        /**
+         * Returns the next byte without consuming it.
+         *
+         * @return the byte, or -1 at the end of the file
+         */
+        private int peek() throws IOException {
+            ensureToken();
+
+            return position < limit ? bytes[position] : -1;
+        }
+
+        private void skipSpaces() throws IOException {
+            while (true) {
+                ensureToken();
+
+                while (position < limit && (bytes[position] == ' ' || bytes[position] == '\t'
+                        || bytes[position] == '\r'))
+                    position++;
+
+                if (position < limit || endOfFile)
+                    return;
             }
-            return;
         }
 
-        // Explora os próximos exercícios possíveis
-        for (Student student : academy.students) {
-            final int progressIndex = studentProgress.get(student.studentId);
+        /**
+         * Skips empty lines before the next record.
+         *
+         * @return true if there is a record left
+         */
+        boolean skipBlankLines() throws IOException {
+            while (true) {
+                skipSpaces();
 
-            // Se o aluno já completou todos os exercícios, pula para o próximo
-            if (progressIndex >= student.exercises.size()) {
-                continue;
+                final int next = peek();
+
+                if (next != '\n')
+                    return next >= 0;
+
+                position++;
+                line++;
             }
+        }
 
-            Exercise nextExercise = student.exercises.get(progressIndex);
-            int equipmentIdx = nextExercise.equipmentId - 1;
+        /**
+         * Reads a {@code name=value} header line.
+         *
+         * @param name expected header name
+         * @return the header value
+         */
+        int readHeader(String name) throws IOException {
+            return readHeader(name, Integer.MAX_VALUE);
+        }
 
-            // Calcula os tempos atuais do equipamento e do estudante
-            double prevEquipmentTime = equipmentFreeTimes[equipmentIdx];
-            double prevStudentTime = studentsElapsedTimes.getOrDefault(nextExercise.studentId, 0.0);
+        /**
+         * Reads a {@code name=value} header line whose value is bounded by what the
+         * file can hold.
+         *
+         * @param name     expected header name
+         * @param maxValue largest value the file can hold
+         * @return the header value
+         */
+        int readHeader(String name, long maxValue) throws IOException {
+            if (!skipBlankLines())
+                throw error("Missing header " + name);
 
-            // Calcula o início do exercício, respeitando os horários
-            double startTime = Math.max(prevEquipmentTime, prevStudentTime);
-            double finishTime = startTime + nextExercise.duration;
+            for (int i = 0; i < name.length(); i++) {
+                if (peek() != name.charAt(i))
+                    throw error("Expected header " + name);
 
-            // Verifica se há conflito no uso do equipamento
-            if (startTime < prevEquipmentTime) {
-                continue; // Pula para o próximo exercício disponível
+                position++;
             }
 
-            // Atualiza os tempos de execução
-            equipmentFreeTimes[equipmentIdx] = finishTime;
-            studentsElapsedTimes.put(nextExercise.studentId, finishTime);
-            currentSolution.add(nextExercise);
-            studentProgress.put(student.studentId, progressIndex + 1);
+            skipSpaces();
+
+            if (peek() != '=')
+                throw error("Expected '=' after header " + name);
+
+            position++;
+
+            final int value = readInt();
 
-            // Chamada recursiva para explorar o próximo ramo
-            exploreBranch(
-                    academy, currentSolution, optimalBranchAndBoundSolution, minTime,
-                    equipmentFreeTimes, studentsElapsedTimes, studentProgress);
+            if (value > maxValue)
+                throw error("Header " + name + "=" + value + " exceeds the " + maxValue + " the file can hold");
 
-            // Backtracking
-            equipmentFreeTimes[equipmentIdx] = prevEquipmentTime;
-            studentsElapsedTimes.put(nextExercise.studentId, prevStudentTime);
-            currentSolution.remove(currentSolution.size() - 1);
-            studentProgress.put(student.studentId, progressIndex);
+            readEndOfLine();
+
+            if (value < 0)
+                throw error("Header " + name + " must not be negative");
+
+            return value;
         }
-    }
 
+        int readInt() throws IOException {
+            skipSpaces();
 
-    /**
-     * Calculates an improved lower bound for the Branch-And-Bound algorithm
-     *
-     * @param academy              receives an Academy object generated from the
-     *                             read file
-     * @param currentSolution      the current partial solution being evaluated
-     * @param equipmentFreeTimes   an array representing the availability of each
-     *                             piece of equipment
-     * @param studentsElapsedTimes a map tracking the elapsed time for each student
-     * @param studentProgress      a map tracking the current progress of each
-     *                             student (index of their next exercise)
-     * @return the lower bound estimate as a double value
-     */
-    private static double calculateLowerBound(Academy academy, List<Exercise> currentSolution,
-            double[] equipmentFreeTimes, Map<Integer, Double> studentsElapsedTimes,
-            Map<Integer, Integer> studentProgress) {
+            final int end = Math.min(limit, position + MAX_TOKEN);
+            int i = position;
+            final boolean negative = i < end && bytes[i] == '-';
 
-        double lowerBound = Arrays.stream(equipmentFreeTimes).max().orElse(0.0);
+            if (negative)
+                i++;
 
-        for (Student student : academy.students) {
-            final int progressIndex = studentProgress.get(student.studentId);
+            if (i == end || bytes[i] < '0' || bytes[i] > '9')
+                throw error("Expected a number");
 
-            for (int i = progressIndex; i < student.exercises.size(); i++) {
-                final Exercise exercise = student.exercises.get(i);
-                final int equipmentIdx = exercise.equipmentId - 1;
+            long value = 0;
 
-                // Calcula o tempo estimado para o exercício restante
-                final double equipmentTime = equipmentFreeTimes[equipmentIdx];
-                final double studentTime = studentsElapsedTimes.getOrDefault(student.studentId, 0.0);
-                final double estimatedStartTime = Math.max(equipmentTime, studentTime);
+            while (i < end && bytes[i] >= '0' && bytes[i] <= '9') {
+                value = value * 10 + (bytes[i++] - '0');
 
-                lowerBound = Math.max(lowerBound, estimatedStartTime + exercise.duration);
+                if (value > Integer.MAX_VALUE)
+                    throw error("Number too large");
             }
+
+            position = i;
+
+            return (int) (negative ? -value : value);
         }
 
-        return lowerBound;
-    }
+        /**
+         * Reads a decimal number. Plain {@code digits[.digits]} values are built
+         * from their digits; anything longer or with an exponent goes through
+         * {@link Double#parseDouble(String)}.
+         */
+        double readDouble() throws IOException {
+            skipSpaces();
 
-    // endregion
+            final int start = position;
+            final int end = Math.min(limit, position + MAX_TOKEN);
+            int i = start;
+            long mantissa = 0;
+            int digits = 0;
+            int decimals = 0;
+            boolean fraction = false;
+            boolean simple = true;
 
-    // region Approximate Heuristic
+            for (; i < end; i++) {
+                final byte next = bytes[i];
 
-    /**
-     * Simulates the scheduling of exercises for all students and equipment.
-     * It calculates the total time taken for a given schedule of exercises,
-     * considering the availability
-     * of each equipment and the completion times for each student.
-     *
-     * @param M               the number of academy equipments
-     * @param currentSchedule a list of exercises representing the sequence in which
-     *                        tasks
-     *                        are performed
-     * @param nextExercise    next exercise object on the queue to be processed
-     * @return the total duration in minutes (double) when all exercises are
-     *         completed
-     */
-    private static double handleApproximateHeuristicSchedule(int M, List<Exercise> currentSchedule,
-            Exercise nextExercise) {
-        final List<Exercise> timeSchedule = new ArrayList<>(currentSchedule);
+                if (next >= '0' && next <= '9') {
+                    mantissa = mantissa * 10 + (next - '0');
+                    digits++;
+
+                    if (fraction)
+                        decimals++;
+                } else if (next == '.' && !fraction) {
+                    fraction = true;
+                } else if (next == ' ' || next == '\t' || next == '\r' || next == '\n') {
+                    break;
+                } else {
+                    simple = false;
+                }
+            }
+
+            if (i == start)
+                throw error("Expected a number");
+            if (i == start + MAX_TOKEN)
+                throw error("Number too long");
+
+            position = i;
+
+            if (simple && digits > 0 && digits <= 15)
+                return mantissa / POWERS_OF_TEN[decimals];
+
+            final String text = new String(bytes, start, i - start, StandardCharsets.ISO_8859_1);
+
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw error("Invalid number " + text);
+            }
+        }
+
+        void readEndOfLine() throws IOException {
+            skipSpaces();
+
+            final int next = peek();
+
+            if (next == '\n') {
+                position++;
+                line++;
+            } else if (next >= 0) {
+                throw error("Unexpected characters at the end of the line");
+            }
+        }
 
-        timeSchedule.add(nextExercise);
+        IOException error(String message) {
+            return new IOException("Line " + line + ": " + message);
+        }
 
-        final double timeSimulated = simulateSchedule(M, timeSchedule);
+        long fileSize() throws IOException {
+            return channel.size();
+        }
 
-        return timeSimulated - nextExercise.duration;
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
     }
+    // endregion
+
+    // region Scheduling kernel
 
     /**
-     * Controls approximate heuristic processing
-     *
-     * @param academy receives an Academy object generated from the read file
-     * @return a list of exercises that represents the optimal solution
+     * Compact representation of an academy used by the solvers. Student ids are
+     * remapped to dense indexes and every student sheet is stored as a contiguous
+     * range of parallel primitive arrays (CSR layout), so the solvers never box or
+     * allocate while placing exercises. The Academy, Student and Exercise objects
+     * remain the input and output of every solver.
      */
-    private static List<Exercise> approximateHeuristic(Academy academy) {
-        final List<List<Exercise>> studentsExercises = new ArrayList<>();
+    private static class ScheduleKernel {
+        final int M; // Equipment count
+        final int N; // Student count
+        final int n; // Exercise count
+        final int[] studentIds; // Original id of each dense student index
+        final int[] sheetOffsets; // Sheet of student s is [sheetOffsets[s], sheetOffsets[s + 1])
+        final int[] exerciseStudents; // Dense student index of each exercise
+        final int[] equipments; // Zero-based equipment index of each exercise
+        final double[] durations; // Duration of each exercise in minutes
+        final double[] sheetTails; // Duration of each exercise plus the ones after it on its sheet
+        final int[] equipmentOffsets; // Exercises on equipment m are [equipmentOffsets[m], equipmentOffsets[m + 1])
+        final int[] equipmentExercises; // Exercise indexes grouped by equipment
+        final Exercise[] exercises; // Exercise objects each kernel index came from, null if not built from one
 
-        for (Student student : academy.students) {
-            studentsExercises.add(new ArrayList<>(student.exercises));
-        }
+        public ScheduleKernel(Academy academy) {
+            int exerciseCount = 0;
 
-        final List<Exercise> approximateSolution = new ArrayList<>();
-        double minTime = 0;
+            for (Student student : academy.students)
+                exerciseCount += student.exercises.size();
 
-        while (!studentsExercises.isEmpty()) {
-            Exercise nextExercise = null;
-            minTime = Double.MAX_VALUE;
+            this.M = academy.M;
+            this.N = academy.students.size();
+            this.n = exerciseCount;
+            this.studentIds = new int[N];
+            this.sheetOffsets = new int[N + 1];
+            this.exerciseStudents = new int[n];
+            this.equipments = new int[n];
+            this.durations = new double[n];
+            this.exercises = new Exercise[n];
 
-            for (List<Exercise> studentExercises : studentsExercises) {
-                if (studentExercises.isEmpty())
-                    continue;
+            int index = 0;
+
+            for (int s = 0; s < N; s++) {
+                final Student student = academy.students.get(s);
+
+                studentIds[s] = student.studentId;
+                sheetOffsets[s] = index;
 
-                final Exercise exercise = studentExercises.get(0);
-                final double elapsed = handleApproximateHeuristicSchedule(academy.M, approximateSolution, exercise);
+                for (Exercise exercise : student.exercises) {
+                    if (exercise.equipmentId < 1 || exercise.equipmentId > M) {
+                        throw new IllegalArgumentException("Invalid equipment id: " + exercise.equipmentId);
+                    }
 
-                if (elapsed < minTime) {
-                    minTime = elapsed;
-                    nextExercise = exercise;
+                    exerciseStudents[index] = s;
+                    equipments[index] = exercise.equipmentId - 1;
+                    durations[index] = exercise.duration;
+                    exercises[index] = exercise;
+                    index++;
                 }
             }
 
-            if (nextExercise != null) {
-                approximateSolution.add(nextExercise);
+            sheetOffsets[N] = index;
+            this.sheetTails = computeSheetTails(sheetOffsets, durations);
+            this.equipmentOffsets = computeEquipmentOffsets(M, equipments);
+            this.equipmentExercises = groupByEquipment(equipmentOffsets, equipments);
+        }
 
-                for (List<Exercise> studentExercises : studentsExercises) {
-                    if (!studentExercises.isEmpty() && studentExercises.get(0).equals(nextExercise)) {
-                        studentExercises.remove(0);
+        /**
+         * Builds a kernel straight from its sheet arrays, which are kept as given.
+         * There are no Exercise objects behind it, so {@link #toExercises} creates
+         * them.
+         *
+         * @param M            equipment count
+         * @param studentIds   original id of each dense student index
+         * @param sheetOffsets start of each student sheet, with n as last entry
+         * @param equipments   zero-based equipment index of each exercise
+         * @param durations    duration of each exercise in minutes
+         */
+        public ScheduleKernel(int M, int[] studentIds, int[] sheetOffsets, int[] equipments, double[] durations) {
+            this.M = M;
+            this.N = studentIds.length;
+            this.n = equipments.length;
+            this.studentIds = studentIds;
+            this.sheetOffsets = sheetOffsets;
+            this.equipments = equipments;
+            this.durations = durations;
+            this.exerciseStudents = new int[n];
+            this.exercises = null;
 
-                        break;
-                    }
+            if (sheetOffsets.length != N + 1 || sheetOffsets[0] != 0 || sheetOffsets[N] != n
+                    || durations.length != n) {
+                throw new IllegalArgumentException("Inconsistent sheet arrays");
+            }
+
+            for (int s = 0; s < N; s++) {
+                if (sheetOffsets[s + 1] < sheetOffsets[s]) {
+                    throw new IllegalArgumentException("Invalid sheet offset: " + sheetOffsets[s + 1]);
                 }
 
-                studentsExercises.removeIf(List::isEmpty);
+                Arrays.fill(exerciseStudents, sheetOffsets[s], sheetOffsets[s + 1], s);
+            }
+
+            for (int i = 0; i < n; i++) {
+                if (equipments[i] < 0 || equipments[i] >= M) {
+                    throw new IllegalArgumentException("Invalid equipment id: " + (equipments[i] + 1));
+                }
             }
+
+            this.sheetTails = computeSheetTails(sheetOffsets, durations);
+            this.equipmentOffsets = computeEquipmentOffsets(M, equipments);
+            this.equipmentExercises = groupByEquipment(equipmentOffsets, equipments);
         }
 
-        System.out.printf("\nApproximate Heuristic lowest time: %.2f minutes%n", minTime);
-        System.out.println("Optimal sequence solution:");
+        private static double[] computeSheetTails(int[] sheetOffsets, double[] durations) {
+            final double[] sheetTails = new double[durations.length];
 
-        for (Exercise exercise : approximateSolution)
-            System.out.println("> " + exercise);
+            for (int s = 0; s + 1 < sheetOffsets.length; s++) {
+                double tail = 0.0;
 
-        return approximateSolution;
-    }
-    // endregion
+                for (int i = sheetOffsets[s + 1] - 1; i >= sheetOffsets[s]; i--) {
+                    tail += durations[i];
+                    sheetTails[i] = tail;
+                }
+            }
 
-    public static void main(String[] args) {
-        final String filePath = "exercises.txt";
+            return sheetTails;
+        }
 
-        try {
-            final Academy academy = readAcademyDataFromFile(filePath);
+        private static int[] computeEquipmentOffsets(int M, int[] equipments) {
+            final int[] equipmentOffsets = new int[M + 1];
 
-            if (academy.M <= 0) {
-                throw new IllegalArgumentException("The number of equipment must be greater than 0");
-            }
+            for (int equipmentIdx : equipments)
+                equipmentOffsets[equipmentIdx + 1]++;
 
-            long timeStart = System.nanoTime();
-            final List<Exercise> bruteForceSolution = handleBruteForcePermutation(academy.clone());
-            long timeEnd = System.nanoTime();
-            long bruteForceTime = timeEnd - timeStart;
+            for (int m = 0; m < M; m++)
+                equipmentOffsets[m + 1] += equipmentOffsets[m];
 
-            timeStart = System.nanoTime();
-            final List<Exercise> branchAndBoundSolution = handleBranchAndBound(academy.clone());
-            timeEnd = System.nanoTime();
-            long branchAndBoundTime = timeEnd - timeStart;
+            return equipmentOffsets;
+        }
 
-            timeStart = System.nanoTime();
-            final List<Exercise> approximateHeuristicSolution = approximateHeuristic(academy.clone());
-            timeEnd = System.nanoTime();
-            long heuristicTime = timeEnd - timeStart;
+        private static int[] groupByEquipment(int[] equipmentOffsets, int[] equipments) {
+            final int[] equipmentExercises = new int[equipments.length];
+            final int[] equipmentFill = Arrays.copyOf(equipmentOffsets, equipmentOffsets.length - 1);
 
-            System.out.println("\nBrute-Force Time: " + (bruteForceTime / 1_000_000.0) + " milissegundos");
-            System.out.println("Branch and Bound Time: " + (branchAndBoundTime / 1_000_000.0) + " milissegundos");
-            System.out.println("Heuristic Time: " + (heuristicTime / 1_000_000.0) + " milissegundos");
+            for (int i = 0; i < equipments.length; i++)
+                equipmentExercises[equipmentFill[equipments[i]]++] = i;
+
+            return equipmentExercises;
+        }
+
+        /**
+         * Returns the remaining work of a student, from a given exercise of its sheet
+         * to the end.
+         *
+         * @param student  dense student index
+         * @param progress index of the next exercise inside the student sheet
+         * @return remaining duration in minutes
+         */
+        public double remainingWork(int student, int progress) {
+            final int exercise = sheetOffsets[student] + progress;
+
+            return exercise < sheetOffsets[student + 1] ? sheetTails[exercise] : 0.0;
+        }
+
+        /**
+         * Returns the largest equipment load or student sheet duration, which no
+         * schedule can finish before.
+         *
+         * @return lower bound of the makespan in minutes
+         */
+        public double loadLowerBound() {
+            final double[] equipmentLoads = new double[M];
+            double lowerBound = 0.0;
+
+            for (int i = 0; i < n; i++)
+                equipmentLoads[equipments[i]] += durations[i];
+
+            for (double load : equipmentLoads)
+                lowerBound = Math.max(lowerBound, load);
+
+            for (int s = 0; s < N; s++)
+                lowerBound = Math.max(lowerBound, remainingWork(s, 0));
+
+            return lowerBound;
+        }
+
+        /**
+         * Converts a sequence of kernel exercise indexes back into Exercise objects.
+         *
+         * @param schedule kernel exercise indexes
+         * @param length   number of scheduled exercises
+         * @return the exercises list in schedule order
+         */
+        public List<Exercise> toExercises(int[] schedule, int length) {
+            final List<Exercise> solution = new ArrayList<>(length);
+
+            for (int i = 0; i < length; i++)
+                solution.add(exercises != null ? exercises[schedule[i]] : createExercise(schedule[i]));
+
+            return solution;
+        }
+
+        private Exercise createExercise(int exercise) {
+            return new Exercise(studentIds[exerciseStudents[exercise]], equipments[exercise] + 1,
+                    durations[exercise]);
+        }
+
+        /**
+         * Builds an Academy holding the kernel students and exercises, in kernel
+         * order.
+         *
+         * @return an Academy object
+         */
+        public Academy toAcademy() {
+            final Academy academy = new Academy(M, N, n);
+
+            for (int s = 0; s < N; s++) {
+                final Student student = new Student(studentIds[s]);
+
+                for (int i = sheetOffsets[s]; i < sheetOffsets[s + 1]; i++)
+                    student.addExercise(exercises != null ? exercises[i].clone() : createExercise(i));
+
+                academy.addStudent(student);
+            }
+
+            return academy;
+        }
+
+        /**
+         * Converts a complete schedule of Exercise objects into kernel exercise
+         * indexes. Exercises are matched by student and by their position inside the
+         * student sheet, so the list may come from any clone of the academy.
+         *
+         * @param solution exercises list in schedule order
+         * @return kernel exercise indexes in schedule order
+         */
+        public int[] toSchedule(List<Exercise> solution) {
+            if (solution.size() != n) {
+                throw new IllegalArgumentException("The schedule must contain all " + n + " exercises");
+            }
+
+            final Map<Integer, Integer> studentIndexes = new HashMap<>();
+            final int[] progress = new int[N];
+            final int[] schedule = new int[n];
+
+            for (int s = 0; s < N; s++)
+                studentIndexes.put(studentIds[s], s);
+
+            for (int i = 0; i < n; i++) {
+                final Integer student = studentIndexes.get(solution.get(i).studentId);
+
+                if (student == null || sheetOffsets[student] + progress[student] >= sheetOffsets[student + 1]) {
+                    throw new IllegalArgumentException("Invalid exercise in schedule: " + solution.get(i));
+                }
+
+                schedule[i] = sheetOffsets[student] + progress[student]++;
+            }
+
+            return schedule;
+        }
+    }
+
+    /**
+     * Calculates the duration time for a sequence of kernel exercises. The scratch
+     * arrays are overwritten, so no allocation happens while simulating.
+     *
+     * @param kernel               compact academy representation
+     * @param schedule             kernel exercise indexes in schedule order
+     * @param length               number of scheduled exercises
+     * @param equipmentFreeTimes   scratch array with one entry per equipment
+     * @param studentsElapsedTimes scratch array with one entry per student
+     * @return minutes duration in double
+     */
+    private static double simulateSchedule(ScheduleKernel kernel, int[] schedule, int length,
+            double[] equipmentFreeTimes, double[] studentsElapsedTimes) {
+        Arrays.fill(equipmentFreeTimes, 0.0);
+        Arrays.fill(studentsElapsedTimes, 0.0);
+
+        double elapsed = 0.0;
+
+        for (int i = 0; i < length; i++) {
+            final int exercise = schedule[i];
+            final int equipmentIdx = kernel.equipments[exercise];
+            final int student = kernel.exerciseStudents[exercise];
+            final double startTime = Math.max(equipmentFreeTimes[equipmentIdx], studentsElapsedTimes[student]);
+            final double finishTime = startTime + kernel.durations[exercise];
+
+            equipmentFreeTimes[equipmentIdx] = finishTime;
+            studentsElapsedTimes[student] = finishTime;
+            elapsed = Math.max(elapsed, finishTime);
+        }
+
+        return elapsed;
+    }
+
+    /**
+     * Calculates the duration time for a given permutation, storing each exercise
+     * start time. Used to build the solvers output from their kernel schedules.
+     *
+     * @param M        an academy equipments count
+     * @param schedule exercises list from a permutation
+     * @return minutes duration in double
+     */
+    private static double simulateSchedule(int M, List<Exercise> schedule) {
+        final double[] equipmentFreeTimes = new double[M];
+        final Map<Integer, Double> studentsElapsedTimes = new HashMap<>();
+    
+        for (Exercise exercise : schedule) {
+            final int equipmentIdIndex = exercise.equipmentId - 1;
+            final double equipmentFreeTime = equipmentFreeTimes[equipmentIdIndex];
+            final double studentsElapsedTime = studentsElapsedTimes.getOrDefault(exercise.studentId, 0.0);
+            final double startTime = Math.max(equipmentFreeTime, studentsElapsedTime);
+            exercise.startTime = startTime;
+            final double finishTime = startTime + exercise.duration;
+    
+            equipmentFreeTimes[equipmentIdIndex] = finishTime;
+            studentsElapsedTimes.put(exercise.studentId, finishTime);
+        }
+    
+        // Verifica se o mapa não está vazio antes de chamar Collections.max
+        if (studentsElapsedTimes.isEmpty()) {
+            return 0.0; // Se não houver estudantes, o tempo de execução é 0
+        }
+    
+        // Retorna o maior tempo entre os estudantes
+        return Collections.max(studentsElapsedTimes.values());
+    }
+    // endregion
+
+    // region Binary format
+
+    /**
+     * Layout of the binary academy format, all values little-endian:
+     * <ul>
+     * <li>header: int magic, int version, int M, int N, int n, int reserved</li>
+     * <li>int studentIds[N]</li>
+     * <li>int sheetOffsets[N + 1]</li>
+     * <li>int equipments[n], zero-based</li>
+     * <li>padding to a multiple of 8 bytes</li>
+     * <li>double durations[n]</li>
+     * </ul>
+     * The sections are the kernel arrays themselves, so loading is a bulk copy.
+     */
+    private static final int BINARY_MAGIC = 0x49414144; // "DAAI" read as a little-endian int
+    private static final int BINARY_VERSION = 1;
+    private static final int BINARY_HEADER_SIZE = 6 * Integer.BYTES;
+
+    /**
+     * Checks whether a file starts with the binary academy magic.
+     *
+     * @param filePath the path to the file
+     * @return true if the file is in the binary format
+     * @throws IOException if the file cannot be read
+     */
+    private static boolean isBinaryAcademyFile(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (header.hasRemaining() && channel.read(header) >= 0)
+                ;
+
+            return !header.hasRemaining() && header.getInt(0) == BINARY_MAGIC;
+        }
+    }
+
+    private static long binaryDurationsOffset(int N, int n) {
+        final long intsEnd = BINARY_HEADER_SIZE + (2L * N + 1 + n) * Integer.BYTES;
+
+        return (intsEnd + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+    }
+
+    /**
+     * Writes a kernel in the binary academy format.
+     *
+     * @param kernel   compact academy representation
+     * @param filePath the path to the output file
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeBinaryAcademy(ScheduleKernel kernel, String filePath) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(kernel.M).putInt(kernel.N).putInt(kernel.n)
+                    .putInt(0);
+
+            for (int[] section : new int[][] { kernel.studentIds, kernel.sheetOffsets, kernel.equipments }) {
+                for (int value : section) {
+                    if (!buffer.hasRemaining())
+                        flushBuffer(channel, buffer);
+
+                    buffer.putInt(value);
+                }
+            }
+
+            if (buffer.position() % Double.BYTES != 0)
+                buffer.putInt(0);
+
+            for (double duration : kernel.durations) {
+                if (!buffer.hasRemaining())
+                    flushBuffer(channel, buffer);
+
+                buffer.putDouble(duration);
+            }
+
+            flushBuffer(channel, buffer);
+        }
+    }
+
+    private static void flushBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+
+        buffer.clear();
+    }
+
+    /**
+     * Writes the buffer contents at a given file position.
+     *
+     * @return the number of bytes written
+     */
+    private static int flushBuffer(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        final int size = buffer.flip().remaining();
+
+        while (buffer.hasRemaining())
+            channel.write(buffer, position + size - buffer.remaining());
+
+        buffer.clear();
+
+        return size;
+    }
+
+    /**
+     * Loads a binary academy file into a kernel. Every section is memory-mapped
+     * and bulk-copied into the kernel arrays, with no parsing and no Exercise
+     * objects.
+     *
+     * @param filePath the path to the binary file
+     * @return the kernel stored in the file
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    private static ScheduleKernel readBinaryAcademy(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            if (channel.size() < BINARY_HEADER_SIZE)
+                throw new IOException("Truncated binary academy header");
+
+            final IntBuffer header = mapSection(channel, 0, BINARY_HEADER_SIZE).asIntBuffer();
+
+            if (header.get(0) != BINARY_MAGIC)
+                throw new IOException("Not a binary academy file");
+            if (header.get(1) != BINARY_VERSION)
+                throw new IOException("Unsupported binary academy version " + header.get(1));
+
+            final int M = header.get(2);
+            final int N = header.get(3);
+            final int n = header.get(4);
+
+            if (M < 0 || N < 0 || n < 0)
+                throw new IOException("Negative counts in binary academy header");
+
+            final long durationsOffset = binaryDurationsOffset(N, n);
+
+            // Counts are checked against the file before any array is allocated
+            if (channel.size() != durationsOffset + (long) n * Double.BYTES)
+                throw new IOException("Binary academy size does not match its header");
+            if ((long) n * Double.BYTES > Integer.MAX_VALUE || (N + 1L) * Integer.BYTES > Integer.MAX_VALUE)
+                throw new IOException("Binary academy section above 2 GB");
+
+            final int[] studentIds = new int[N];
+            final int[] sheetOffsets = new int[N + 1];
+            final int[] equipments = new int[n];
+            final double[] durations = new double[n];
+            long offset = BINARY_HEADER_SIZE;
+
+            mapSection(channel, offset, (long) N * Integer.BYTES).asIntBuffer().get(studentIds);
+            offset += (long) N * Integer.BYTES;
+            mapSection(channel, offset, (long) (N + 1) * Integer.BYTES).asIntBuffer().get(sheetOffsets);
+            offset += (long) (N + 1) * Integer.BYTES;
+            mapSection(channel, offset, (long) n * Integer.BYTES).asIntBuffer().get(equipments);
+            mapSection(channel, durationsOffset, (long) n * Double.BYTES).asDoubleBuffer().get(durations);
+
+            // The kernel only covers the equipment up to the highest one used, so a huge M allocates nothing. An id
+            // at or above M still raises the count past M and is rejected by the kernel
+            int usedEquipments = 0;
+
+            for (int equipment : equipments)
+                usedEquipments = Math.max(usedEquipments, equipment + 1);
+
+            try {
+                return new ScheduleKernel(Math.min(M, usedEquipments), studentIds, sheetOffsets, equipments, durations);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid binary academy: " + e.getMessage());
+            }
+        }
+    }
+
+    private static ByteBuffer mapSection(FileChannel channel, long offset, long size) throws IOException {
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Binary academy section above 2 GB");
+
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Converts a text academy file into the binary format.
+     *
+     * @param textFilePath   the path to the text file
+     * @param binaryFilePath the path to the output file
+     * @return the converted kernel
+     * @throws IOException if a file cannot be read or written
+     */
+    private static ScheduleKernel convertAcademyFile(String textFilePath, String binaryFilePath)
+            throws IOException {
+        final ScheduleKernel kernel = readAcademyRecords(textFilePath).toKernel();
+
+        writeBinaryAcademy(kernel, binaryFilePath);
+
+        return kernel;
+    }
+    // endregion
+
+    // region Instance decomposition
+
+    /**
+     * Union-find over the integers 0 to count - 1, with path halving and union by
+     * size.
+     */
+    private static class DisjointSets {
+        private final int[] parents;
+        private final int[] sizes;
+
+        DisjointSets(int count) {
+            this.parents = new int[count];
+            this.sizes = new int[count];
+
+            for (int i = 0; i < count; i++) {
+                parents[i] = i;
+                sizes[i] = 1;
+            }
+        }
+
+        int find(int element) {
+            while (parents[element] != element) {
+                parents[element] = parents[parents[element]];
+                element = parents[element];
+            }
+
+            return element;
+        }
+
+        void union(int a, int b) {
+            int rootA = find(a);
+            int rootB = find(b);
+
+            if (rootA == rootB)
+                return;
+
+            if (sizes[rootA] < sizes[rootB]) {
+                final int root = rootA;
+
+                rootA = rootB;
+                rootB = root;
+            }
+
+            parents[rootB] = rootA;
+            sizes[rootA] += sizes[rootB];
+        }
+    }
+
+    /**
+     * Students linked to each other by the equipment they use, directly or
+     * through other students. Components share no student and no equipment, so
+     * an exercise of one never waits for an exercise of another.
+     */
+    private static class KernelComponent {
+        final ScheduleKernel kernel; // Equipment renumbered over the ones the component uses
+        final int[] exercises; // Parent kernel index of each component exercise
+
+        KernelComponent(ScheduleKernel kernel, int[] exercises) {
+            this.kernel = kernel;
+            this.exercises = exercises;
+        }
+    }
+
+    /**
+     * Splits a kernel into the connected components of its student-equipment
+     * bipartite graph, found with a union-find over the exercises. Students
+     * without exercises belong to no component.
+     *
+     * @param kernel compact academy representation
+     * @return the components, largest first by exercise count
+     */
+    private static List<KernelComponent> decomposeKernel(ScheduleKernel kernel) {
+        final DisjointSets sets = new DisjointSets(kernel.N + kernel.M); // Students, then equipment
+
+        for (int i = 0; i < kernel.n; i++)
+            sets.union(kernel.exerciseStudents[i], kernel.N + kernel.equipments[i]);
+
+        final int[] rootComponents = new int[kernel.N + kernel.M];
+        final int[] studentComponents = new int[kernel.N];
+        int componentCount = 0;
+
+        Arrays.fill(rootComponents, -1);
+
+        for (int s = 0; s < kernel.N; s++) {
+            if (kernel.sheetOffsets[s] == kernel.sheetOffsets[s + 1]) {
+                studentComponents[s] = -1;
+                continue;
+            }
+
+            final int root = sets.find(s);
+
+            if (rootComponents[root] < 0)
+                rootComponents[root] = componentCount++;
+
+            studentComponents[s] = rootComponents[root];
+        }
+
+        // Students grouped by component with a counting sort, keeping their order
+        final int[] componentOffsets = new int[componentCount + 1];
+        final int[] componentStudents = new int[kernel.N];
+        final int[] exerciseCounts = new int[componentCount];
+
+        for (int s = 0; s < kernel.N; s++) {
+            if (studentComponents[s] >= 0) {
+                componentOffsets[studentComponents[s] + 1]++;
+                exerciseCounts[studentComponents[s]] += kernel.sheetOffsets[s + 1] - kernel.sheetOffsets[s];
+            }
+        }
+
+        for (int c = 0; c < componentCount; c++)
+            componentOffsets[c + 1] += componentOffsets[c];
+
+        final int[] componentFill = Arrays.copyOf(componentOffsets, componentCount);
+
+        for (int s = 0; s < kernel.N; s++) {
+            if (studentComponents[s] >= 0)
+                componentStudents[componentFill[studentComponents[s]]++] = s;
+        }
+
+        final int[] localEquipments = new int[kernel.M]; // Each equipment belongs to a single component
+        final List<KernelComponent> components = new ArrayList<>(componentCount);
+
+        Arrays.fill(localEquipments, -1);
+
+        for (int c = 0; c < componentCount; c++) {
+            final int studentCount = componentOffsets[c + 1] - componentOffsets[c];
+            final int[] studentIds = new int[studentCount];
+            final int[] sheetOffsets = new int[studentCount + 1];
+            final int[] equipments = new int[exerciseCounts[c]];
+            final double[] durations = new double[exerciseCounts[c]];
+            final int[] exercises = new int[exerciseCounts[c]];
+            int equipmentCount = 0;
+            int index = 0;
+
+            for (int k = 0; k < studentCount; k++) {
+                final int student = componentStudents[componentOffsets[c] + k];
+
+                studentIds[k] = kernel.studentIds[student];
+                sheetOffsets[k] = index;
+
+                for (int i = kernel.sheetOffsets[student]; i < kernel.sheetOffsets[student + 1]; i++) {
+                    if (localEquipments[kernel.equipments[i]] < 0)
+                        localEquipments[kernel.equipments[i]] = equipmentCount++;
+
+                    equipments[index] = localEquipments[kernel.equipments[i]];
+                    durations[index] = kernel.durations[i];
+                    exercises[index++] = i;
+                }
+            }
+
+            sheetOffsets[studentCount] = index;
+            components.add(new KernelComponent(
+                    new ScheduleKernel(equipmentCount, studentIds, sheetOffsets, equipments, durations), exercises));
+        }
+
+        components.sort((a, b) -> Integer.compare(b.kernel.n, a.kernel.n));
+
+        return components;
+    }
+
+    /**
+     * Merges the schedules of the components into one schedule of the parent
+     * kernel. Components never wait for each other, so every interleaving gives
+     * the same start times and the schedules are simply concatenated.
+     *
+     * @param kernel     parent kernel
+     * @param components components of the parent kernel
+     * @param schedules  complete schedule of each component, in component indexes
+     * @return the parent kernel exercise indexes in schedule order
+     */
+    private static int[] mergeComponentSchedules(ScheduleKernel kernel, List<KernelComponent> components,
+            List<int[]> schedules) {
+        final int[] schedule = new int[kernel.n];
+        int length = 0;
+
+        for (int c = 0; c < components.size(); c++) {
+            for (int exercise : schedules.get(c))
+                schedule[length++] = components.get(c).exercises[exercise];
+        }
+
+        return schedule;
+    }
+
+    /**
+     * Solves every component on a pool of worker threads, largest components
+     * first.
+     *
+     * @param components components to solve
+     * @param threads    number of worker threads
+     * @param solver     solver applied to each component
+     * @return the result of each component, in component order
+     */
+    private static <T> List<T> solveComponents(List<KernelComponent> components, int threads,
+            Function<KernelComponent, T> solver) {
+        final ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(threads, components.size())));
+        final List<ForkJoinTask<T>> tasks = new ArrayList<>();
+        final List<T> results = new ArrayList<>();
+
+        try {
+            for (KernelComponent component : components)
+                tasks.add(pool.submit(() -> solver.apply(component)));
+
+            for (ForkJoinTask<T> task : tasks)
+                results.add(task.join());
+        } finally {
+            pool.shutdown();
+        }
+
+        return results;
+    }
+
+    /**
+     * Controls decomposed solving: an academy whose students split into several
+     * components is solved one component at a time, in parallel, and the
+     * component solutions are merged back. Each component solver prints its own
+     * output, which may interleave with the others, and the merged lowest time is
+     * printed last.
+     *
+     * @param title     solver name printed with the merged lowest time
+     * @param academy   receives an Academy object generated from the read file
+     * @param decompose false to hand the whole academy to the solver
+     * @param threads   number of components solved at once
+     * @param solver    solver applied to the academy or to each component academy
+     * @return a list of exercises that represents the merged solution, or null if
+     *         the solver returned null for a component
+     */
+    private static List<Exercise> solveDecomposed(String title, Academy academy, boolean decompose, int threads,
+            Function<Academy, List<Exercise>> solver) {
+        if (!decompose)
+            return solver.apply(academy);
+
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final List<KernelComponent> components = decomposeKernel(kernel);
+
+        if (components.size() < 2)
+            return solver.apply(academy);
+
+        final StringBuilder sizes = new StringBuilder();
+
+        for (KernelComponent component : components)
+            sizes.append(sizes.length() > 0 ? ", " : "").append(component.kernel.n);
+
+        System.out.printf("%n%s: %d independent components of %s exercises%n", title, components.size(), sizes);
+
+        final List<int[]> schedules = solveComponents(components, threads, component -> {
+            final List<Exercise> solution = solver.apply(component.kernel.toAcademy());
+
+            return solution != null ? component.kernel.toSchedule(solution) : null;
+        });
+
+        if (schedules.contains(null))
+            return null;
+
+        final List<Exercise> solution = kernel.toExercises(mergeComponentSchedules(kernel, components, schedules),
+                kernel.n);
+        final double minTime = simulateSchedule(academy.M, solution);
+
+        System.out.printf("%n%s lowest time: %.2f minutes (%d components)%n", title, minTime, components.size());
+
+        return solution;
+    }
+    // endregion
+
+    // region Solution cache
+
+    /**
+     * Academy with its students put in a canonical order: by sheet, comparing the
+     * equipment and then the duration of each exercise, shorter sheets first on
+     * a common prefix. Student ids are left out, so academies that only differ by
+     * their ids or their student order share the same fingerprint.
+     */
+    private static class CanonicalAcademy {
+        final ScheduleKernel kernel;
+        final String fingerprint; // 128-bit hash of M and the canonical sheets, in hex
+        final int[] students; // Kernel student at each canonical position
+        final int[] kernelExercises; // Kernel exercise index of each canonical exercise
+        final int[] canonicalExercises; // Canonical exercise index of each kernel exercise
+        private long high = 0x243F6A8885A308D3L;
+        private long low = 0x13198A2E03707344L;
+
+        CanonicalAcademy(ScheduleKernel kernel) {
+            final Integer[] order = new Integer[kernel.N];
+
+            for (int s = 0; s < kernel.N; s++)
+                order[s] = s;
+
+            Arrays.sort(order, (a, b) -> compareSheets(kernel, a, b));
+
+            this.kernel = kernel;
+            this.students = new int[kernel.N];
+            this.kernelExercises = new int[kernel.n];
+            this.canonicalExercises = new int[kernel.n];
+
+            int index = 0;
+
+            hash(kernel.M);
+            hash(kernel.N);
+
+            for (int c = 0; c < kernel.N; c++) {
+                final int student = order[c];
+
+                students[c] = student;
+                hash(kernel.sheetOffsets[student + 1] - kernel.sheetOffsets[student]);
+
+                for (int i = kernel.sheetOffsets[student]; i < kernel.sheetOffsets[student + 1]; i++) {
+                    hash(kernel.equipments[i]);
+                    hash(Double.doubleToLongBits(kernel.durations[i]));
+                    kernelExercises[index] = i;
+                    canonicalExercises[i] = index++;
+                }
+            }
+
+            this.fingerprint = String.format("%016x%016x", mix(high), mix(low ^ high));
+        }
+
+        private void hash(long value) {
+            high = Long.rotateLeft(high ^ mix(value), 31) * 0x9E3779B97F4A7C15L;
+            low = Long.rotateLeft(low ^ mix(value ^ 0xD6E8FEB86659FD93L), 29) * 0xC2B2AE3D27D4EB4FL + high;
+        }
+
+        /**
+         * Returns a fingerprint of the kernel student order, in hex. Solvers whose
+         * schedule depends on that order, such as the dispatch heuristic breaking
+         * ties by the lowest student, append it to their key, so academies only
+         * share their entries when their students come in the same order.
+         *
+         * @return the 64-bit hash of the kernel student at each canonical position
+         */
+        String orderFingerprint() {
+            long hash = 0xA4093822299F31D0L;
+
+            for (int student : students)
+                hash = Long.rotateLeft(hash ^ mix(student), 31) * 0x9E3779B97F4A7C15L;
+
+            return String.format("%016x", mix(hash));
+        }
+
+        /**
+         * 64-bit finalizer of MurmurHash3.
+         */
+        private static long mix(long value) {
+            value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+            value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+
+            return value ^ (value >>> 33);
+        }
+
+        private static int compareSheets(ScheduleKernel kernel, int a, int b) {
+            final int lengthA = kernel.sheetOffsets[a + 1] - kernel.sheetOffsets[a];
+            final int lengthB = kernel.sheetOffsets[b + 1] - kernel.sheetOffsets[b];
+
+            for (int i = 0; i < Math.min(lengthA, lengthB); i++) {
+                final int exerciseA = kernel.sheetOffsets[a] + i;
+                final int exerciseB = kernel.sheetOffsets[b] + i;
+
+                if (kernel.equipments[exerciseA] != kernel.equipments[exerciseB])
+                    return Integer.compare(kernel.equipments[exerciseA], kernel.equipments[exerciseB]);
+
+                if (kernel.durations[exerciseA] != kernel.durations[exerciseB])
+                    return Double.compare(kernel.durations[exerciseA], kernel.durations[exerciseB]);
+            }
+
+            return lengthA != lengthB ? Integer.compare(lengthA, lengthB) : Integer.compare(a, b);
+        }
+    }
+
+    /**
+     * Schedule read from the solution cache, in kernel exercise indexes.
+     */
+    private static class CachedSchedule {
+        final int[] schedule;
+        final double makespan;
+
+        CachedSchedule(int[] schedule, double makespan) {
+            this.schedule = schedule;
+            this.makespan = makespan;
+        }
+    }
+
+    /**
+     * Persistent store of solved schedules, one file per canonical academy and
+     * solver in a directory, so academies that only differ by their student ids
+     * or order are solved once across runs. Schedules are stored in canonical
+     * exercise indexes and remapped onto the students of the academy that reads
+     * them.
+     * <p>
+     * Entries are evicted least recently used first once the files exceed the
+     * size budget. The recency order lives in an access-ordered LinkedHashMap and
+     * survives restarts through the file modification times, which a hit
+     * refreshes. Entries hold their canonical academy, which a hit must match
+     * exactly, so a fingerprint collision is only a miss. A file that cannot be
+     * read or does not match counts as a miss and is dropped. Methods are
+     * synchronized, so batch workers share one cache.
+     * <p>
+     * File layout, little-endian: int magic, int version, int M, int N, int n,
+     * int reserved, double makespan, int sheetLengths[N], int equipments[n],
+     * double durations[n], all in canonical order, then the canonical exercise
+     * indexes of the schedule.
+     */
+    private static class SolutionCache {
+        private static final int MAGIC = 0x43414144; // "DAAC" read as a little-endian int
+        private static final int VERSION = 1;
+        private static final int HEADER_SIZE = 6 * Integer.BYTES + Double.BYTES;
+        private static final String EXTENSION = ".schedule";
+        final Path directory;
+        final long maxBytes;
+        private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true); // File sizes
+        private long totalBytes;
+        long hits;
+        long misses;
+        long stores;
+        long evictions;
+
+        /**
+         * Opens the cache stored in a directory, creating the directory if missing.
+         *
+         * @param directory cache directory
+         * @param maxBytes  size budget of the cache files
+         * @throws IOException if the directory cannot be created or listed
+         */
+        SolutionCache(Path directory, long maxBytes) throws IOException {
+            this.directory = directory;
+            this.maxBytes = maxBytes;
+
+            Files.createDirectories(directory);
+
+            final List<Path> files = new ArrayList<>();
+
+            try (Stream<Path> listing = Files.list(directory)) {
+                listing.filter(file -> file.getFileName().toString().endsWith(EXTENSION)).forEach(files::add);
+            }
+
+            final Map<Path, Long> modifiedTimes = new HashMap<>();
+
+            for (Path file : files)
+                modifiedTimes.put(file, Files.getLastModifiedTime(file).toMillis());
+
+            files.sort(Comparator.comparing(modifiedTimes::get));
+
+            for (Path file : files) {
+                final long size = Files.size(file);
+
+                entries.put(file.getFileName().toString(), size);
+                totalBytes += size;
+            }
+
+            evict();
+        }
+
+        private static String fileName(CanonicalAcademy canonical, String solverKey) {
+            return canonical.fingerprint + "-" + solverKey + EXTENSION;
+        }
+
+        /**
+         * Looks up the schedule a solver found for an academy.
+         *
+         * @param kernel    academy to solve
+         * @param canonical canonical form of the kernel
+         * @param solverKey solver and the settings its schedule depends on
+         * @return the schedule in the kernel exercise indexes, or null on a miss
+         */
+        synchronized CachedSchedule get(ScheduleKernel kernel, CanonicalAcademy canonical, String solverKey) {
+            final String name = fileName(canonical, solverKey);
+
+            if (entries.get(name) == null) {
+                misses++;
+                return null;
+            }
+
+            final Path file = directory.resolve(name);
+
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+
+                if (buffer.capacity() == entrySize(kernel) && buffer.getInt() == MAGIC && buffer.getInt() == VERSION
+                        && buffer.getInt() == kernel.M && buffer.getInt() == kernel.N && buffer.getInt() == kernel.n) {
+                    buffer.getInt();
+
+                    final double makespan = buffer.getDouble();
+                    final int[] schedule = readSchedule(buffer, kernel, canonical);
+
+                    if (schedule != null) {
+                        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                        hits++;
+
+                        return new CachedSchedule(schedule, makespan);
+                    }
+                }
+            } catch (IOException e) {
+                // Unreadable entries are dropped below
+            }
+
+            remove(name);
+            misses++;
+
+            return null;
+        }
+
+        private static long entrySize(ScheduleKernel kernel) {
+            return HEADER_SIZE + (long) kernel.N * Integer.BYTES + (long) kernel.n * (2 * Integer.BYTES + Double.BYTES);
+        }
+
+        /**
+         * Checks the stored canonical academy against the kernel and reads the
+         * stored schedule.
+         *
+         * @return the schedule in kernel exercise indexes, or null if the entry
+         *         belongs to another academy or is not a valid schedule
+         */
+        private static int[] readSchedule(ByteBuffer buffer, ScheduleKernel kernel, CanonicalAcademy canonical) {
+            for (int student : canonical.students) {
+                if (buffer.getInt() != kernel.sheetOffsets[student + 1] - kernel.sheetOffsets[student])
+                    return null;
+            }
+
+            for (int exercise : canonical.kernelExercises) {
+                if (buffer.getInt() != kernel.equipments[exercise])
+                    return null;
+            }
+
+            for (int exercise : canonical.kernelExercises) {
+                if (buffer.getDouble() != kernel.durations[exercise])
+                    return null;
+            }
+
+            final int[] schedule = new int[kernel.n];
+            final int[] progress = new int[kernel.N];
+
+            for (int i = 0; i < kernel.n; i++) {
+                final int canonicalExercise = buffer.getInt();
+
+                if (canonicalExercise < 0 || canonicalExercise >= kernel.n)
+                    return null;
+
+                final int exercise = canonical.kernelExercises[canonicalExercise];
+                final int student = kernel.exerciseStudents[exercise];
+
+                // Each sheet must come in order, which also rules out repeated exercises
+                if (exercise != kernel.sheetOffsets[student] + progress[student]++)
+                    return null;
+
+                schedule[i] = exercise;
+            }
+
+            return schedule;
+        }
+
+        /**
+         * Stores the schedule a solver found for an academy. Write failures only
+         * leave the schedule uncached.
+         *
+         * @param canonical canonical form of the academy
+         * @param solverKey solver and the settings its schedule depends on
+         * @param schedule  kernel exercise indexes in schedule order
+         * @param makespan  schedule duration in minutes
+         */
+        synchronized void put(CanonicalAcademy canonical, String solverKey, int[] schedule, double makespan) {
+            final ScheduleKernel kernel = canonical.kernel;
+            final String name = fileName(canonical, solverKey);
+            final ByteBuffer buffer = ByteBuffer.allocate((int) entrySize(kernel)).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(kernel.M).putInt(kernel.N).putInt(kernel.n).putInt(0)
+                    .putDouble(makespan);
+
+            for (int student : canonical.students)
+                buffer.putInt(kernel.sheetOffsets[student + 1] - kernel.sheetOffsets[student]);
+
+            for (int exercise : canonical.kernelExercises)
+                buffer.putInt(kernel.equipments[exercise]);
+
+            for (int exercise : canonical.kernelExercises)
+                buffer.putDouble(kernel.durations[exercise]);
+
+            for (int exercise : schedule)
+                buffer.putInt(canonical.canonicalExercises[exercise]);
+
+            try {
+                // Named after the process, since other runs may write the same entry
+                final Path temporaryFile = directory.resolve(name + "." + ProcessHandle.current().pid() + ".tmp");
+
+                Files.write(temporaryFile, buffer.array());
+                // Readers in other runs never see a partly written entry
+                Files.move(temporaryFile, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                return;
+            }
+
+            final Long previousSize = entries.put(name, (long) buffer.capacity());
+
+            totalBytes += buffer.capacity() - (previousSize != null ? previousSize : 0);
+            stores++;
+            evict();
+        }
+
+        private void remove(String name) {
+            final Long size = entries.remove(name);
+
+            if (size != null)
+                totalBytes -= size;
+
+            try {
+                Files.deleteIfExists(directory.resolve(name));
+            } catch (IOException e) {
+                // The entry is forgotten anyway, a later store overwrites the file
+            }
+        }
+
+        private void evict() {
+            while (totalBytes > maxBytes && !entries.isEmpty()) {
+                remove(entries.keySet().iterator().next());
+                evictions++;
+            }
+        }
+
+        /**
+         * Summarizes the cache activity of this run.
+         *
+         * @return hits, misses, hit rate, stores, evictions and the cache size
+         */
+        synchronized String describe() {
+            final long lookups = hits + misses;
+
+            return String.format(Locale.ROOT,
+                    "%d hits, %d misses (%.1f%% hit rate), %d stores, %d evictions, %d entries, %.1f KB", hits,
+                    misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, stores, evictions, entries.size(),
+                    totalBytes / 1024.0);
+        }
+    }
+
+    /**
+     * Returns the cached schedule of a solver for an academy, or runs the solver
+     * and caches its schedule. A hit is printed like a solver result.
+     *
+     * @param cache     solution cache, or null to always run the solver
+     * @param solverKey solver and the settings its schedule depends on
+     * @param cacheable false if the solver result must not be stored, such as a
+     *                  search cut short by a budget
+     * @param ordered   true if the schedule depends on the student order, so only
+     *                  academies with the same order share it
+     * @param title     solver name printed on a hit
+     * @param academy   academy to solve, left untouched
+     * @param solver    runs the solver on a clone of the academy, may return null
+     *                  when it fails
+     * @return a list of exercises that represents the solution
+     */
+    private static List<Exercise> solveWithCache(SolutionCache cache, String solverKey, boolean cacheable,
+            boolean ordered, String title, Academy academy, Supplier<List<Exercise>> solver) {
+        if (cache == null)
+            return solver.get();
+
+        final Academy clone = academy.clone();
+        final ScheduleKernel kernel = new ScheduleKernel(clone);
+        final CanonicalAcademy canonical = new CanonicalAcademy(kernel);
+        final String key = ordered ? solverKey + "-" + canonical.orderFingerprint() : solverKey;
+        final CachedSchedule cached = cache.get(kernel, canonical, key);
+
+        if (cached != null) {
+            final List<Exercise> cachedSolution = kernel.toExercises(cached.schedule, kernel.n);
+
+            simulateSchedule(academy.M, cachedSolution);
+
+            System.out.printf("\n%s lowest time: %.2f minutes (solution cache)%n", title, cached.makespan);
+            System.out.println("Optimal sequence solution:");
+
+            for (Exercise exercise : cachedSolution)
+                System.out.println("> " + exercise);
+
+            return cachedSolution;
+        }
+
+        final List<Exercise> solution = solver.get();
+
+        if (cacheable && solution != null && solution.size() == kernel.n) {
+            final int[] schedule = kernel.toSchedule(solution);
+
+            cache.put(canonical, key, schedule,
+                    simulateSchedule(kernel, schedule, kernel.n, new double[kernel.M], new double[kernel.N]));
+        }
+
+        return solution;
+    }
+    // endregion
+
+    // region Solution certificates
+
+    /**
+     * Lower bounds of the makespan of an academy, from the cheapest to the
+     * strongest. None of them depends on a solver, so every solver result is
+     * measured against the same value.
+     */
+    private static class LowerBoundCertificate {
+        final double equipmentLoad; // Largest total duration of an equipment
+        final double sheetLength; // Largest total duration of a student sheet
+        final double oneMachine; // One-machine relaxation with sheet heads and tails
+        final double edgeFinding; // Root propagation of the disjunctive graph, capped by the best dispatch schedule
+        final double value; // Largest of the bounds
+
+        LowerBoundCertificate(double equipmentLoad, double sheetLength, double oneMachine, double edgeFinding) {
+            this.equipmentLoad = equipmentLoad;
+            this.sheetLength = sheetLength;
+            this.oneMachine = oneMachine;
+            this.edgeFinding = edgeFinding;
+            this.value = Math.max(Math.max(equipmentLoad, sheetLength), Math.max(oneMachine, edgeFinding));
+        }
+
+        /**
+         * Returns the relative distance of a makespan to the lower bound, the
+         * share of it that an optimal schedule may still save.
+         *
+         * @param makespan makespan of a schedule
+         * @return the gap between 0 and 1, 0 when the schedule is proven optimal
+         */
+        double gap(double makespan) {
+            return makespan <= 0.0 ? 0.0 : Math.max(0.0, (makespan - value) / makespan);
+        }
+
+        String describe() {
+            return String.format(Locale.ROOT, "%.2f minutes (equipment load %.2f, student sheet %.2f, "
+                    + "one-machine %.2f, edge-finding %.2f)", value, equipmentLoad, sheetLength, oneMachine,
+                    edgeFinding);
+        }
+    }
+
+    /**
+     * Computes the lower bound certificate of an academy. The edge-finding bound
+     * propagates the root of the disjunctive graph search against the best
+     * dispatch schedule: either no shorter schedule exists, or none ends before
+     * the propagated bound.
+     *
+     * @param kernel compact academy representation
+     * @return the lower bounds
+     */
+    private static LowerBoundCertificate certifyLowerBound(ScheduleKernel kernel) {
+        final double[] equipmentLoads = new double[kernel.M];
+        double equipmentLoad = 0.0;
+        double sheetLength = 0.0;
+
+        for (int i = 0; i < kernel.n; i++)
+            equipmentLoads[kernel.equipments[i]] += kernel.durations[i];
+
+        for (double load : equipmentLoads)
+            equipmentLoad = Math.max(equipmentLoad, load);
+
+        for (int s = 0; s < kernel.N; s++)
+            sheetLength = Math.max(sheetLength, kernel.remainingWork(s, 0));
+
+        if (kernel.n == 0)
+            return new LowerBoundCertificate(0.0, 0.0, 0.0, 0.0);
+
+        final double oneMachine = calculateOneMachineLowerBound(
+                new BranchAndBoundState(kernel, LowerBound.ONE_MACHINE));
+        final DisjunctiveGraphSearch search = new DisjunctiveGraphSearch(kernel,
+                buildBestApproximateSchedule(kernel));
+
+        search.propagateRoot();
+
+        return new LowerBoundCertificate(equipmentLoad, sheetLength, oneMachine, search.rootLowerBound);
+    }
+
+    /**
+     * Checks a solution against its academy without trusting the solver: every
+     * exercise of every sheet appears once and in sheet order, no exercise starts
+     * before the previous one of its student ends, and no two exercises overlap
+     * on an equipment. The makespan is then read from the start times.
+     *
+     * @param academy  academy the solution was built for, or a clone of it
+     * @param solution exercises list with their start times
+     * @return the makespan in minutes
+     * @throws IllegalStateException if the solution is not a feasible schedule of
+     *                               the academy
+     */
+    private static double verifySolution(Academy academy, List<Exercise> solution) {
+        final double tolerance = 1e-9;
+        final Map<Integer, Student> students = new HashMap<>();
+        final Map<Integer, Integer> progress = new HashMap<>();
+        final Map<Integer, Double> studentsFinishTimes = new HashMap<>();
+        final List<List<Exercise>> equipmentExercises = new ArrayList<>();
+        int exerciseCount = 0;
+        double makespan = 0.0;
+
+        for (Student student : academy.students) {
+            students.put(student.studentId, student);
+            exerciseCount += student.exercises.size();
+        }
+
+        for (int m = 0; m < academy.M; m++)
+            equipmentExercises.add(new ArrayList<>());
+
+        if (solution.size() != exerciseCount) {
+            throw new IllegalStateException("The solution has " + solution.size() + " exercises instead of "
+                    + exerciseCount);
+        }
+
+        for (Exercise exercise : solution) {
+            final Student student = students.get(exercise.studentId);
+            final int position = progress.getOrDefault(exercise.studentId, 0);
+
+            if (student == null || position >= student.exercises.size()
+                    || student.exercises.get(position).equipmentId != exercise.equipmentId
+                    || student.exercises.get(position).duration != exercise.duration) {
+                throw new IllegalStateException("Exercise out of its sheet order: " + exercise);
+            }
+
+            final double finishTime = exercise.startTime + exercise.duration;
+
+            if (exercise.startTime < 0.0
+                    || exercise.startTime < studentsFinishTimes.getOrDefault(exercise.studentId, 0.0) - tolerance) {
+                throw new IllegalStateException("Exercise starts before its student is free: " + exercise);
+            }
+
+            progress.put(exercise.studentId, position + 1);
+            studentsFinishTimes.put(exercise.studentId, finishTime);
+            equipmentExercises.get(exercise.equipmentId - 1).add(exercise);
+            makespan = Math.max(makespan, finishTime);
+        }
+
+        for (List<Exercise> exercises : equipmentExercises) {
+            exercises.sort(Comparator.comparingDouble(exercise -> exercise.startTime));
+
+            for (int i = 1; i < exercises.size(); i++) {
+                final Exercise previous = exercises.get(i - 1);
+
+                if (exercises.get(i).startTime < previous.startTime + previous.duration - tolerance) {
+                    throw new IllegalStateException("Exercises overlap on equipment " + previous.equipmentId + ": "
+                            + previous + " and " + exercises.get(i));
+                }
+            }
+        }
+
+        return makespan;
+    }
+
+    /**
+     * Solution of one solver with its verified makespan and its gap to the lower
+     * bound of the academy.
+     */
+    private static class SolverResult {
+        final String solver;
+        final List<Exercise> solution;
+        final double makespan; // Read from the verified start times
+        final LowerBoundCertificate lowerBound;
+        final double gap;
+
+        /**
+         * Verifies a solution and measures it against the lower bound.
+         *
+         * @param solver     solver name
+         * @param academy    academy the solution was built for
+         * @param solution   exercises list with their start times
+         * @param lowerBound lower bound certificate of the academy
+         * @throws IllegalStateException if the solution is not a feasible schedule
+         */
+        SolverResult(String solver, Academy academy, List<Exercise> solution, LowerBoundCertificate lowerBound) {
+            this.solver = solver;
+            this.solution = solution;
+            this.makespan = verifySolution(academy, solution);
+            this.lowerBound = lowerBound;
+            this.gap = lowerBound.gap(makespan);
+        }
+
+        String describe() {
+            return String.format(Locale.ROOT, "%s: %.2f minutes, gap %.2f%%%s", solver, makespan, gap * 100,
+                    gap == 0.0 ? " (optimal)" : "");
+        }
+    }
+    // endregion
+
+    // region Solver metrics
+
+    /**
+     * Search statistics of one solver run: expanded and pruned nodes, the depth
+     * of the expanded nodes, every improving incumbent, the time spent computing
+     * lower bounds and simulating schedules, and the bytes allocated. The nodes
+     * are the progress vectors of the dynamic programming and the evaluated moves
+     * of the local search. Counters are LongAdders, so parallel workers update
+     * them without contending on a single cache line. Solvers only hold a metrics
+     * object when metrics are requested and test it for null, so a run without
+     * metrics pays one branch per node. Lower bound and simulation calls are all
+     * counted, but only one in {@link #TIMING_SAMPLE} is timed, at random, and the
+     * sampled time is scaled by the call count: a metered call costs a counter
+     * increment and a random draw, and the two clock reads only every so often.
+     */
+    private static class SolverMetrics {
+        final String solver;
+        final LongAdder nodes = new LongAdder();
+        final LongAdder boundPrunes = new LongAdder();
+        final LongAdder dominancePrunes = new LongAdder(); // Transposition table or dominated labels
+        static final int TIMING_SAMPLE = 1024; // One timed call in that many, a power of two
+        final LongAdder lowerBoundCalls = new LongAdder();
+        final LongAdder lowerBoundSamples = new LongAdder();
+        final LongAdder lowerBoundSampledNanos = new LongAdder();
+        final LongAdder simulationCalls = new LongAdder();
+        final LongAdder simulationSamples = new LongAdder();
+        final LongAdder simulationSampledNanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+        final LongAdder[] depthCounts; // Expanded nodes at each depth
+        // Improving incumbents as {milliseconds since the start, makespan}
+        private final List<double[]> incumbents = new ArrayList<>();
+        private final long ownerThread = Thread.currentThread().getId();
+        private long ownerAllocationRead = threadAllocatedBytes(ownerThread);
+        final long startTime = System.nanoTime();
+        long elapsedNanos;
+
+        /**
+         * Starts collecting the metrics of a run on the current thread.
+         *
+         * @param solver   name of the solver
+         * @param maxDepth deepest node the solver can reach, usually the number of
+         *                 exercises
+         */
+        SolverMetrics(String solver, int maxDepth) {
+            this.solver = solver;
+            this.depthCounts = new LongAdder[maxDepth + 1];
+
+            for (int depth = 0; depth <= maxDepth; depth++)
+                depthCounts[depth] = new LongAdder();
+        }
+
+        void recordNode(int depth) {
+            nodes.increment();
+            depthCounts[depth].increment();
+        }
+
+        /**
+         * Counts a lower bound call.
+         *
+         * @return true if the call is sampled, its time then goes to
+         *         {@link #recordLowerBound}
+         */
+        boolean countLowerBound() {
+            lowerBoundCalls.increment();
+            return isSampled();
+        }
+
+        void recordLowerBound(long nanos) {
+            lowerBoundSamples.increment();
+            lowerBoundSampledNanos.add(nanos);
+        }
+
+        /**
+         * Counts a simulation call.
+         *
+         * @return true if the call is sampled, its time then goes to
+         *         {@link #recordSimulation}
+         */
+        boolean countSimulation() {
+            simulationCalls.increment();
+            return isSampled();
+        }
+
+        void recordSimulation(long nanos) {
+            simulationSamples.increment();
+            simulationSampledNanos.add(nanos);
+        }
+
+        private static boolean isSampled() {
+            return (ThreadLocalRandom.current().nextInt() & (TIMING_SAMPLE - 1)) == 0;
+        }
+
+        long lowerBoundNanos() {
+            return estimateNanos(lowerBoundCalls.sum(), lowerBoundSamples.sum(), lowerBoundSampledNanos.sum());
+        }
+
+        long simulationNanos() {
+            return estimateNanos(simulationCalls.sum(), simulationSamples.sum(), simulationSampledNanos.sum());
+        }
+
+        private static long estimateNanos(long calls, long samples, long sampledNanos) {
+            return samples == 0 ? 0 : Math.round((double) sampledNanos * calls / samples);
+        }
+
+        /**
+         * Adds an incumbent to the timeline if it beats every recorded one. Parallel
+         * workers or restarts may find worse schedules than the global best, and
+         * those are left out.
+         *
+         * @param makespan makespan of the incumbent
+         */
+        synchronized void recordIncumbent(double makespan) {
+            if (incumbents.isEmpty() || makespan < incumbents.get(incumbents.size() - 1)[1])
+                incumbents.add(new double[] { (System.nanoTime() - startTime) / 1_000_000.0, makespan });
+        }
+
+        /**
+         * Adds the bytes allocated by a worker thread since a previous reading. The
+         * thread that created the metrics is left out, since finish() counts it.
+         *
+         * @param threadId        worker thread id
+         * @param allocationStart allocated bytes read when the worker started
+         */
+        void recordThreadAllocation(long threadId, long allocationStart) {
+            final long allocation = threadAllocatedBytes(threadId);
+
+            if (threadId != ownerThread && allocation >= 0 && allocationStart >= 0)
+                allocatedBytes.add(allocation - allocationStart);
+        }
+
+        /**
+         * Stops the clock and adds the bytes allocated by the thread that created
+         * the metrics since the previous call. Must be called once the solver
+         * returns; decomposed runs call it once per component and the last call
+         * sets the elapsed time.
+         */
+        synchronized void finish() {
+            final long allocation = threadAllocatedBytes(ownerThread);
+
+            elapsedNanos = System.nanoTime() - startTime;
+
+            if (allocation >= 0 && ownerAllocationRead >= 0)
+                allocatedBytes.add(allocation - ownerAllocationRead);
+
+            ownerAllocationRead = allocation;
+        }
+
+        /**
+         * Formats the metrics as indented text lines. Depths are grouped into at
+         * most 16 histogram rows.
+         *
+         * @return the report, ending with a line break
+         */
+        String describe() {
+            final long nodesCount = Math.max(1, nodes.sum());
+            final double elapsedMillis = elapsedNanos / 1_000_000.0;
+            final StringBuilder report = new StringBuilder();
+
+            report.append(String.format(Locale.ROOT, "%s metrics (%.3f ms):%n", solver, elapsedMillis));
+            report.append(String.format(Locale.ROOT,
+                    "  Nodes expanded: %d, pruned by bound: %d (%.2f%%), by dominance: %d (%.2f%%)%n", nodes.sum(),
+                    boundPrunes.sum(), 100.0 * boundPrunes.sum() / nodesCount, dominancePrunes.sum(),
+                    100.0 * dominancePrunes.sum() / nodesCount));
+            report.append(describeTime("Lower bound", lowerBoundCalls.sum(), lowerBoundSamples.sum(),
+                    lowerBoundNanos()));
+            report.append(describeTime("Simulation", simulationCalls.sum(), simulationSamples.sum(),
+                    simulationNanos()));
+            report.append(String.format(Locale.ROOT, "  Allocated: %.1f KB, %.1f bytes per node%n",
+                    allocatedBytes.sum() / 1024.0, (double) allocatedBytes.sum() / nodesCount));
+
+            final long[] histogram = depthHistogram();
+            int lastDepth = histogram.length - 1;
+
+            while (lastDepth > 0 && histogram[lastDepth] == 0)
+                lastDepth--;
+
+            if (nodes.sum() > 0 && histogram[lastDepth] > 0) {
+                final int bucketWidth = lastDepth / 16 + 1;
+
+                report.append("  Nodes per depth:").append(System.lineSeparator());
+
+                for (int from = 0; from <= lastDepth; from += bucketWidth) {
+                    final int to = Math.min(lastDepth, from + bucketWidth - 1);
+                    long count = 0;
+
+                    for (int depth = from; depth <= to; depth++)
+                        count += histogram[depth];
+
+                    report.append(String.format(Locale.ROOT, "    %-10s %d%n",
+                            from == to ? String.valueOf(from) : from + "-" + to, count));
+                }
+            }
+
+            for (double[] incumbent : incumbentTimeline())
+                report.append(String.format(Locale.ROOT, "  Incumbent %.2f minutes after %.3f ms%n", incumbent[1],
+                        incumbent[0]));
+
+            return report.toString();
+        }
+
+        private static String describeTime(String name, long calls, long samples, long nanos) {
+            if (calls == 0)
+                return "  " + name + ": not measured" + System.lineSeparator();
+
+            if (samples == 0)
+                return String.format(Locale.ROOT, "  %s: %d calls, none sampled for timing%n", name, calls);
+
+            return String.format(Locale.ROOT, "  %s: %.3f ms in %d calls, %.1f ns per call%n", name,
+                    nanos / 1_000_000.0, calls, (double) nanos / calls);
+        }
+
+        /**
+         * Formats the metrics as a single-line JSON object.
+         *
+         * @return the JSON object
+         */
+        String toJson() {
+            final StringBuilder json = new StringBuilder();
+
+            json.append(String.format(Locale.ROOT, "{\"solver\":%s,\"millis\":%.3f,\"nodes\":%d,"
+                    + "\"boundPrunes\":%d,\"dominancePrunes\":%d,\"lowerBoundCalls\":%d,\"lowerBoundMillis\":%.3f,"
+                    + "\"simulationCalls\":%d,\"simulationMillis\":%.3f,\"allocatedBytes\":%d,\"depthHistogram\":[",
+                    quoteJson(solver), elapsedNanos / 1_000_000.0, nodes.sum(), boundPrunes.sum(),
+                    dominancePrunes.sum(), lowerBoundCalls.sum(), lowerBoundNanos() / 1_000_000.0,
+                    simulationCalls.sum(), simulationNanos() / 1_000_000.0, allocatedBytes.sum()));
+
+            final long[] histogram = depthHistogram();
+
+            for (int depth = 0; depth < histogram.length; depth++)
+                json.append(depth > 0 ? "," : "").append(histogram[depth]);
+
+            json.append("],\"incumbents\":[");
+
+            final List<double[]> timeline = incumbentTimeline();
+
+            for (int i = 0; i < timeline.size(); i++)
+                json.append(String.format(Locale.ROOT, "%s{\"millis\":%.3f,\"makespan\":%.2f}", i > 0 ? "," : "",
+                        timeline.get(i)[0], timeline.get(i)[1]));
+
+            return json.append("]}").toString();
+        }
+
+        private long[] depthHistogram() {
+            final long[] histogram = new long[depthCounts.length];
+
+            for (int depth = 0; depth < histogram.length; depth++)
+                histogram[depth] = depthCounts[depth].sum();
+
+            return histogram;
+        }
+
+        private synchronized List<double[]> incumbentTimeline() {
+            return new ArrayList<>(incumbents);
+        }
+    }
+
+    /**
+     * Flight Recorder event spanning one solver run, recorded with
+     * {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}. The event
+     * classes are only loaded once the recorder is initialized, since loading the
+     * first one takes a few hundred milliseconds otherwise.
+     */
+    @Name("org.daa_tp02.Solve")
+    @Label("Solve")
+    @Category("Scheduling")
+    static final class SolveEvent extends Event {
+        @Label("Solver")
+        String solver;
+        @Label("Exercises")
+        int exercises;
+        @Label("Nodes")
+        long nodes;
+        @Label("Pruned")
+        long pruned;
+        @Label("Makespan")
+        double makespan;
+        @Label("Budget Exhausted")
+        boolean stopped;
+    }
+
+    /**
+     * Flight Recorder event of every improving incumbent found by a solver.
+     */
+    @Name("org.daa_tp02.Incumbent")
+    @Label("Incumbent")
+    @Category("Scheduling")
+    static final class IncumbentEvent extends Event {
+        @Label("Solver")
+        String solver;
+        @Label("Makespan")
+        double makespan;
+    }
+
+    /**
+     * Begins the event of a solver run.
+     *
+     * @return the event, or null when the Flight Recorder is not initialized
+     */
+    private static SolveEvent beginSolveEvent() {
+        if (!FlightRecorder.isInitialized())
+            return null;
+
+        final SolveEvent event = new SolveEvent();
+
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event of a solver run and commits it when a recording wants it.
+     *
+     * @param event     event returned by beginSolveEvent, or null
+     * @param solver    name of the solver
+     * @param exercises number of exercises of the academy
+     * @param nodes     expanded nodes
+     * @param pruned    pruned nodes
+     * @param makespan  makespan of the best schedule found
+     * @param stopped   whether a budget ran out before the search was complete
+     */
+    private static void finishSolveEvent(SolveEvent event, String solver, int exercises, long nodes, long pruned,
+            double makespan, boolean stopped) {
+        if (event == null)
+            return;
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.exercises = exercises;
+            event.nodes = nodes;
+            event.pruned = pruned;
+            event.makespan = makespan;
+            event.stopped = stopped;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records an improving incumbent in the metrics, when collected, and as a
+     * Flight Recorder event.
+     *
+     * @param metrics  metrics of the run, or null
+     * @param solver   name of the solver
+     * @param makespan makespan of the incumbent
+     */
+    private static void recordIncumbent(SolverMetrics metrics, String solver, double makespan) {
+        if (metrics != null)
+            metrics.recordIncumbent(makespan);
+
+        if (!FlightRecorder.isInitialized())
+            return;
+
+        final IncumbentEvent event = new IncumbentEvent();
+
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.makespan = makespan;
+            event.commit();
+        }
+    }
+
+    /**
+     * Prints the metrics of a finished run, as text or as a JSON line.
+     *
+     * @param metrics metrics of the run, or null when none were collected
+     * @param json    true for a JSON line
+     */
+    private static void printSolverMetrics(SolverMetrics metrics, boolean json) {
+        if (metrics == null)
+            return;
+
+        if (json)
+            System.out.println(metrics.toJson());
+        else
+            System.out.print(System.lineSeparator() + metrics.describe());
+    }
+
+    /**
+     * Returns the bytes allocated so far by a thread, as reported by the HotSpot
+     * thread bean.
+     *
+     * @param threadId thread id
+     * @return allocated bytes, or -1 when the JVM does not measure them
+     */
+    private static long threadAllocatedBytes(long threadId) {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(threadId);
+
+        return -1;
+    }
+    // endregion
+
+    // region Brute Force Permutation
+
+    /**
+     * Sequential brute-force search state. Only the best ordering seen so far is
+     * stored, so memory stays bounded by the instance size instead of the number of
+     * permutations.
+     */
+    private static class BruteForceSearch {
+        final ScheduleKernel kernel;
+        final boolean[] usedStudents;
+        final int[] stepPermutation;
+        final double[] equipmentFreeTimes;
+        final double[] studentsElapsedTimes;
+        final int[] optimalSolution;
+        ScheduleEvaluator evaluator; // Single-unit simulation unless replaced
+        double minTime = Double.MAX_VALUE;
+        long permutationsCount;
+
+        public BruteForceSearch(ScheduleKernel kernel) {
+            this.kernel = kernel;
+            this.usedStudents = new boolean[kernel.N];
+            this.stepPermutation = new int[kernel.n];
+            this.equipmentFreeTimes = new double[kernel.M];
+            this.studentsElapsedTimes = new double[kernel.N];
+            this.optimalSolution = new int[kernel.n];
+            this.evaluator = (schedule, length) -> simulateSchedule(kernel, schedule, length, equipmentFreeTimes,
+                    studentsElapsedTimes);
+        }
+    }
+
+    /**
+     * For a given group of exercises, enumerates all combinations possible,
+     * respecting that each student must complete its exercises sequence in order.
+     * Each permutation is evaluated as soon as it is produced and discarded unless
+     * it improves the incumbent.
+     *
+     * @param search brute-force search state
+     * @param depth  current permutation recursion step (students placed)
+     * @param length exercises already placed in the current permutation
+     */
+    private static void enumerateBruteForcePermutations(BruteForceSearch search, int depth, int length) {
+        final ScheduleKernel kernel = search.kernel;
+
+        if (depth == kernel.N) {
+            final double elapsed = search.evaluator.evaluate(search.stepPermutation, length);
+
+            search.permutationsCount++;
+
+            if (elapsed < search.minTime) {
+                search.minTime = elapsed;
+                System.arraycopy(search.stepPermutation, 0, search.optimalSolution, 0, length);
+            }
+
+            return;
+        }
+
+        for (int s = 0; s < kernel.N; s++) {
+            if (search.usedStudents[s])
+                continue;
+
+            int nextLength = length;
+
+            for (int i = kernel.sheetOffsets[s]; i < kernel.sheetOffsets[s + 1]; i++)
+                search.stepPermutation[nextLength++] = i;
+
+            search.usedStudents[s] = true;
+            enumerateBruteForcePermutations(search, depth + 1, nextLength);
+            search.usedStudents[s] = false;
+        }
+    }
+
+    /**
+     * Controls brute-force permutation processing
+     *
+     * @param academy receives an Academy object generated from the read file
+     * @return a list of exercises that represents the optimal solution
+     */
+    private static List<Exercise> handleBruteForcePermutation(Academy academy) {
+        return handleBruteForcePermutation(academy, null);
+    }
+
+    /**
+     * Controls brute-force permutation processing on equipment with several
+     * units, evaluated by the event simulator
+     *
+     * @param academy receives an Academy object generated from the read file
+     * @param units   number of units of each equipment, or null for one unit each
+     * @return a list of exercises that represents the optimal solution
+     */
+    private static List<Exercise> handleBruteForcePermutation(Academy academy, int[] units) {
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final BruteForceSearch search = new BruteForceSearch(kernel);
+        final EventSimulator simulator = units != null ? new EventSimulator(kernel, units) : null;
+
+        if (simulator != null)
+            search.evaluator = simulator;
+
+        enumerateBruteForcePermutations(search, 0, 0);
+        System.out.println("\nEvaluated Brute Force permutations count: " + search.permutationsCount);
+
+        final List<Exercise> optimalBruteForceSolution = kernel.toExercises(search.optimalSolution, kernel.n);
+
+        if (simulator != null) {
+            simulator.evaluate(search.optimalSolution, kernel.n);
+            simulator.applyStartTimes(search.optimalSolution, optimalBruteForceSolution);
+        } else {
+            simulateSchedule(academy.M, optimalBruteForceSolution);
+        }
+
+        System.out.printf("Lowest time: %.2f minutes%n", search.minTime);
+        System.out.println("Optimal sequence solution:");
+
+        for (Exercise exercise : optimalBruteForceSolution)
+            System.out.println("> " + exercise);
+
+        return optimalBruteForceSolution;
+    }
+
+    /**
+     * Best student ordering found by a parallel brute-force task.
+     */
+    private static class BruteForceResult {
+        double minTime = Double.MAX_VALUE;
+        int[] studentsOrder;
+        long permutationsCount;
+
+        /**
+         * Checks if an evaluated ordering should replace this result. Ties are
+         * broken by the lexicographic order of the student indexes, which keeps the
+         * parallel result identical to the sequential one.
+         *
+         * @param elapsed       ordering duration in minutes
+         * @param studentsOrder ordering of student indexes
+         * @return true if the ordering is better than the current one
+         */
+        boolean isImprovedBy(double elapsed, int[] studentsOrder) {
+            if (elapsed != minTime)
+                return elapsed < minTime;
+
+            return this.studentsOrder == null || Arrays.compare(studentsOrder, this.studentsOrder) < 0;
+        }
+
+        /**
+         * Reduces another task result into this one.
+         *
+         * @param other result of a sibling task
+         */
+        void merge(BruteForceResult other) {
+            permutationsCount += other.permutationsCount;
+
+            if (other.studentsOrder != null && isImprovedBy(other.minTime, other.studentsOrder)) {
+                minTime = other.minTime;
+                studentsOrder = other.studentsOrder;
+            }
+        }
+    }
+
+    /**
+     * Fork-join task that explores every student ordering starting with a given
+     * prefix. Tasks above the split depth fork one subtask per remaining student,
+     * while the ones below it search sequentially with their own scratch arrays.
+     */
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private static class BruteForcePrefixTask extends RecursiveTask<BruteForceResult> {
+        private final ScheduleKernel kernel;
+        private final int splitDepth;
+        private final int[] prefix;
+        private final int depth;
+        private final double[] equipmentFreeTimes;
+        private final double elapsed;
+
+        BruteForcePrefixTask(ScheduleKernel kernel, int splitDepth, int[] prefix, int depth,
+                double[] equipmentFreeTimes, double elapsed) {
+            this.kernel = kernel;
+            this.splitDepth = splitDepth;
+            this.prefix = prefix;
+            this.depth = depth;
+            this.equipmentFreeTimes = equipmentFreeTimes;
+            this.elapsed = elapsed;
+        }
+
+        @Override
+        protected BruteForceResult compute() {
+            final int studentCount = kernel.N;
+            final boolean[] usedStudents = new boolean[studentCount];
+
+            for (int i = 0; i < depth; i++)
+                usedStudents[prefix[i]] = true;
+
+            if (depth >= splitDepth || depth == studentCount) {
+                final double[][] equipmentFreeTimesByDepth = new double[studentCount + 1][kernel.M];
+                final double[] elapsedByDepth = new double[studentCount + 1];
+                final int[] studentsOrder = Arrays.copyOf(prefix, studentCount);
+                final BruteForceResult result = new BruteForceResult();
+
+                System.arraycopy(equipmentFreeTimes, 0, equipmentFreeTimesByDepth[depth], 0, kernel.M);
+                elapsedByDepth[depth] = elapsed;
+                search(depth, studentsOrder, usedStudents, equipmentFreeTimesByDepth, elapsedByDepth, result);
+
+                return result;
+            }
+
+            final List<BruteForcePrefixTask> subtasks = new ArrayList<>();
+
+            for (int i = 0; i < studentCount; i++) {
+                if (usedStudents[i])
+                    continue;
+
+                final int[] childPrefix = Arrays.copyOf(prefix, depth + 1);
+                final double[] childEquipmentFreeTimes = new double[kernel.M];
+                final double studentElapsed = placeStudentSheet(i, equipmentFreeTimes, childEquipmentFreeTimes);
+
+                childPrefix[depth] = i;
+                subtasks.add(new BruteForcePrefixTask(kernel, splitDepth, childPrefix, depth + 1,
+                        childEquipmentFreeTimes, Math.max(elapsed, studentElapsed)));
+            }
+
+            invokeAll(subtasks);
+
+            // Reduce in prefix order so ties resolve the same way as the sequential search
+            final BruteForceResult result = new BruteForceResult();
+
+            for (BruteForcePrefixTask subtask : subtasks)
+                result.merge(subtask.join());
+
+            return result;
+        }
+
+        /**
+         * Sequentially explores the orderings below the current depth, reusing the
+         * worker scratch arrays for every level.
+         *
+         * @param depth                     students already placed
+         * @param studentsOrder             ordering being built
+         * @param usedStudents              flags for students already placed
+         * @param equipmentFreeTimesByDepth equipment availability after each depth
+         * @param elapsedByDepth            schedule duration after each depth
+         * @param result                    worker-local best ordering
+         */
+        private void search(int depth, int[] studentsOrder, boolean[] usedStudents,
+                double[][] equipmentFreeTimesByDepth, double[] elapsedByDepth, BruteForceResult result) {
+            final int studentCount = kernel.N;
+
+            if (depth == studentCount) {
+                result.permutationsCount++;
+
+                if (result.isImprovedBy(elapsedByDepth[depth], studentsOrder)) {
+                    result.minTime = elapsedByDepth[depth];
+                    result.studentsOrder = studentsOrder.clone();
+                }
+
+                return;
+            }
+
+            for (int i = 0; i < studentCount; i++) {
+                if (usedStudents[i])
+                    continue;
+
+                final double studentElapsed = placeStudentSheet(i, equipmentFreeTimesByDepth[depth],
+                        equipmentFreeTimesByDepth[depth + 1]);
+
+                usedStudents[i] = true;
+                studentsOrder[depth] = i;
+                elapsedByDepth[depth + 1] = Math.max(elapsedByDepth[depth], studentElapsed);
+                search(depth + 1, studentsOrder, usedStudents, equipmentFreeTimesByDepth, elapsedByDepth, result);
+                usedStudents[i] = false;
+            }
+        }
+
+        /**
+         * Places a whole student sheet after the current schedule. Since brute-force
+         * orderings run each sheet back-to-back, the student is only ready after its
+         * own previous exercise.
+         *
+         * @param student            dense index of the student whose sheet is placed
+         * @param equipmentFreeTimes equipment availability before the sheet
+         * @param target             equipment availability after the sheet
+         * @return the finish time of the student's last exercise
+         */
+        private double placeStudentSheet(int student, double[] equipmentFreeTimes, double[] target) {
+            System.arraycopy(equipmentFreeTimes, 0, target, 0, kernel.M);
+
+            double studentElapsedTime = 0.0;
+
+            for (int i = kernel.sheetOffsets[student]; i < kernel.sheetOffsets[student + 1]; i++) {
+                final int equipmentIdx = kernel.equipments[i];
+                final double startTime = Math.max(target[equipmentIdx], studentElapsedTime);
+
+                studentElapsedTime = startTime + kernel.durations[i];
+                target[equipmentIdx] = studentElapsedTime;
+            }
+
+            return studentElapsedTime;
+        }
+    }
+
+    /**
+     * Controls parallel brute-force permutation processing. The permutation tree is
+     * split by student-order prefixes into fork-join tasks.
+     *
+     * @param academy receives an Academy object generated from the read file
+     * @param threads number of worker threads
+     * @return a list of exercises that represents the optimal solution
+     */
+    private static List<Exercise> handleParallelBruteForcePermutation(Academy academy, int threads) {
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final int studentCount = kernel.N;
+        // Split deep enough to give every worker several prefixes to steal
+        final long targetTasks = 16L * threads;
+        long prefixCount = 1;
+        int splitDepth = 0;
+
+        while (splitDepth < studentCount - 1 && prefixCount < targetTasks) {
+            prefixCount *= studentCount - splitDepth;
+            splitDepth++;
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        final BruteForceResult result;
+
+        try {
+            result = pool.invoke(new BruteForcePrefixTask(kernel, splitDepth, new int[0], 0, new double[kernel.M],
+                    0.0));
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("\nEvaluated Brute Force permutations count: " + result.permutationsCount
+                + " (" + threads + " threads)");
+
+        final int[] optimalSchedule = new int[kernel.n];
+        int length = 0;
+
+        for (int student : result.studentsOrder) {
+            for (int i = kernel.sheetOffsets[student]; i < kernel.sheetOffsets[student + 1]; i++)
+                optimalSchedule[length++] = i;
+        }
+
+        final List<Exercise> optimalBruteForceSolution = kernel.toExercises(optimalSchedule, length);
+
+        simulateSchedule(academy.M, optimalBruteForceSolution);
+
+        System.out.printf("Lowest time: %.2f minutes%n", result.minTime);
+        System.out.println("Optimal sequence solution:");
+
+        for (Exercise exercise : optimalBruteForceSolution)
+            System.out.println("> " + exercise);
+
+        return optimalBruteForceSolution;
+    }
+    // endregion
+
+    // region Branch and Bound
+
+    /**
+     * Lower bounds available to prune the Branch-And-Bound search.
+     */
+    private enum LowerBound {
+        /** Each remaining exercise placed alone after its equipment and student. */
+        BASIC,
+        /** Remaining load of every equipment and remaining work of every student. */
+        LOAD,
+        /** LOAD, strengthened by a one-machine relaxation with heads and tails. */
+        ONE_MACHINE
+    }
+
+    /**
+     * Order in which the children of a Branch-And-Bound node are explored.
+     */
+    private enum ChildOrder {
+        /** Students in input order. */
+        INPUT,
+        /** Students whose next exercise finishes first. */
+        EARLIEST_FINISH
+    }
+
+    /**
+     * Receives every improving incumbent found by a Branch-And-Bound search.
+     */
+    private interface IncumbentListener {
+        /**
+         * Called when the search finds a better schedule.
+         *
+         * @param makespan     duration of the new incumbent in minutes
+         * @param gap          relative gap between the incumbent and the best lower
+         *                     bound known, from 0 (optimal) to 1
+         * @param elapsedNanos time since the search started
+         */
+        void onIncumbent(double makespan, double gap, long elapsedNanos);
+    }
+
+    /**
+     * Settings shared by the Branch-And-Bound search strategies.
+     */
+    private static class BranchAndBoundSettings {
+        LowerBound lowerBound = LowerBound.LOAD;
+        ChildOrder childOrder = ChildOrder.INPUT;
+        boolean bestFirst = false;
+        int frontierLimit = 1_000_000; // Open nodes kept by best-first search before falling back to DFS
+        // Initial incumbent. When null, the approximate heuristic schedule is used
+        // unless seedWithHeuristic is false
+        List<Exercise> initialSolution = null;
+        boolean seedWithHeuristic = true;
+        long timeLimitMillis = 0; // Wall-clock budget, 0 for none
+        long nodesLimit = Long.MAX_VALUE;
+        IncumbentListener incumbentListener = null;
+        int transpositionMegabytes = 0; // Transposition table memory, 0 to disable it
+        boolean symmetryReduction = false;
+        SolverMetrics metrics = null; // Filled by the search when not null
+    }
+
+    /**
+     * Size-capped transposition table for the Branch-And-Bound search. Entries are
+     * keyed by the hashed students progress vector and keep the best ready-time
+     * signatures (equipment free times and students elapsed times) known for that
+     * vector. A node is dominated when a stored entry has the same progress and no
+     * later ready time, since every completion of the node can then be matched by
+     * one of the stored state. Buckets hold a few entries and evict the least
+     * recently used one when full. All data lives in primitive arrays.
+     */
+    private static class TranspositionTable {
+        private static final int WAYS = 8;
+        final int M;
+        final int N;
+        final int bucketsMask;
+        final long[] keys;
+        final long[] stamps; // Last use of each slot, 0 for empty slots
+        final int[] progress;
+        final double[] signatures;
+        long clock;
+        long lookups;
+        long hits;
+        long dominatedCount;
+        long stores;
+        long evictions;
+
+        public TranspositionTable(int M, int N, long memoryBytes) {
+            final long entryBytes = 2L * Long.BYTES + (long) N * Integer.BYTES + (long) (M + N) * Double.BYTES;
+            final long maxBuckets = Math.max(1, memoryBytes / (entryBytes * WAYS));
+            final int buckets = Integer.highestOneBit((int) Math.min(maxBuckets, 1 << 24));
+
+            this.M = M;
+            this.N = N;
+            this.bucketsMask = buckets - 1;
+            this.keys = new long[buckets * WAYS];
+            this.stamps = new long[buckets * WAYS];
+            this.progress = new int[buckets * WAYS * N];
+            this.signatures = new double[buckets * WAYS * (M + N)];
+        }
+
+        /**
+         * Looks up the current search node, reporting whether a stored entry
+         * dominates it. When none does, the node signature is stored over an entry
+         * of the same progress it dominates, or over the least recently used entry of
+         * the bucket otherwise. A bucket may hold several signatures of the same
+         * progress.
+         *
+         * @param key                  hash of the progress vector
+         * @param studentProgress      students progress vector
+         * @param equipmentFreeTimes   equipment free times of the node
+         * @param studentsElapsedTimes students elapsed times of the node
+         * @return true if the node is dominated and can be pruned
+         */
+        boolean isDominatedOrStore(long key, int[] studentProgress, double[] equipmentFreeTimes,
+                double[] studentsElapsedTimes) {
+            final int bucket = (int) (key ^ (key >>> 32)) & bucketsMask;
+            int victim = bucket * WAYS;
+            boolean hit = false;
+
+            lookups++;
+            clock++;
+
+            for (int slot = bucket * WAYS; slot < (bucket + 1) * WAYS; slot++) {
+                if (stamps[slot] != 0 && keys[slot] == key && hasProgress(slot, studentProgress)) {
+                    hit = true;
+                    stamps[slot] = clock;
+
+                    final int comparison = compareSignature(slot, equipmentFreeTimes, studentsElapsedTimes);
+
+                    if (comparison < 0) {
+                        hits++;
+                        dominatedCount++;
+                        return true;
+                    }
+
+                    if (comparison > 0) {
+                        // The stored signature is useless once the node dominates it
+                        stamps[slot] = 0;
+                    }
+                }
+
+                if (stamps[slot] < stamps[victim])
+                    victim = slot;
+            }
+
+            if (hit)
+                hits++;
+
+            if (stamps[victim] != 0)
+                evictions++;
+
+            writeEntry(victim, key, studentProgress, equipmentFreeTimes, studentsElapsedTimes);
+
+            return false;
+        }
+
+        /**
+         * Compares a stored signature with the node one.
+         *
+         * @return -1 if the stored signature has no later ready time than the node,
+         *         1 if the node one is strictly earlier somewhere and never later, and
+         *         0 if they are incomparable
+         */
+        private int compareSignature(int slot, double[] equipmentFreeTimes, double[] studentsElapsedTimes) {
+            final int base = slot * (M + N);
+            boolean storedEarlier = false;
+            boolean nodeEarlier = false;
+
+            for (int i = 0; i < M + N; i++) {
+                final double stored = signatures[base + i];
+                final double current = i < M ? equipmentFreeTimes[i] : studentsElapsedTimes[i - M];
+
+                storedEarlier |= stored < current;
+                nodeEarlier |= current < stored;
+            }
+
+            if (!nodeEarlier)
+                return -1;
+
+            return storedEarlier ? 0 : 1;
+        }
+
+        private boolean hasProgress(int slot, int[] studentProgress) {
+            final int base = slot * N;
+
+            for (int s = 0; s < N; s++) {
+                if (progress[base + s] != studentProgress[s])
+                    return false;
+            }
+
+            return true;
+        }
+
+        private void writeEntry(int slot, long key, int[] studentProgress, double[] equipmentFreeTimes,
+                double[] studentsElapsedTimes) {
+            keys[slot] = key;
+            stamps[slot] = clock;
+            System.arraycopy(studentProgress, 0, progress, slot * N, N);
+            System.arraycopy(equipmentFreeTimes, 0, signatures, slot * (M + N), M);
+            System.arraycopy(studentsElapsedTimes, 0, signatures, slot * (M + N) + M, N);
+            stores++;
+        }
+
+        /**
+         * Returns the memory held by the table arrays.
+         *
+         * @return size in bytes
+         */
+        long memoryBytes() {
+            return (long) keys.length * Long.BYTES * 2 + (long) progress.length * Integer.BYTES
+                    + (long) signatures.length * Double.BYTES;
+        }
+
+        /**
+         * Adds the usage counters of another table, used to report the tables of
+         * the parallel workers as one.
+         *
+         * @param other table whose counters are added
+         */
+        void addCounters(TranspositionTable other) {
+            lookups += other.lookups;
+            hits += other.hits;
+            dominatedCount += other.dominatedCount;
+            stores += other.stores;
+            evictions += other.evictions;
+        }
+
+        /**
+         * Summarizes the table usage.
+         *
+         * @return hit rate, dominated nodes, evictions and memory use
+         */
+        String describe() {
+            return String.format("lookups %d, hit rate %.2f%%, dominated %d, stores %d, evictions %d, memory %.1f MB",
+                    lookups, lookups == 0 ? 0.0 : 100.0 * hits / lookups, dominatedCount, stores, evictions,
+                    memoryBytes() / (1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * Incremental state of the Branch-And-Bound search over the scheduling kernel.
+     * Exercises are pushed when a branch is entered and popped on backtracking, and
+     * the makespan of every partial schedule is kept in a stack so the current one
+     * is read in constant time. No allocation happens while searching.
+     */
+    private static class BranchAndBoundState {
+        final ScheduleKernel kernel;
+        final int[] currentSolution;
+        final int[] optimalSolution;
+        final double[] equipmentFreeTimes;
+        final double[] studentsElapsedTimes;
+        final int[] studentProgress; // Index of the next exercise inside each student sheet
+        final double[] makespans; // Makespan of the partial schedule at each depth
+        final double[] previousEquipmentTimes; // Undo stack for equipment free times
+        final double[] previousStudentTimes; // Undo stack for student elapsed times
+        final double[] remainingEquipmentLoads; // Duration of the unscheduled exercises on each equipment
+        final double[] previousEquipmentLoads; // Undo stack for remaining equipment loads
+        final LowerBound lowerBound;
+        ChildOrder childOrder = ChildOrder.INPUT;
+        // Candidate students of each depth, in exploration order
+        final int[] childStudents;
+        final double[] childFinishTimes;
+        // Scratch arrays for the one-machine relaxation
+        final double[] heads;
+        final double[] tails;
+        final int[] machineExercises;
+        // Random value of each (student, progress) pair, XORed into the progress hash
+        final long[] progressKeys;
+        long progressHash;
+        TranspositionTable transpositionTable;
+        // Previous student with an identical sheet, -1 if none. Used by the symmetry
+        // reduction
+        int[] twinStudents;
+        int depth;
+        double minTime = Double.MAX_VALUE;
+        long nodesCount;
+        long prunedCount;
+        long nodesLimit = Long.MAX_VALUE;
+        long deadline = Long.MAX_VALUE; // System.nanoTime() value at which the search stops
+        boolean stopped; // Whether a budget ran out before the search was complete
+        int clockCountdown; // Budget checks left until the clock is read again
+        double bestLowerBound; // Best lower bound known for the whole search
+        IncumbentListener incumbentListener;
+        SharedIncumbent sharedIncumbent; // Incumbent shared by the parallel search workers
+        SolverMetrics metrics; // Null unless metrics are collected
+        // Thread of a parallel worker state, and the bytes it had allocated when the state was created
+        long allocationThread;
+        long allocationStart;
+        final long startTime = System.nanoTime();
+        long incumbentTime; // Nanoseconds from the start until the incumbent was found
+        // Re-simulates the whole prefix at every node, only kept as the benchmark
+        // reference
+        boolean replaySchedule;
+        final double[] replayEquipmentFreeTimes;
+        final double[] replayStudentsElapsedTimes;
+
+        public BranchAndBoundState(ScheduleKernel kernel, LowerBound lowerBound) {
+            this.kernel = kernel;
+            this.lowerBound = lowerBound;
+            this.currentSolution = new int[kernel.n];
+            this.optimalSolution = new int[kernel.n];
+            this.equipmentFreeTimes = new double[kernel.M];
+            this.studentsElapsedTimes = new double[kernel.N];
+            this.studentProgress = new int[kernel.N];
+            this.makespans = new double[kernel.n + 1];
+            this.previousEquipmentTimes = new double[kernel.n];
+            this.previousStudentTimes = new double[kernel.n];
+            this.replayEquipmentFreeTimes = new double[kernel.M];
+            this.replayStudentsElapsedTimes = new double[kernel.N];
+            this.remainingEquipmentLoads = new double[kernel.M];
+            this.previousEquipmentLoads = new double[kernel.n];
+            this.heads = new double[kernel.n];
+            this.tails = new double[kernel.n];
+            this.machineExercises = new int[kernel.n];
+            this.childStudents = new int[(kernel.n + 1) * kernel.N];
+            this.childFinishTimes = new double[(kernel.n + 1) * kernel.N];
+            this.progressKeys = new long[kernel.n + kernel.N];
+
+            final Random random = new Random(kernel.n);
+
+            for (int i = 0; i < progressKeys.length; i++)
+                progressKeys[i] = random.nextLong();
+
+            for (int student = 0; student < kernel.N; student++)
+                progressHash ^= progressKey(student);
+
+            for (int i = 0; i < kernel.n; i++)
+                remainingEquipmentLoads[kernel.equipments[i]] += kernel.durations[i];
+        }
+
+        /**
+         * Appends the next exercise of a student to the partial schedule, placing it
+         * as soon as both its equipment and its student are free.
+         *
+         * @param student dense student index
+         */
+        void push(int student) {
+            final boolean timed = metrics != null && metrics.countSimulation();
+            final long timeStart = timed ? System.nanoTime() : 0;
+            final int exercise = kernel.sheetOffsets[student] + studentProgress[student];
+            final int equipmentIdx = kernel.equipments[exercise];
+            final double prevEquipmentTime = equipmentFreeTimes[equipmentIdx];
+            final double prevStudentTime = studentsElapsedTimes[student];
+            final double finishTime = Math.max(prevEquipmentTime, prevStudentTime) + kernel.durations[exercise];
+
+            previousEquipmentTimes[depth] = prevEquipmentTime;
+            previousStudentTimes[depth] = prevStudentTime;
+            previousEquipmentLoads[depth] = remainingEquipmentLoads[equipmentIdx];
+            remainingEquipmentLoads[equipmentIdx] -= kernel.durations[exercise];
+            equipmentFreeTimes[equipmentIdx] = finishTime;
+            studentsElapsedTimes[student] = finishTime;
+            progressHash ^= progressKey(student);
+            studentProgress[student]++;
+            progressHash ^= progressKey(student);
+            makespans[depth + 1] = Math.max(makespans[depth], finishTime);
+            currentSolution[depth++] = exercise;
+
+            if (timed)
+                metrics.recordSimulation(System.nanoTime() - timeStart);
+        }
+
+        /**
+         * Removes the last pushed exercise, restoring the previous state.
+         */
+        void pop() {
+            final int exercise = currentSolution[--depth];
+            final int student = kernel.exerciseStudents[exercise];
+            final int equipmentIdx = kernel.equipments[exercise];
+
+            equipmentFreeTimes[equipmentIdx] = previousEquipmentTimes[depth];
+            remainingEquipmentLoads[equipmentIdx] = previousEquipmentLoads[depth];
+            studentsElapsedTimes[student] = previousStudentTimes[depth];
+            progressHash ^= progressKey(student);
+            studentProgress[student]--;
+            progressHash ^= progressKey(student);
+        }
+
+        /**
+         * Returns the hash key of a student current progress.
+         *
+         * @param student dense student index
+         * @return random key of the (student, progress) pair
+         */
+        long progressKey(int student) {
+            return progressKeys[kernel.sheetOffsets[student] + student + studentProgress[student]];
+        }
+
+        /**
+         * Enables the symmetry reduction, linking every student to the previous one
+         * with an identical sheet.
+         */
+        void enableSymmetryReduction() {
+            final Map<String, Integer> lastStudentBySheet = new HashMap<>();
+
+            twinStudents = new int[kernel.N];
+
+            for (int student = 0; student < kernel.N; student++) {
+                final StringBuilder sheet = new StringBuilder();
+
+                for (int i = kernel.sheetOffsets[student]; i < kernel.sheetOffsets[student + 1]; i++)
+                    sheet.append(kernel.equipments[i]).append(':').append(kernel.durations[i]).append(';');
+
+                final Integer twin = lastStudentBySheet.put(sheet.toString(), student);
+
+                twinStudents[student] = twin == null ? -1 : twin;
+            }
+        }
+
+        /**
+         * Checks if a student is interchangeable with a previous one. Students with
+         * identical sheets, the same progress and the same elapsed time lead to
+         * symmetric subtrees, so only the first of them needs to be branched on.
+         *
+         * @param student dense student index
+         * @return true if the student branch is symmetric to an explored one
+         */
+        boolean isSymmetric(int student) {
+            if (twinStudents == null)
+                return false;
+
+            for (int twin = twinStudents[student]; twin >= 0; twin = twinStudents[twin]) {
+                if (studentProgress[twin] == studentProgress[student]
+                        && studentsElapsedTimes[twin] == studentsElapsedTimes[student])
+                    return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Checks the current node against the transposition table, storing it when
+         * it is not dominated.
+         *
+         * @return true if the node is dominated and can be pruned
+         */
+        boolean isDominated() {
+            return transpositionTable != null && transpositionTable.isDominatedOrStore(progressHash,
+                    studentProgress, equipmentFreeTimes, studentsElapsedTimes);
+        }
+
+        /**
+         * Moves the partial schedule to another node, popping down to the prefix both
+         * share and pushing the rest.
+         *
+         * @param schedule kernel exercise indexes of the target node
+         * @param length   depth of the target node
+         */
+        void restore(int[] schedule, int length) {
+            int common = 0;
+
+            while (common < depth && common < length && currentSolution[common] == schedule[common])
+                common++;
+
+            while (depth > common)
+                pop();
+
+            for (int i = common; i < length; i++)
+                push(kernel.exerciseStudents[schedule[i]]);
+        }
+
+        /**
+         * Lists the students that still have exercises, in the exploration order of
+         * the search. The result is written into the slice of the current depth, so
+         * no allocation happens.
+         *
+         * @return the number of candidate students, stored from
+         *         {@code childStudents[depth * N]}
+         */
+        int orderChildren() {
+            final int base = depth * kernel.N;
+            int count = 0;
+
+            for (int student = 0; student < kernel.N; student++) {
+                final int exercise = kernel.sheetOffsets[student] + studentProgress[student];
+
+                if (exercise >= kernel.sheetOffsets[student + 1] || isSymmetric(student))
+                    continue;
+
+                if (childOrder == ChildOrder.INPUT) {
+                    childStudents[base + count++] = student;
+                    continue;
+                }
+
+                final double finishTime = Math.max(equipmentFreeTimes[kernel.equipments[exercise]],
+                        studentsElapsedTimes[student]) + kernel.durations[exercise];
+                // Stable insertion sort, so ties keep the input order
+                int position = base + count++;
+
+                while (position > base && childFinishTimes[position - 1] > finishTime) {
+                    childStudents[position] = childStudents[position - 1];
+                    childFinishTimes[position] = childFinishTimes[position - 1];
+                    position--;
+                }
+
+                childStudents[position] = student;
+                childFinishTimes[position] = finishTime;
+            }
+
+            return count;
+        }
+
+        /**
+         * Stores the current complete schedule as the new incumbent.
+         *
+         * @param elapsed makespan of the current schedule
+         */
+        void updateIncumbent(double elapsed) {
+            seedIncumbent(currentSolution, elapsed);
+        }
+
+        /**
+         * Stores a complete schedule as the new incumbent and notifies the listener.
+         *
+         * @param schedule kernel exercise indexes of a complete schedule
+         * @param elapsed  makespan of the schedule
+         */
+        void seedIncumbent(int[] schedule, double elapsed) {
+            minTime = elapsed;
+            incumbentTime = System.nanoTime() - startTime;
+            System.arraycopy(schedule, 0, optimalSolution, 0, kernel.n);
+
+            if (sharedIncumbent != null && !sharedIncumbent.offer(elapsed, optimalSolution.clone()))
+                return;
+
+            recordIncumbent(metrics, "Branch and Bound", elapsed);
+
+            if (incumbentListener != null)
+                incumbentListener.onIncumbent(minTime, gap(), incumbentTime);
+        }
+
+        /**
+         * Counts an expanded node.
+         */
+        void countNode() {
+            nodesCount++;
+
+            if (metrics != null)
+                metrics.recordNode(depth);
+        }
+
+        /**
+         * Counts a pruned node.
+         *
+         * @param dominated true if the transposition table pruned it, false if its
+         *                  lower bound did
+         */
+        void countPruned(boolean dominated) {
+            prunedCount++;
+
+            if (metrics != null)
+                (dominated ? metrics.dominancePrunes : metrics.boundPrunes).increment();
+        }
+
+        /**
+         * Returns the makespan a node must beat to be explored. In a parallel search
+         * it also picks up the incumbents found by the other workers.
+         *
+         * @return the best known makespan
+         */
+        double upperBound() {
+            if (sharedIncumbent != null)
+                minTime = Math.min(minTime, sharedIncumbent.makespan());
+
+            return minTime;
+        }
+
+        /**
+         * Checks the node and time budgets. The clock is only read every 1024 checks
+         * to keep them cheap.
+         *
+         * @return true if the search must stop
+         */
+        boolean isBudgetExhausted() {
+            if (stopped)
+                return true;
+
+            if (nodesCount >= nodesLimit) {
+                stopped = true;
+            } else if (--clockCountdown <= 0) {
+                clockCountdown = 1024;
+                stopped = System.nanoTime() - deadline >= 0;
+            }
+
+            return stopped;
+        }
+
+        /**
+         * Returns the relative gap between the incumbent and the best lower bound.
+         *
+         * @return a value from 0 (proven optimal) to 1
+         */
+        double gap() {
+            if (minTime == Double.MAX_VALUE)
+                return 1.0;
+
+            if (minTime <= 0.0)
+                return 0.0;
+
+            return Math.max(0.0, (minTime - bestLowerBound) / minTime);
+        }
+
+        /**
+         * Returns the makespan of the current partial schedule.
+         *
+         * @return minutes duration in double
+         */
+        double currentElapsed() {
+            if (replaySchedule) {
+                final boolean timed = metrics != null && metrics.countSimulation();
+                final long timeStart = timed ? System.nanoTime() : 0;
+                final double elapsed = simulateSchedule(kernel, currentSolution, depth, replayEquipmentFreeTimes,
+                        replayStudentsElapsedTimes);
+
+                if (timed)
+                    metrics.recordSimulation(System.nanoTime() - timeStart);
+
+                return elapsed;
+            }
+
+            return makespans[depth];
+        }
+    }
+
+    /**
+     * Controls Branch-And-Bound processing
+     *
+     * @param academy  receives an Academy object generated from the read file
+     * @param settings Branch-And-Bound settings
+     * @return a list of exercises that represents the optimal solution, or the best
+     *         one found if a budget ran out
+     */
+    private static List<Exercise> handleBranchAndBound(Academy academy, BranchAndBoundSettings settings) {
+        final SolveEvent event = beginSolveEvent();
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final BranchAndBoundState state = createBranchAndBoundState(kernel, settings);
+
+        exploreBranch(state);
+
+        return reportBranchAndBoundSolution(academy, state, event, "");
+    }
+
+    /**
+     * Creates a search state configured by the Branch-And-Bound settings, with its
+     * budgets set and its initial incumbent seeded.
+     *
+     * @param kernel   compact academy representation
+     * @param settings Branch-And-Bound settings
+     * @return the search state, ready to be explored
+     */
+    private static BranchAndBoundState createBranchAndBoundState(ScheduleKernel kernel,
+            BranchAndBoundSettings settings) {
+        final BranchAndBoundState state = new BranchAndBoundState(kernel, settings.lowerBound);
+
+        state.childOrder = settings.childOrder;
+        state.nodesLimit = settings.nodesLimit;
+        state.incumbentListener = settings.incumbentListener;
+        state.metrics = settings.metrics;
+        state.bestLowerBound = calculateLowerBound(state);
+
+        if (settings.transpositionMegabytes > 0)
+            state.transpositionTable = new TranspositionTable(kernel.M, kernel.N,
+                    settings.transpositionMegabytes * 1024L * 1024L);
+
+        if (settings.symmetryReduction)
+            state.enableSymmetryReduction();
+
+        if (settings.timeLimitMillis > 0)
+            state.deadline = state.startTime + settings.timeLimitMillis * 1_000_000;
+
+        int[] initialSchedule = null;
+
+        if (settings.initialSolution != null)
+            initialSchedule = kernel.toSchedule(settings.initialSolution);
+        else if (settings.seedWithHeuristic)
+            initialSchedule = buildApproximateSchedule(kernel);
+
+        if (initialSchedule != null) {
+            state.seedIncumbent(initialSchedule, simulateSchedule(kernel, initialSchedule, kernel.n,
+                    new double[kernel.M], new double[kernel.N]));
+        }
+
+        return state;
+    }
+
+    /**
+     * Prints a Branch-And-Bound result, commits its Flight Recorder event and
+     * converts it back into Exercise objects.
+     *
+     * @param academy academy the search state was built from
+     * @param state   the explored search state
+     * @param event   event begun before the search
+     * @param details extra search statistics appended to the nodes count
+     * @return a list of exercises that represents the best solution found
+     */
+    private static List<Exercise> reportBranchAndBoundSolution(Academy academy, BranchAndBoundState state,
+            SolveEvent event, String details) {
+        finishSolveEvent(event, "Branch and Bound", state.kernel.n, state.nodesCount, state.prunedCount,
+                state.minTime, state.stopped);
+
+        if (state.metrics != null)
+            state.metrics.finish();
+
+        if (!state.stopped)
+            state.bestLowerBound = state.minTime;
+
+        if (state.minTime == Double.MAX_VALUE) {
+            System.out.println("\nBranch-and-Bound found no solution within the budget");
+
+            return new ArrayList<>();
+        }
+
+        final List<Exercise> optimalBranchAndBoundSolution = state.kernel.toExercises(state.optimalSolution,
+                state.kernel.n);
+
+        simulateSchedule(academy.M, optimalBranchAndBoundSolution);
+
+        System.out.printf("\nBranch-and-Bound lowest time: %.2f minutes%n", state.minTime);
+        System.out.println("Explored nodes: " + state.nodesCount + " (pruned: " + state.prunedCount + details + ")");
+
+        if (state.transpositionTable != null)
+            System.out.println("Transposition table: " + state.transpositionTable.describe());
+
+        if (state.stopped)
+            System.out.printf("Budget exhausted, gap to lower bound %.2f: %.2f%%%n", state.bestLowerBound,
+                    state.gap() * 100);
+
+        System.out.println("Optimal sequence solution:");
+
+        for (Exercise exercise : optimalBranchAndBoundSolution)
+            System.out.println("> " + exercise);
+
+        return optimalBranchAndBoundSolution;
+    }
+
+    /**
+     * Recursively explores branches of the solution tree for the Branch-And-Bound
+     * algorithm.
+     *
+     * @param state the incremental search state, holding the current partial
+     *              solution and the best solution found so far
+     */
+    private static void exploreBranch(BranchAndBoundState state) {
+        if (state.isBudgetExhausted()) {
+            return;
+        }
+
+        state.countNode();
+
+        final ScheduleKernel kernel = state.kernel;
+        final double currentElapsed = state.currentElapsed();
+
+        // Calcula o lower bound para a solução parcial
+        double lowerBound = calculateLowerBound(state);
+
+        // Poda: Se o lower bound for maior ou igual ao menor tempo conhecido, descarta
+        if (lowerBound >= state.upperBound()) {
+            state.countPruned(false);
+            return;
+        }
+
+        // Poda por dominância: outro caminho já chegou ao mesmo progresso mais cedo
+        if (state.depth < kernel.n && state.isDominated()) {
+            state.countPruned(true);
+            return;
+        }
+
+        // Verifica se todos os exercícios foram alocados
+        if (state.depth == kernel.n) {
+            if (currentElapsed < state.upperBound()) {
+                state.updateIncumbent(currentElapsed);
+            }
+            return;
+        }
+
+        // Explora os próximos exercícios possíveis, na ordem definida pela busca
+        final int base = state.depth * kernel.N;
+        final int childrenCount = state.orderChildren();
+
+        for (int i = 0; i < childrenCount; i++) {
+            state.push(state.childStudents[base + i]);
+            exploreBranch(state);
+            state.pop();
+        }
+    }
+
+    /**
+     * Open node of the best-first search. Nodes only keep their last exercise and
+     * a link to their parent, so the frontier shares prefixes instead of copying
+     * them.
+     */
+    private static class FrontierNode {
+        final FrontierNode parent;
+        final int exercise;
+        final int depth;
+        final double lowerBound;
+        final long sequence; // Creation order, used to break ties deterministically
+
+        FrontierNode(FrontierNode parent, int exercise, int depth, double lowerBound, long sequence) {
+            this.parent = parent;
+            this.exercise = exercise;
+            this.depth = depth;
+            this.lowerBound = lowerBound;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Writes the exercises from the root to this node into a schedule array.
+         *
+         * @param schedule target array, with at least depth entries
+         */
+        void fillSchedule(int[] schedule) {
+            for (FrontierNode node = this; node.depth > 0; node = node.parent)
+                schedule[node.depth - 1] = node.exercise;
+        }
+    }
+
+    /**
+     * Controls best-first Branch-And-Bound processing. Open nodes are kept in a
+     * priority queue ordered by lower bound, deeper nodes first on ties. When the
+     * queue reaches the frontier limit, new children are explored depth-first
+     * instead of being queued, so memory stays bounded.
+     *
+     * @param academy  receives an Academy object generated from the read file
+     * @param settings Branch-And-Bound settings
+     * @return a list of exercises that represents the optimal solution, or the best
+     *         one found if a budget ran out
+     */
+    private static List<Exercise> handleBestFirstBranchAndBound(Academy academy, BranchAndBoundSettings settings) {
+        final SolveEvent event = beginSolveEvent();
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final BranchAndBoundState state = createBranchAndBoundState(kernel, settings);
+        final int frontierPeakSize = exploreBestFirst(state, settings.frontierLimit);
+
+        return reportBranchAndBoundSolution(academy, state, event, ", frontier peak: " + frontierPeakSize);
+    }
+
+    /**
+     * Runs the best-first search, falling back to {@link #exploreBranch} for the
+     * children that do not fit in the frontier.
+     *
+     * @param state         the incremental search state
+     * @param frontierLimit maximum number of open nodes
+     * @return the largest frontier size reached
+     */
+    private static int exploreBestFirst(BranchAndBoundState state, int frontierLimit) {
+        final ScheduleKernel kernel = state.kernel;
+        final int[] schedule = new int[kernel.n];
+        final PriorityQueue<FrontierNode> frontier = new PriorityQueue<>(
+                Comparator.comparingDouble((FrontierNode node) -> node.lowerBound)
+                        .thenComparingInt(node -> -node.depth)
+                        .thenComparingLong(node -> node.sequence));
+        long sequence = 0;
+        int frontierPeakSize = 1;
+
+        state.countNode();
+
+        if (calculateLowerBound(state) < state.minTime) {
+            frontier.add(new FrontierNode(null, -1, 0, 0.0, sequence++));
+        }
+
+        while (!frontier.isEmpty() && !state.isBudgetExhausted()) {
+            final FrontierNode node = frontier.poll();
+
+            // The queue is ordered by bound, so nothing left can beat the incumbent
+            if (node.lowerBound >= state.minTime) {
+                state.prunedCount += frontier.size() + 1;
+
+                if (state.metrics != null)
+                    state.metrics.boundPrunes.add(frontier.size() + 1);
+
+                frontier.clear();
+                break;
+            }
+
+            // Every other open node has a bound at least as high as this one
+            state.bestLowerBound = Math.max(state.bestLowerBound, node.lowerBound);
+
+            node.fillSchedule(schedule);
+            state.restore(schedule, node.depth);
+
+            if (node.depth == kernel.n) {
+                if (state.currentElapsed() < state.minTime)
+                    state.updateIncumbent(state.currentElapsed());
+                continue;
+            }
+
+            final int base = state.depth * kernel.N;
+            final int childrenCount = state.orderChildren();
+
+            for (int i = 0; i < childrenCount; i++) {
+                state.push(state.childStudents[base + i]);
+
+                if (frontier.size() >= frontierLimit) {
+                    exploreBranch(state);
+                } else {
+                    state.countNode();
+
+                    final double lowerBound = calculateLowerBound(state);
+
+                    if (lowerBound >= state.minTime) {
+                        state.countPruned(false);
+                    } else if (state.depth < kernel.n && state.isDominated()) {
+                        state.countPruned(true);
+                    } else if (state.depth == kernel.n) {
+                        state.updateIncumbent(state.currentElapsed());
+                    } else {
+                        frontier.add(new FrontierNode(node, state.currentSolution[state.depth - 1], state.depth,
+                                lowerBound, sequence++));
+                        frontierPeakSize = Math.max(frontierPeakSize, frontier.size());
+                    }
+                }
+
+                state.pop();
+            }
+        }
+
+        if (!frontier.isEmpty())
+            state.stopped = true;
+
+        return frontierPeakSize;
+    }
+
+    /**
+     * Incumbent shared by the parallel Branch-And-Bound workers. The makespan is
+     * kept as the bits of a double in an AtomicLong, lowered with a compare-and-set
+     * loop, so every worker prunes against the global best with a single volatile
+     * read. Since makespans are never negative, their bits order the same way as
+     * the values. The schedule is published through an AtomicReference, also
+     * without locking.
+     */
+    private static class SharedIncumbent {
+        private final AtomicLong makespanBits = new AtomicLong(Double.doubleToLongBits(Double.MAX_VALUE));
+        private final AtomicReference<SharedSolution> solution = new AtomicReference<>();
+
+        /**
+         * Best published schedule with its makespan.
+         */
+        private static class SharedSolution {
+            final double makespan;
+            final int[] schedule;
+
+            SharedSolution(double makespan, int[] schedule) {
+                this.makespan = makespan;
+                this.schedule = schedule;
+            }
+        }
+
+        double makespan() {
+            return Double.longBitsToDouble(makespanBits.get());
+        }
+
+        int[] schedule() {
+            final SharedSolution current = solution.get();
+
+            return current == null ? null : current.schedule;
+        }
+
+        /**
+         * Offers a complete schedule, keeping it only if it is better than the
+         * published one.
+         *
+         * @param makespan duration of the schedule
+         * @param schedule kernel exercise indexes, not modified afterwards
+         * @return true if the schedule became the incumbent
+         */
+        boolean offer(double makespan, int[] schedule) {
+            final long bits = Double.doubleToLongBits(makespan);
+            long current = makespanBits.get();
+
+            while (bits < current) {
+                if (makespanBits.compareAndSet(current, bits))
+                    break;
+
+                current = makespanBits.get();
+            }
+
+            if (bits >= current)
+                return false;
+
+            final SharedSolution candidate = new SharedSolution(makespan, schedule);
+            SharedSolution published = solution.get();
+
+            while (published == null || makespan < published.makespan) {
+                if (solution.compareAndSet(published, candidate))
+                    return true;
+
+                published = solution.get();
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Parallel depth-first Branch-And-Bound. Subtrees are fork-join tasks, so idle
+     * workers steal them from busy ones. Each worker thread keeps its own search
+     * state, and all of them prune against a SharedIncumbent.
+     */
+    private static class ParallelBranchAndBound {
+        // Tasks below this many remaining exercises are never split further
+        private static final int MIN_SPLIT_REMAINING = 4;
+        final ScheduleKernel kernel;
+        final BranchAndBoundSettings settings;
+        final BranchAndBoundState rootState;
+        final SharedIncumbent sharedIncumbent = new SharedIncumbent();
+        final int threads;
+        final int splitDepth;
+        final Queue<BranchAndBoundState> workerStates = new ConcurrentLinkedQueue<>();
+        final ThreadLocal<BranchAndBoundState> workerState = ThreadLocal.withInitial(this::createWorkerState);
+
+        ParallelBranchAndBound(ScheduleKernel kernel, BranchAndBoundSettings settings, BranchAndBoundState rootState,
+                int threads) {
+            this.kernel = kernel;
+            this.settings = settings;
+            this.rootState = rootState;
+            this.threads = threads;
+
+            // Split the top of the tree until there are enough tasks to keep every
+            // worker busy; deeper splits only happen when the pool runs out of work
+            long subtrees = 1;
+            int depth = 0;
+
+            while (depth < kernel.n && subtrees < 8L * threads) {
+                subtrees *= Math.max(1, kernel.N);
+                depth++;
+            }
+
+            this.splitDepth = depth;
+
+            if (rootState.minTime < Double.MAX_VALUE)
+                sharedIncumbent.offer(rootState.minTime, rootState.optimalSolution.clone());
+        }
+
+        private BranchAndBoundState createWorkerState() {
+            final BranchAndBoundState state = new BranchAndBoundState(kernel, settings.lowerBound);
+
+            state.childOrder = rootState.childOrder;
+            state.nodesLimit = rootState.nodesLimit;
+            state.deadline = rootState.deadline;
+            state.bestLowerBound = rootState.bestLowerBound;
+            state.incumbentListener = rootState.incumbentListener;
+            state.sharedIncumbent = sharedIncumbent;
+            state.metrics = rootState.metrics;
+
+            if (state.metrics != null) {
+                state.allocationThread = Thread.currentThread().getId();
+                state.allocationStart = threadAllocatedBytes(state.allocationThread);
+            }
+            state.minTime = sharedIncumbent.makespan();
+
+            if (rootState.twinStudents != null)
+                state.enableSymmetryReduction();
+
+            // The memory budget is split between the workers tables
+            if (rootState.transpositionTable != null)
+                state.transpositionTable = new TranspositionTable(kernel.M, kernel.N,
+                        rootState.transpositionTable.memoryBytes() / threads);
+
+            workerStates.add(state);
+
+            return state;
+        }
+
+        /**
+         * Runs the search and gathers the incumbent and the workers statistics into
+         * the root state.
+         *
+         * @param pool fork-join pool running the tasks
+         */
+        void run(ForkJoinPool pool) {
+            pool.invoke(new BranchAndBoundTask(this, new int[0], 0));
+
+            final int[] schedule = sharedIncumbent.schedule();
+
+            if (schedule != null && sharedIncumbent.makespan() < rootState.minTime) {
+                rootState.minTime = sharedIncumbent.makespan();
+                System.arraycopy(schedule, 0, rootState.optimalSolution, 0, kernel.n);
+            }
+
+            for (BranchAndBoundState state : workerStates) {
+                rootState.nodesCount += state.nodesCount;
+                rootState.prunedCount += state.prunedCount;
+                rootState.stopped |= state.stopped;
+
+                if (state.metrics != null)
+                    state.metrics.recordThreadAllocation(state.allocationThread, state.allocationStart);
+
+                if (state.transpositionTable != null)
+                    rootState.transpositionTable.addCounters(state.transpositionTable);
+            }
+        }
+    }
+
+    /**
+     * Fork-join task exploring the subtree below a schedule prefix.
+     */
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private static class BranchAndBoundTask extends RecursiveAction {
+        private final ParallelBranchAndBound search;
+        private final int[] prefix;
+        private final int length;
+
+        BranchAndBoundTask(ParallelBranchAndBound search, int[] prefix, int length) {
+            this.search = search;
+            this.prefix = prefix;
+            this.length = length;
+        }
+
+        @Override
+        protected void compute() {
+            final ScheduleKernel kernel = search.kernel;
+            final BranchAndBoundState state = search.workerState.get();
+
+            state.restore(prefix, length);
+
+            final boolean split = length < search.splitDepth
+                    || (length < kernel.n - ParallelBranchAndBound.MIN_SPLIT_REMAINING
+                            && getSurplusQueuedTaskCount() <= 0);
+
+            if (!split) {
+                exploreBranch(state);
+                return;
+            }
+
+            if (state.isBudgetExhausted())
+                return;
+
+            state.countNode();
+
+            if (calculateLowerBound(state) >= state.upperBound()) {
+                state.countPruned(false);
+                return;
+            }
+
+            if (state.isDominated()) {
+                state.countPruned(true);
+                return;
+            }
+
+            final int base = state.depth * kernel.N;
+            final int childrenCount = state.orderChildren();
+            final List<BranchAndBoundTask> subtasks = new ArrayList<>(childrenCount);
+
+            for (int i = 0; i < childrenCount; i++) {
+                final int student = state.childStudents[base + i];
+                final int[] childPrefix = Arrays.copyOf(prefix, length + 1);
+
+                childPrefix[length] = kernel.sheetOffsets[student] + state.studentProgress[student];
+                subtasks.add(new BranchAndBoundTask(search, childPrefix, length + 1));
+            }
+
+            invokeAll(subtasks);
+        }
+    }
+
+    /**
+     * Controls parallel Branch-And-Bound processing
+     *
+     * @param academy  receives an Academy object generated from the read file
+     * @param settings Branch-And-Bound settings. The node limit applies to each
+     *                 worker
+     * @param threads  number of worker threads
+     * @return a list of exercises that represents the optimal solution, or the best
+     *         one found if a budget ran out
+     */
+    private static List<Exercise> handleParallelBranchAndBound(Academy academy, BranchAndBoundSettings settings,
+            int threads) {
+        final SolveEvent event = beginSolveEvent();
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final BranchAndBoundState rootState = createBranchAndBoundState(kernel, settings);
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+
+        try {
+            new ParallelBranchAndBound(kernel, settings, rootState, threads).run(pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        return reportBranchAndBoundSolution(academy, rootState, event, ", " + threads + " threads");
+    }
+
+    /**
+     * Calculates a lower bound for the Branch-And-Bound algorithm, using the bound
+     * selected in the search state. The call is counted, and timed if sampled,
+     * when the state collects metrics.
+     *
+     * @param state the incremental search state, holding the equipment free times,
+     *              the students elapsed times and the students progress
+     * @return the lower bound estimate as a double value
+     */
+    private static double calculateLowerBound(BranchAndBoundState state) {
+        if (state.metrics == null || !state.metrics.countLowerBound())
+            return calculateSelectedLowerBound(state);
+
+        final long timeStart = System.nanoTime();
+        final double lowerBound = calculateSelectedLowerBound(state);
+
+        state.metrics.recordLowerBound(System.nanoTime() - timeStart);
+        return lowerBound;
+    }
+
+    private static double calculateSelectedLowerBound(BranchAndBoundState state) {
+        switch (state.lowerBound) {
+            case BASIC:
+                return calculateBasicLowerBound(state);
+            case LOAD:
+                return calculateLoadLowerBound(state);
+            default:
+                final double lowerBound = calculateLoadLowerBound(state);
+
+                // The relaxation is only worth computing when the cheap bound does not prune
+                if (lowerBound >= state.minTime)
+                    return lowerBound;
+
+                return Math.max(lowerBound, calculateOneMachineLowerBound(state));
+        }
+    }
+
+    /**
+     * Calculates a lower bound by placing every remaining exercise alone, right
+     * after its equipment and its student are free.
+     *
+     * @param state the incremental search state
+     * @return the lower bound estimate as a double value
+     */
+    private static double calculateBasicLowerBound(BranchAndBoundState state) {
+        final ScheduleKernel kernel = state.kernel;
+        double lowerBound = 0.0;
+
+        for (double equipmentFreeTime : state.equipmentFreeTimes)
+            lowerBound = Math.max(lowerBound, equipmentFreeTime);
+
+        for (int student = 0; student < kernel.N; student++) {
+            final double studentTime = state.studentsElapsedTimes[student];
+
+            for (int i = kernel.sheetOffsets[student] + state.studentProgress[student];
+                    i < kernel.sheetOffsets[student + 1]; i++) {
+                // Calcula o tempo estimado para o exercício restante
+                final double equipmentTime = state.equipmentFreeTimes[kernel.equipments[i]];
+                final double estimatedStartTime = Math.max(equipmentTime, studentTime);
+
+                lowerBound = Math.max(lowerBound, estimatedStartTime + kernel.durations[i]);
+            }
+        }
+
+        return lowerBound;
+    }
+
+    /**
+     * Calculates a lower bound from the remaining loads. No equipment can finish
+     * before its free time plus the duration of its unscheduled exercises, and no
+     * student can finish before its elapsed time plus the rest of its sheet. Both
+     * loads are maintained incrementally by the search state, so this costs
+     * O(M + N).
+     *
+     * @param state the incremental search state
+     * @return the lower bound estimate as a double value
+     */
+    private static double calculateLoadLowerBound(BranchAndBoundState state) {
+        final ScheduleKernel kernel = state.kernel;
+        double lowerBound = state.makespans[state.depth];
+
+        for (int m = 0; m < kernel.M; m++)
+            lowerBound = Math.max(lowerBound, state.equipmentFreeTimes[m] + state.remainingEquipmentLoads[m]);
+
+        for (int student = 0; student < kernel.N; student++) {
+            final double studentTail = kernel.remainingWork(student, state.studentProgress[student]);
+
+            lowerBound = Math.max(lowerBound, state.studentsElapsedTimes[student] + studentTail);
+        }
+
+        return lowerBound;
+    }
+
+    /**
+     * Calculates a one-machine relaxation lower bound. Each remaining exercise gets
+     * a head (earliest start, given its student's previous exercises) and a tail
+     * (work left on its sheet after it). For every equipment, the exercises whose
+     * head is at least h must all run after h, so the last of them cannot finish
+     * before h plus their durations plus their smallest tail.
+     *
+     * @param state the incremental search state
+     * @return the lower bound estimate as a double value
+     */
+    private static double calculateOneMachineLowerBound(BranchAndBoundState state) {
+        final ScheduleKernel kernel = state.kernel;
+        final double[] heads = state.heads;
+        final double[] tails = state.tails;
+        final int[] machineExercises = state.machineExercises;
+        double lowerBound = 0.0;
+
+        for (int student = 0; student < kernel.N; student++) {
+            double head = state.studentsElapsedTimes[student];
+
+            for (int i = kernel.sheetOffsets[student] + state.studentProgress[student];
+                    i < kernel.sheetOffsets[student + 1]; i++) {
+                heads[i] = head;
+                tails[i] = kernel.sheetTails[i] - kernel.durations[i];
+                head += kernel.durations[i];
+            }
+        }
+
+        for (int m = 0; m < kernel.M; m++) {
+            int count = 0;
+
+            for (int k = kernel.equipmentOffsets[m]; k < kernel.equipmentOffsets[m + 1]; k++) {
+                final int exercise = kernel.equipmentExercises[k];
+                final int student = kernel.exerciseStudents[exercise];
+
+                if (exercise < kernel.sheetOffsets[student] + state.studentProgress[student])
+                    continue;
+
+                heads[exercise] = Math.max(heads[exercise], state.equipmentFreeTimes[m]);
+                machineExercises[count++] = exercise;
+            }
+
+            // All remaining exercises of the equipment, which can be most of the
+            // instance, so a heap sort rather than a quadratic one
+            sortByDecreasingHead(machineExercises, count, heads);
+
+            double durationSum = 0.0;
+            double minTail = Double.MAX_VALUE;
+
+            for (int k = 0; k < count; k++) {
+                final int exercise = machineExercises[k];
+
+                durationSum += kernel.durations[exercise];
+                minTail = Math.min(minTail, tails[exercise]);
+                lowerBound = Math.max(lowerBound, heads[exercise] + durationSum + minTail);
+            }
+        }
+
+        return lowerBound;
+    }
+
+    /**
+     * Heap sorts the first exercises of an array by decreasing head, ties by
+     * increasing exercise index. Works in place, so nodes allocate nothing.
+     *
+     * @param exercises exercise indices to sort
+     * @param count     number of exercises to sort
+     * @param heads     head of each exercise
+     */
+    private static void sortByDecreasingHead(int[] exercises, int count, double[] heads) {
+        for (int root = count / 2 - 1; root >= 0; root--)
+            siftExerciseDown(exercises, root, count, heads);
+
+        for (int end = count - 1; end > 0; end--) {
+            final int last = exercises[end];
+
+            exercises[end] = exercises[0];
+            exercises[0] = last;
+            siftExerciseDown(exercises, 0, end, heads);
+        }
+    }
+
+    /**
+     * Sifts an exercise down the heap of sortByDecreasingHead, whose root is the
+     * exercise that comes last in the sorted order.
+     *
+     * @param exercises heap of exercise indices
+     * @param root      position of the exercise to sift down
+     * @param size      number of exercises in the heap
+     * @param heads     head of each exercise
+     */
+    private static void siftExerciseDown(int[] exercises, int root, int size, double[] heads) {
+        final int exercise = exercises[root];
+
+        while (2 * root + 1 < size) {
+            int child = 2 * root + 1;
+
+            if (child + 1 < size && comesAfter(exercises[child + 1], exercises[child], heads))
+                child++;
+
+            if (!comesAfter(exercises[child], exercise, heads))
+                break;
+
+            exercises[root] = exercises[child];
+            root = child;
+        }
+
+        exercises[root] = exercise;
+    }
+
+    /**
+     * Tells whether an exercise comes after another one by decreasing head, ties
+     * by increasing exercise index.
+     *
+     * @param exercise exercise to place
+     * @param other    exercise to compare it with
+     * @param heads    head of each exercise
+     * @return true if exercise is sorted after other
+     */
+    private static boolean comesAfter(int exercise, int other, double[] heads) {
+        return heads[exercise] < heads[other] || heads[exercise] == heads[other] && exercise > other;
+    }
+
+    // endregion
+
+    // region Dynamic Programming
+
+    /**
+     * Exact solver used by main: Branch-And-Bound, the dynamic programming over
+     * progress vectors or the disjunctive graph search. AUTO uses the dynamic
+     * programming when its progress vectors fit the memory budget and the
+     * disjunctive graph search otherwise.
+     */
+    private enum ExactSolver {
+        AUTO,
+        BRANCH_AND_BOUND,
+        DYNAMIC_PROGRAMMING,
+        DISJUNCTIVE_GRAPH
+    }
+
+    /**
+     * Progress vectors of one depth of the dynamic programming, in an
+     * open-addressing hash table keyed by their mixed-radix index. Each vector
+     * keeps a linked list of labels, its Pareto-optimal ready times, and all data
+     * lives in primitive arrays.
+     */
+    private static class ProgressLayer {
+        final int width; // Doubles per label: M equipment free times, N student ready times and the makespan
+        long[] keys; // Mixed-radix index of each progress vector plus one, 0 for empty slots
+        int[] heads; // First label of each progress vector
+        int shift;
+        int statesCount;
+        double[] times = new double[0];
+        int[] next = new int[0]; // Next label of the same progress vector, -1 at the end
+        int[] ids = new int[0]; // Global id of each label, to follow its parents
+        int labelCount;
+        long dominatedCount; // Labels removed because a new one dominated them
+
+        ProgressLayer(int width, int expectedStates) {
+            final int capacity = Integer.highestOneBit(Math.max(16, 2 * expectedStates - 1)) << 1;
+
+            this.width = width;
+            this.keys = new long[capacity];
+            this.heads = new int[capacity];
+            this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        private int findSlot(long key) {
+            final int mask = keys.length - 1;
+            int slot = (int) (((key + 1) * 0x9E3779B97F4A7C15L) >>> shift);
+
+            while (keys[slot] != 0 && keys[slot] != key + 1)
+                slot = (slot + 1) & mask;
+
+            return slot;
+        }
+
+        private void growTable() {
+            final long[] oldKeys = keys;
+            final int[] oldHeads = heads;
+
+            keys = new long[2 * oldKeys.length];
+            heads = new int[2 * oldHeads.length];
+            shift--;
+
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    final int newSlot = findSlot(oldKeys[slot] - 1);
+
+                    keys[newSlot] = oldKeys[slot];
+                    heads[newSlot] = oldHeads[slot];
+                }
+            }
+        }
+
+        /**
+         * Adds a label to a progress vector unless one of its labels has no later
+         * ready time, and removes the labels the new one dominates.
+         *
+         * @param key   mixed-radix index of the progress vector
+         * @param label ready times, width doubles
+         * @param id    global id of the label
+         * @return false when the label is dominated
+         */
+        boolean insert(long key, double[] label, int id) {
+            int slot = findSlot(key);
+
+            if (keys[slot] == 0) {
+                if (2 * (statesCount + 1) > keys.length) {
+                    growTable();
+                    slot = findSlot(key);
+                }
+
+                keys[slot] = key + 1;
+                heads[slot] = -1;
+                statesCount++;
+            }
+
+            int previous = -1;
+
+            for (int other = heads[slot]; other >= 0; other = next[other]) {
+                final int base = other * width;
+                boolean otherNoLater = true;
+                boolean labelNoLater = true;
+
+                for (int i = 0; i < width && (otherNoLater || labelNoLater); i++) {
+                    otherNoLater &= times[base + i] <= label[i];
+                    labelNoLater &= label[i] <= times[base + i];
+                }
+
+                if (otherNoLater)
+                    return false;
+
+                if (labelNoLater) {
+                    if (previous < 0)
+                        heads[slot] = next[other];
+                    else
+                        next[previous] = next[other];
+
+                    dominatedCount++;
+                } else {
+                    previous = other;
+                }
+            }
+
+            if (labelCount == ids.length) {
+                final int capacity = Math.max(16, 2 * labelCount);
+
+                times = Arrays.copyOf(times, capacity * width);
+                next = Arrays.copyOf(next, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+
+            System.arraycopy(label, 0, times, labelCount * width, width);
+            next[labelCount] = heads[slot];
+            ids[labelCount] = id;
+            heads[slot] = labelCount++;
+            return true;
+        }
+
+        long bytes() {
+            return 8L * keys.length + 4L * heads.length + 8L * times.length + 4L * next.length + 4L * ids.length;
+        }
+    }
+
+    /**
+     * Exact solver over the students progress vectors, for few students with long
+     * sheets. A progress vector decides which exercises are left, so the
+     * interleavings reaching it only differ by when each equipment and student
+     * gets free. Every vector keeps the Pareto-optimal set of those ready times,
+     * its labels: a label with no earlier ready time than another one of the same
+     * vector is dropped, since any completion of it is open to the other one.
+     * <p>
+     * The ready times of finished students and of equipment with no exercise left
+     * are cleared, and the makespan so far is kept as one more column, so more
+     * labels dominate each other. Vectors are expanded by depth, the number of
+     * scheduled exercises, so only two depths of ready times are held at once. Every label remembers its parent
+     * and the student it moved, which rebuilds the schedule at the end. Labels
+     * whose load lower bound cannot beat the upper bound are pruned.
+     */
+    private static class DynamicProgramming {
+        final ScheduleKernel kernel;
+        final long[] strides; // Mixed-radix weight of each student progress
+        final int width;
+        final double upperBound;
+        final long memoryLimit;
+        int[] parents = new int[1024]; // Parent label of every global label id, -1 for the root
+        int[] movedStudents = new int[1024]; // Student whose next exercise created the label
+        int labelCount;
+        long statesCount;
+        long dominatedCount;
+        long prunedCount;
+        long peakBytes;
+        long deadline = 0; // System.nanoTime() value at which the expansion stops, 0 for none
+        boolean memoryExhausted;
+        boolean timeExhausted;
+        double minTime = Double.MAX_VALUE;
+        SolverMetrics metrics = null; // Filled by the expansion when not null
+
+        DynamicProgramming(ScheduleKernel kernel, double upperBound, long memoryLimit) {
+            this.kernel = kernel;
+            this.strides = new long[kernel.N];
+            this.width = kernel.M + kernel.N + 1;
+            this.upperBound = upperBound;
+            this.memoryLimit = memoryLimit;
+
+            long stride = 1;
+
+            for (int s = 0; s < kernel.N; s++) {
+                strides[s] = stride;
+                stride *= kernel.sheetOffsets[s + 1] - kernel.sheetOffsets[s] + 1;
+            }
+        }
+
+        private int addLabel(int parent, int student) {
+            if (labelCount == parents.length) {
+                parents = Arrays.copyOf(parents, 2 * labelCount);
+                movedStudents = Arrays.copyOf(movedStudents, 2 * labelCount);
+            }
+
+            parents[labelCount] = parent;
+            movedStudents[labelCount] = student;
+            return labelCount++;
+        }
+
+        private void decode(long key, int[] progress) {
+            for (int s = kernel.N - 1; s >= 0; s--) {
+                progress[s] = (int) (key / strides[s]);
+                key -= progress[s] * strides[s];
+            }
+        }
+
+        /**
+         * Expands all progress vectors, depth by depth.
+         *
+         * @return kernel exercise indexes of the best schedule, or null when none
+         *         beats the upper bound or the memory limit or deadline is exceeded
+         */
+        int[] solve() {
+            final int M = kernel.M;
+            final int N = kernel.N;
+            final int[] progress = new int[N];
+            final double[] remainingLoads = new double[M];
+            final int[] remainingCounts = new int[M];
+            final double[] label = new double[width];
+            ProgressLayer current = new ProgressLayer(width, 1);
+
+            current.insert(0, label, addLabel(-1, -1));
+
+            for (int depth = 0; depth < kernel.n; depth++) {
+                final ProgressLayer next = new ProgressLayer(width, current.statesCount);
+
+                for (int slot = 0; slot < current.keys.length; slot++) {
+                    if (current.keys[slot] == 0)
+                        continue;
+
+                    final long key = current.keys[slot] - 1;
+
+                    if (deadline != 0 && System.nanoTime() - deadline >= 0) {
+                        timeExhausted = true;
+                        return null;
+                    }
+
+                    statesCount++;
+
+                    if (metrics != null)
+                        metrics.recordNode(depth);
+
+                    decode(key, progress);
+                    Arrays.fill(remainingLoads, 0.0);
+                    Arrays.fill(remainingCounts, 0);
+
+                    for (int s = 0; s < N; s++) {
+                        for (int i = kernel.sheetOffsets[s] + progress[s]; i < kernel.sheetOffsets[s + 1]; i++) {
+                            remainingLoads[kernel.equipments[i]] += kernel.durations[i];
+                            remainingCounts[kernel.equipments[i]]++;
+                        }
+                    }
+
+                    for (int parent = current.heads[slot]; parent >= 0; parent = current.next[parent]) {
+                        final int base = parent * width;
+                        final boolean timed = metrics != null && metrics.countLowerBound();
+                        final long timeStart = timed ? System.nanoTime() : 0;
+                        double lowerBound = current.times[base + M + N];
+
+                        for (int m = 0; m < M; m++)
+                            lowerBound = Math.max(lowerBound, current.times[base + m] + remainingLoads[m]);
+
+                        for (int s = 0; s < N; s++)
+                            lowerBound = Math.max(lowerBound,
+                                    current.times[base + M + s] + kernel.remainingWork(s, progress[s]));
+
+                        if (timed)
+                            metrics.recordLowerBound(System.nanoTime() - timeStart);
+
+                        for (int s = 0; s < N; s++) {
+                            final int exercise = kernel.sheetOffsets[s] + progress[s];
+
+                            if (exercise >= kernel.sheetOffsets[s + 1])
+                                continue;
+
+                            final int equipmentIdx = kernel.equipments[exercise];
+                            final double duration = kernel.durations[exercise];
+                            final double finishTime = Math.max(current.times[base + equipmentIdx],
+                                    current.times[base + M + s]) + duration;
+                            final double childLowerBound = Math.max(lowerBound,
+                                    finishTime + Math.max(kernel.remainingWork(s, progress[s] + 1),
+                                            remainingLoads[equipmentIdx] - duration));
+
+                            if (childLowerBound >= upperBound) {
+                                prunedCount++;
+                                continue;
+                            }
+
+                            System.arraycopy(current.times, base, label, 0, width);
+                            label[equipmentIdx] = finishTime;
+                            label[M + s] = finishTime;
+                            label[M + N] = Math.max(label[M + N], finishTime);
+
+                            // Ready times nothing waits for anymore do not tell labels apart
+                            if (remainingCounts[equipmentIdx] == 1)
+                                label[equipmentIdx] = 0.0;
+                            if (exercise + 1 == kernel.sheetOffsets[s + 1])
+                                label[M + s] = 0.0;
+
+                            if (next.insert(key + strides[s], label, labelCount))
+                                addLabel(current.ids[parent], s);
+                            else
+                                dominatedCount++;
+                        }
+                    }
+                }
+
+                dominatedCount += next.dominatedCount;
+                peakBytes = Math.max(peakBytes, current.bytes() + next.bytes() + 8L * parents.length);
+
+                if (peakBytes > memoryLimit) {
+                    memoryExhausted = true;
+                    return null;
+                }
+
+                current = next;
+            }
+
+            int bestLabel = -1;
+
+            for (int slot = 0; slot < current.keys.length; slot++) {
+                if (current.keys[slot] == 0)
+                    continue;
+
+                statesCount++;
+
+                if (metrics != null)
+                    metrics.recordNode(kernel.n);
+
+                for (int labelIdx = current.heads[slot]; labelIdx >= 0; labelIdx = current.next[labelIdx]) {
+                    final double makespan = current.times[labelIdx * width + width - 1];
+
+                    if (makespan < minTime) {
+                        minTime = makespan;
+                        bestLabel = current.ids[labelIdx];
+                    }
+                }
+            }
+
+            return bestLabel < 0 ? null : rebuildSchedule(bestLabel);
+        }
+
+        private int[] rebuildSchedule(int label) {
+            final int[] studentsOrder = new int[kernel.n];
+            final int[] progress = new int[kernel.N];
+            final int[] schedule = new int[kernel.n];
+
+            for (int i = kernel.n - 1; i >= 0; i--, label = parents[label])
+                studentsOrder[i] = movedStudents[label];
+
+            for (int i = 0; i < kernel.n; i++)
+                schedule[i] = kernel.sheetOffsets[studentsOrder[i]] + progress[studentsOrder[i]]++;
+
+            return schedule;
+        }
+    }
+
+    /**
+     * Counts the progress vectors of an academy, the product of every sheet
+     * length plus one.
+     *
+     * @param kernel compact academy representation
+     * @return the number of progress vectors, as a double since it overflows fast
+     */
+    private static double countProgressVectors(ScheduleKernel kernel) {
+        double count = 1.0;
+
+        for (int s = 0; s < kernel.N; s++)
+            count *= kernel.sheetOffsets[s + 1] - kernel.sheetOffsets[s] + 1;
+
+        return count;
+    }
+
+    /**
+     * Tells whether the dynamic programming fits a memory budget, allowing one
+     * label of ready times per progress vector.
+     *
+     * @param kernel       compact academy representation
+     * @param memoryBudget memory budget in bytes
+     * @return true when the dynamic programming should be used
+     */
+    private static boolean fitsDynamicProgramming(ScheduleKernel kernel, long memoryBudget) {
+        final double bytesPerVector = 8.0 * (kernel.M + kernel.N + 1) + 36.0;
+
+        return countProgressVectors(kernel) * bytesPerVector <= memoryBudget;
+    }
+
+    /**
+     * Controls dynamic programming processing
+     *
+     * @param academy         receives an Academy object generated from the read file
+     * @param memoryBudget    memory budget in bytes
+     * @param timeLimitMillis wall-clock budget of the expansion, 0 for none
+     * @param metrics         metrics filled by the expansion, or null
+     * @return a list of exercises that represents the optimal solution, the
+     *         heuristic one if the time limit ran out, or null if the memory
+     *         budget was exceeded
+     */
+    private static List<Exercise> handleDynamicProgramming(Academy academy, long memoryBudget,
+            long timeLimitMillis, SolverMetrics metrics) {
+        final SolveEvent event = beginSolveEvent();
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final int[] approximateSchedule = buildBestApproximateSchedule(kernel);
+        final double upperBound = simulateSchedule(kernel, approximateSchedule, kernel.n, new double[kernel.M],
+                new double[kernel.N]);
+        final DynamicProgramming dynamicProgramming = new DynamicProgramming(kernel, upperBound, memoryBudget);
+
+        dynamicProgramming.metrics = metrics;
+
+        if (timeLimitMillis > 0)
+            dynamicProgramming.deadline = System.nanoTime() + timeLimitMillis * 1_000_000;
+
+        recordIncumbent(metrics, "Dynamic Programming", upperBound);
+
+        int[] optimalSchedule = dynamicProgramming.solve();
+
+        if (optimalSchedule != null)
+            recordIncumbent(metrics, "Dynamic Programming", dynamicProgramming.minTime);
+
+        if (metrics != null) {
+            metrics.boundPrunes.add(dynamicProgramming.prunedCount);
+            metrics.dominancePrunes.add(dynamicProgramming.dominatedCount);
+            metrics.finish();
+        }
+
+        finishSolveEvent(event, "Dynamic Programming", kernel.n, dynamicProgramming.statesCount,
+                dynamicProgramming.prunedCount + dynamicProgramming.dominatedCount,
+                optimalSchedule != null ? dynamicProgramming.minTime : upperBound,
+                dynamicProgramming.memoryExhausted || dynamicProgramming.timeExhausted);
+
+        if (dynamicProgramming.memoryExhausted) {
+            System.out.printf("%nDynamic Programming exceeded its %.1f MB budget%n",
+                    memoryBudget / (1024.0 * 1024.0));
+
+            return null;
+        }
+
+        double minTime = dynamicProgramming.minTime;
+
+        // Nothing beat the heuristic schedule: it is optimal, unless the time limit cut the expansion short
+        if (optimalSchedule == null) {
+            optimalSchedule = approximateSchedule;
+            minTime = upperBound;
+        }
+
+        final List<Exercise> optimalDynamicProgrammingSolution = kernel.toExercises(optimalSchedule, kernel.n);
+
+        simulateSchedule(academy.M, optimalDynamicProgrammingSolution);
+
+        System.out.printf("\nDynamic Programming lowest time: %.2f minutes%n", minTime);
+        System.out.printf("Progress vectors: %d of %.0f, labels: %d (dominated: %d, pruned: %d)%n",
+                dynamicProgramming.statesCount, countProgressVectors(kernel), dynamicProgramming.labelCount,
+                dynamicProgramming.dominatedCount, dynamicProgramming.prunedCount);
+        System.out.printf("Peak memory: %.1f MB%n", dynamicProgramming.peakBytes / (1024.0 * 1024.0));
+
+        if (dynamicProgramming.timeExhausted)
+            System.out.println("Time limit exhausted, the heuristic schedule is not proven optimal");
+
+        System.out.println(dynamicProgramming.timeExhausted ? "Best sequence solution:" : "Optimal sequence solution:");
+
+        for (Exercise exercise : optimalDynamicProgrammingSolution)
+            System.out.println("> " + exercise);
+
+        return optimalDynamicProgrammingSolution;
+    }
+    // endregion
+
+    // region Disjunctive graph
+
+    /**
+     * Exact search over the disjunctive graph of the academy. Student sheets are
+     * chains of conjunctive arcs and every equipment is a machine whose exercises
+     * must be put in some order. A node ranks one more exercise first among the
+     * unranked exercises of an equipment, so a leaf fixes every machine order and
+     * the schedule is the longest path of the graph. The exercises ranked at a
+     * node are the Giffler-Thompson conflict set of the partial schedule, which
+     * keeps the tree to active schedules.
+     * <p>
+     * Every exercise keeps a head, the earliest time it can start, and a tail, the
+     * least time the schedule still runs after it ends. A node only looks for
+     * schedules shorter than the incumbent, so head + duration + tail must stay
+     * under that target for every exercise. Heads and tails are propagated along
+     * the sheets and the ranked machine orders, and tightened on every equipment
+     * by edge-finding, which detects exercises that must come after a whole group
+     * of others. A node is pruned as soon as one exercise no longer fits.
+     * <p>
+     * Changed bounds are recorded on a trail and restored on backtrack, so a node
+     * costs no allocation beyond the trail growing to its deepest use.
+     */
+    private static class DisjunctiveGraphSearch {
+        private static final double IMPROVEMENT = 1e-6; // Least makespan decrease looked for, in minutes
+        private static final double TOLERANCE = 1e-9; // Bound increases below it are ignored
+        final ScheduleKernel kernel;
+        final double[] bounds; // Head of exercise i at i, its tail at n + i
+        final int[] sequences; // Ranked exercises of equipment m from sequences[equipmentOffsets[m]], in order
+        final int[] rankedCounts;
+        final int[] rankPositions; // Position of each exercise on its equipment order, -1 while unranked
+        int rankedTotal;
+        final int[] studentProgress; // Ranked exercises of each student sheet
+        final double[] finishTimes; // Finish of each ranked exercise in the partial schedule
+        // Propagation queue of exercises whose bounds changed, and equipment to filter again
+        final int[] queue;
+        final boolean[] queued;
+        int queueStart;
+        int queueSize;
+        final boolean[] equipmentDirty;
+        // Trail of the bounds overwritten since the root
+        int[] trailIndexes = new int[1024];
+        double[] trailValues = new double[1024];
+        int trailSize;
+        // Edge-finding scratch arrays
+        final int[] unranked;
+        final double[] releases;
+        final double[] dues;
+        final double[] completions;
+        final double[] raised;
+        int[] children = new int[256]; // Child exercises of the nodes on the current path
+        int childrenSize;
+        double target; // Every exercise must end its tail by this time
+        double minTime;
+        final int[] optimalSolution;
+        double rootLowerBound;
+        long nodesCount;
+        long prunedCount;
+        long nodesLimit = Long.MAX_VALUE;
+        long deadline = Long.MAX_VALUE; // System.nanoTime() value at which the search stops
+        int clockCountdown = 1024;
+        boolean stopped;
+        SolverMetrics metrics;
+
+        /**
+         * @param kernel          compact academy representation
+         * @param initialSchedule schedule whose makespan the search must beat
+         */
+        DisjunctiveGraphSearch(ScheduleKernel kernel, int[] initialSchedule) {
+            final int n = kernel.n;
+            int largestEquipment = 0;
+
+            for (int m = 0; m < kernel.M; m++)
+                largestEquipment = Math.max(largestEquipment,
+                        kernel.equipmentOffsets[m + 1] - kernel.equipmentOffsets[m]);
+
+            this.kernel = kernel;
+            this.bounds = new double[2 * n];
+            this.sequences = new int[n];
+            this.rankedCounts = new int[kernel.M];
+            this.rankPositions = new int[n];
+            this.studentProgress = new int[kernel.N];
+            this.finishTimes = new double[n];
+            this.queue = new int[n];
+            this.queued = new boolean[n];
+            this.equipmentDirty = new boolean[kernel.M];
+            this.unranked = new int[largestEquipment];
+            this.releases = new double[largestEquipment];
+            this.dues = new double[largestEquipment];
+            this.completions = new double[largestEquipment];
+            this.raised = new double[largestEquipment];
+            this.optimalSolution = initialSchedule.clone();
+            this.minTime = simulateSchedule(kernel, initialSchedule, n, new double[kernel.M], new double[kernel.N]);
+            this.target = minTime - IMPROVEMENT;
+
+            Arrays.fill(rankPositions, -1);
+
+            for (int i = 0; i < n; i++) {
+                final int student = kernel.exerciseStudents[i];
+
+                bounds[i] = i > kernel.sheetOffsets[student] ? bounds[i - 1] + kernel.durations[i - 1] : 0.0;
+                bounds[n + i] = kernel.sheetTails[i] - kernel.durations[i];
+            }
+        }
+
+        /**
+         * Propagates the root bounds and explores the search tree.
+         */
+        void solve() {
+            if (propagateRoot())
+                search(0);
+        }
+
+        /**
+         * Propagates the root bounds and sets the root lower bound.
+         *
+         * @return false if nothing shorter than the initial schedule exists
+         */
+        boolean propagateRoot() {
+            Arrays.fill(equipmentDirty, true);
+
+            if (!propagate()) {
+                clearPropagation();
+                rootLowerBound = minTime;
+                return false;
+            }
+
+            rootLowerBound = Math.min(minTime, calculateLowerBound());
+            return true;
+        }
+
+        private boolean isBudgetExhausted() {
+            if (stopped)
+                return true;
+
+            if (nodesCount >= nodesLimit) {
+                stopped = true;
+            } else if (--clockCountdown <= 0) {
+                clockCountdown = 1024;
+                stopped = System.nanoTime() - deadline >= 0;
+            }
+
+            return stopped;
+        }
+
+        /**
+         * Returns the largest head + duration + tail of an exercise, or smallest
+         * head + remaining work + smallest tail of an equipment, which no schedule
+         * shorter than the target can end before.
+         */
+        private double calculateLowerBound() {
+            final int n = kernel.n;
+            double lowerBound = 0.0;
+
+            for (int i = 0; i < n; i++)
+                lowerBound = Math.max(lowerBound, bounds[i] + kernel.durations[i] + bounds[n + i]);
+
+            for (int m = 0; m < kernel.M; m++) {
+                double minHead = Double.MAX_VALUE;
+                double minTail = Double.MAX_VALUE;
+                double work = 0.0;
+
+                for (int k = kernel.equipmentOffsets[m]; k < kernel.equipmentOffsets[m + 1]; k++) {
+                    final int exercise = kernel.equipmentExercises[k];
+
+                    if (rankPositions[exercise] >= 0)
+                        continue;
+
+                    minHead = Math.min(minHead, bounds[exercise]);
+                    minTail = Math.min(minTail, bounds[n + exercise]);
+                    work += kernel.durations[exercise];
+                }
+
+                if (work > 0.0)
+                    lowerBound = Math.max(lowerBound, minHead + work + minTail);
+            }
+
+            return lowerBound;
+        }
+
+        /**
+         * Explores the rankings below the current node.
+         *
+         * @param depth exercises ranked by the search so far
+         */
+        private void search(int depth) {
+            if (isBudgetExhausted())
+                return;
+
+            nodesCount++;
+
+            if (metrics != null)
+                metrics.recordNode(depth);
+
+            // The incumbent may have improved since this node was propagated
+            if (calculateLowerBound() > target) {
+                countPruned();
+                return;
+            }
+
+            if (rankedTotal == kernel.n) {
+                recordSolution();
+                return;
+            }
+
+            final int childrenStart = childrenSize;
+            final double nodeTarget = target;
+
+            addChildren();
+
+            for (int c = childrenStart; c < childrenSize && !stopped; c++) {
+                final int exercise = children[c];
+                final int mark = trailSize;
+
+                if (target < nodeTarget)
+                    Arrays.fill(equipmentDirty, true);
+
+                rank(exercise);
+
+                if (timedPropagate())
+                    search(depth + 1);
+                else
+                    countPruned();
+
+                clearPropagation();
+                unrank(exercise);
+                undo(mark);
+            }
+
+            childrenSize = childrenStart;
+        }
+
+        private void countPruned() {
+            prunedCount++;
+
+            if (metrics != null)
+                metrics.boundPrunes.increment();
+        }
+
+        /**
+         * Earliest start of the next exercise of a student in the partial schedule.
+         */
+        private double earliestStart(int exercise) {
+            final int equipmentIdx = kernel.equipments[exercise];
+            final int rankedCount = rankedCounts[equipmentIdx];
+            final double studentReady = exercise > kernel.sheetOffsets[kernel.exerciseStudents[exercise]]
+                    ? finishTimes[exercise - 1] : 0.0;
+
+            return rankedCount == 0 ? studentReady
+                    : Math.max(studentReady, finishTimes[sequences[kernel.equipmentOffsets[equipmentIdx]
+                            + rankedCount - 1]]);
+        }
+
+        /**
+         * Pushes the children of a node: the next exercises of the students, on the
+         * equipment of the earliest completion, that can start before it, like in
+         * the Giffler-Thompson generation. Every active schedule, and so some
+         * optimal schedule, lies below one of them. They go by increasing head and
+         * then decreasing tail.
+         */
+        private void addChildren() {
+            final int n = kernel.n;
+            final int childrenStart = childrenSize;
+            int earliest = -1;
+            double earliestFinish = Double.MAX_VALUE;
+
+            for (int s = 0; s < kernel.N; s++) {
+                final int exercise = kernel.sheetOffsets[s] + studentProgress[s];
+
+                if (exercise < kernel.sheetOffsets[s + 1]
+                        && earliestStart(exercise) + kernel.durations[exercise] < earliestFinish) {
+                    earliest = exercise;
+                    earliestFinish = earliestStart(exercise) + kernel.durations[exercise];
+                }
+            }
+
+            if (children.length < childrenSize + kernel.N)
+                children = Arrays.copyOf(children, Math.max(2 * children.length, childrenSize + kernel.N));
+
+            for (int s = 0; s < kernel.N; s++) {
+                final int exercise = kernel.sheetOffsets[s] + studentProgress[s];
+
+                if (exercise >= kernel.sheetOffsets[s + 1] || kernel.equipments[exercise] != kernel.equipments[earliest]
+                        || exercise != earliest && earliestStart(exercise) >= earliestFinish)
+                    continue;
+
+                int i = childrenSize++;
+
+                while (i > childrenStart && (bounds[children[i - 1]] > bounds[exercise]
+                        || bounds[children[i - 1]] == bounds[exercise] && bounds[n + children[i - 1]] < bounds[n
+                                + exercise])) {
+                    children[i] = children[i - 1];
+                    i--;
+                }
+
+                children[i] = exercise;
+            }
+        }
+
+        private void rank(int exercise) {
+            final int equipmentIdx = kernel.equipments[exercise];
+
+            finishTimes[exercise] = earliestStart(exercise) + kernel.durations[exercise];
+            studentProgress[kernel.exerciseStudents[exercise]]++;
+            sequences[kernel.equipmentOffsets[equipmentIdx] + rankedCounts[equipmentIdx]] = exercise;
+            rankPositions[exercise] = rankedCounts[equipmentIdx]++;
+            rankedTotal++;
+            enqueue(exercise);
+            equipmentDirty[equipmentIdx] = true;
+        }
+
+        private void unrank(int exercise) {
+            rankedCounts[kernel.equipments[exercise]]--;
+            studentProgress[kernel.exerciseStudents[exercise]]--;
+            rankPositions[exercise] = -1;
+            rankedTotal--;
+        }
+
+        /**
+         * Raises a head or a tail, recording its previous value on the trail.
+         *
+         * @param index exercise index for a head, n plus the exercise index for a tail
+         * @param value new lower bound
+         * @return false if the exercise no longer fits before the target
+         */
+        private boolean raise(int index, double value) {
+            if (value <= bounds[index] + TOLERANCE)
+                return true;
+
+            if (trailSize == trailIndexes.length) {
+                trailIndexes = Arrays.copyOf(trailIndexes, 2 * trailSize);
+                trailValues = Arrays.copyOf(trailValues, 2 * trailSize);
+            }
+
+            final int n = kernel.n;
+            final int exercise = index < n ? index : index - n;
+
+            trailIndexes[trailSize] = index;
+            trailValues[trailSize++] = bounds[index];
+            bounds[index] = value;
+
+            if (bounds[exercise] + kernel.durations[exercise] + bounds[n + exercise] > target)
+                return false;
+
+            enqueue(exercise);
+
+            if (rankPositions[exercise] < 0)
+                equipmentDirty[kernel.equipments[exercise]] = true;
+
+            return true;
+        }
+
+        private void undo(int mark) {
+            while (trailSize > mark) {
+                trailSize--;
+                bounds[trailIndexes[trailSize]] = trailValues[trailSize];
+            }
+        }
+
+        private void enqueue(int exercise) {
+            if (queued[exercise])
+                return;
+
+            queued[exercise] = true;
+            queue[(queueStart + queueSize++) % queue.length] = exercise;
+        }
+
+        private void clearPropagation() {
+            while (queueSize > 0) {
+                queued[queue[queueStart]] = false;
+                queueStart = (queueStart + 1) % queue.length;
+                queueSize--;
+            }
+
+            Arrays.fill(equipmentDirty, false);
+        }
+
+        private boolean timedPropagate() {
+            if (metrics == null || !metrics.countLowerBound())
+                return propagate();
+
+            final long timeStart = System.nanoTime();
+            final boolean feasible = propagate();
+
+            metrics.recordLowerBound(System.nanoTime() - timeStart);
+            return feasible;
+        }
+
+        /**
+         * Propagates the bounds along the arcs and filters the equipment until
+         * nothing changes.
+         *
+         * @return false if some exercise no longer fits before the target
+         */
+        private boolean propagate() {
+            while (true) {
+                while (queueSize > 0) {
+                    final int exercise = queue[queueStart];
+
+                    queueStart = (queueStart + 1) % queue.length;
+                    queueSize--;
+                    queued[exercise] = false;
+
+                    if (!relaxArcs(exercise))
+                        return false;
+                }
+
+                boolean filtered = false;
+
+                for (int m = 0; m < kernel.M; m++) {
+                    if (!equipmentDirty[m])
+                        continue;
+
+                    equipmentDirty[m] = false;
+                    filtered = true;
+
+                    if (!filterEquipment(m))
+                        return false;
+                }
+
+                if (!filtered)
+                    return true;
+            }
+        }
+
+        /**
+         * Pushes the head of an exercise to its successors and its tail to its
+         * predecessors, along its sheet and its equipment order. The last ranked
+         * exercise of an equipment precedes every unranked one.
+         */
+        private boolean relaxArcs(int exercise) {
+            final int n = kernel.n;
+            final int student = kernel.exerciseStudents[exercise];
+            final int equipmentIdx = kernel.equipments[exercise];
+            final int offset = kernel.equipmentOffsets[equipmentIdx];
+            final int rankedCount = rankedCounts[equipmentIdx];
+            final double finish = bounds[exercise] + kernel.durations[exercise];
+            final double tail = kernel.durations[exercise] + bounds[n + exercise];
+
+            if (exercise + 1 < kernel.sheetOffsets[student + 1] && !raise(exercise + 1, finish))
+                return false;
+            if (exercise > kernel.sheetOffsets[student] && !raise(n + exercise - 1, tail))
+                return false;
+
+            final int position = rankPositions[exercise];
+
+            if (position < 0)
+                return rankedCount == 0 || raise(n + sequences[offset + rankedCount - 1], tail);
+
+            if (position > 0 && !raise(n + sequences[offset + position - 1], tail))
+                return false;
+
+            if (position + 1 < rankedCount)
+                return raise(sequences[offset + position + 1], finish);
+
+            for (int k = offset; k < kernel.equipmentOffsets[equipmentIdx + 1]; k++) {
+                final int other = kernel.equipmentExercises[k];
+
+                if (rankPositions[other] < 0 && !raise(other, finish))
+                    return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * Tightens the bounds of the unranked exercises of an equipment by
+         * edge-finding, and the tail of its last ranked exercise, which runs before
+         * all of them.
+         */
+        private boolean filterEquipment(int equipmentIdx) {
+            final int n = kernel.n;
+            final int rankedCount = rankedCounts[equipmentIdx];
+            double work = 0.0;
+            double minTail = Double.MAX_VALUE;
+            int count = 0;
+
+            for (int k = kernel.equipmentOffsets[equipmentIdx]; k < kernel.equipmentOffsets[equipmentIdx + 1]; k++) {
+                final int exercise = kernel.equipmentExercises[k];
+
+                if (rankPositions[exercise] >= 0)
+                    continue;
+
+                unranked[count++] = exercise;
+                work += kernel.durations[exercise];
+                minTail = Math.min(minTail, bounds[n + exercise]);
+            }
+
+            if (count == 0)
+                return true;
+
+            if (rankedCount > 0
+                    && !raise(n + sequences[kernel.equipmentOffsets[equipmentIdx] + rankedCount - 1], work + minTail))
+                return false;
+
+            return count < 2 || edgeFind(count, 0, n) && edgeFind(count, n, 0);
+        }
+
+        /**
+         * Edge-finding on the unranked exercises of an equipment, in the O(k²)
+         * form of Baptiste, Le Pape and Nuijten. With release offset 0 it raises
+         * heads against the deadlines given by the tails; with the offsets swapped
+         * it raises tails, on the mirrored schedule.
+         *
+         * @param count         unranked exercises, in unranked[0, count)
+         * @param releaseOffset bounds offset of the times raised
+         * @param dueOffset     bounds offset of the times on the other end
+         * @return false if the exercises cannot all fit before the target
+         */
+        private boolean edgeFind(int count, int releaseOffset, int dueOffset) {
+            for (int i = 1; i < count; i++) {
+                final int exercise = unranked[i];
+                int j = i;
+
+                while (j > 0 && bounds[releaseOffset + unranked[j - 1]] > bounds[releaseOffset + exercise]) {
+                    unranked[j] = unranked[j - 1];
+                    j--;
+                }
+
+                unranked[j] = exercise;
+            }
+
+            for (int i = 0; i < count; i++) {
+                releases[i] = bounds[releaseOffset + unranked[i]];
+                dues[i] = target - bounds[dueOffset + unranked[i]];
+                raised[i] = releases[i];
+            }
+
+            for (int k = 0; k < count; k++) {
+                final double due = dues[k];
+                double work = 0.0;
+                double completion = -Double.MAX_VALUE;
+
+                // Latest completion of the tasks due by due[k] and released from each position on
+                for (int i = count - 1; i >= 0; i--) {
+                    if (dues[i] <= due) {
+                        work += kernel.durations[unranked[i]];
+                        completion = Math.max(completion, releases[i] + work);
+
+                        if (completion > due)
+                            return false;
+                    }
+
+                    completions[i] = completion;
+                }
+
+                double head = -Double.MAX_VALUE;
+
+                for (int i = 0; i < count; i++) {
+                    final double duration = kernel.durations[unranked[i]];
+
+                    if (dues[i] <= due) {
+                        head = Math.max(head, releases[i] + work);
+                        work -= duration;
+                    } else {
+                        // The task cannot end before the group does, so it runs after all of it
+                        if (releases[i] + work + duration > due)
+                            raised[i] = Math.max(raised[i], completions[i]);
+                        if (head + duration > due)
+                            raised[i] = Math.max(raised[i], completion);
+                    }
+                }
+            }
+
+            for (int i = 0; i < count; i++) {
+                if (!raise(releaseOffset + unranked[i], raised[i]))
+                    return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * Turns the fully ranked graph into a schedule, listing the exercises by
+         * head, and keeps it as the new incumbent.
+         */
+        private void recordSolution() {
+            final int n = kernel.n;
+            final Integer[] order = new Integer[n];
+
+            for (int i = 0; i < n; i++)
+                order[i] = i;
+
+            // Zero-duration exercises go first on ties so they never wait behind a successor
+            Arrays.sort(order, (a, b) -> bounds[a] != bounds[b] ? Double.compare(bounds[a], bounds[b])
+                    : kernel.durations[a] != kernel.durations[b]
+                            ? Double.compare(kernel.durations[a], kernel.durations[b]) : Integer.compare(a, b));
+
+            final int[] schedule = new int[n];
+
+            for (int i = 0; i < n; i++)
+                schedule[i] = order[i];
+
+            final double makespan = simulateSchedule(kernel, schedule, n, new double[kernel.M],
+                    new double[kernel.N]);
+
+            if (makespan < minTime) {
+                minTime = makespan;
+                target = makespan - IMPROVEMENT;
+                System.arraycopy(schedule, 0, optimalSolution, 0, n);
+                recordIncumbent(metrics, "Disjunctive Graph", makespan);
+            }
+        }
+
+        /**
+         * Returns the relative gap between the incumbent and the root lower bound.
+         *
+         * @return a value from 0 (proven optimal) to 1
+         */
+        double gap() {
+            return minTime <= 0.0 ? 0.0 : Math.max(0.0, (minTime - rootLowerBound) / minTime);
+        }
+    }
+
+    /**
+     * Controls disjunctive graph search processing
+     *
+     * @param academy  receives an Academy object generated from the read file
+     * @param settings Branch-And-Bound settings; the time limit, node limit and
+     *                 metrics apply
+     * @return a list of exercises that represents the optimal solution, or the best
+     *         one found if a budget ran out
+     */
+    private static List<Exercise> handleDisjunctiveGraph(Academy academy, BranchAndBoundSettings settings) {
+        final SolveEvent event = beginSolveEvent();
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final DisjunctiveGraphSearch search = new DisjunctiveGraphSearch(kernel,
+                buildBestApproximateSchedule(kernel));
+
+        search.nodesLimit = settings.nodesLimit;
+        search.metrics = settings.metrics;
+
+        if (settings.timeLimitMillis > 0)
+            search.deadline = System.nanoTime() + settings.timeLimitMillis * 1_000_000;
+
+        recordIncumbent(search.metrics, "Disjunctive Graph", search.minTime);
+        search.solve();
+
+        if (search.metrics != null)
+            search.metrics.finish();
+
+        finishSolveEvent(event, "Disjunctive Graph", kernel.n, search.nodesCount, search.prunedCount,
+                search.minTime, search.stopped);
+
+        final List<Exercise> optimalDisjunctiveGraphSolution = kernel.toExercises(search.optimalSolution, kernel.n);
+
+        simulateSchedule(academy.M, optimalDisjunctiveGraphSolution);
+
+        System.out.printf("\nDisjunctive Graph lowest time: %.2f minutes%n", search.minTime);
+        System.out.println("Explored nodes: " + search.nodesCount + " (pruned: " + search.prunedCount + ")");
+
+        if (search.stopped)
+            System.out.printf("Budget exhausted, gap to lower bound %.2f: %.2f%%%n", search.rootLowerBound,
+                    search.gap() * 100);
+
+        System.out.println("Optimal sequence solution:");
+
+        for (Exercise exercise : optimalDisjunctiveGraphSolution)
+            System.out.println("> " + exercise);
+
+        return optimalDisjunctiveGraphSolution;
+    }
+    // endregion
+
+    // region Approximate Heuristic
+
+    /**
+     * Rule used by the approximate heuristic to pick the next exercise among the
+     * next exercise of every student. Ties go to the lowest student.
+     */
+    private enum DispatchRule {
+        /** Exercise that can start the earliest. */
+        EARLIEST_START,
+        /** Exercise that finishes first. */
+        EARLIEST_FINISH,
+        /** Among the exercises that can start the earliest, the shortest one. */
+        SPT,
+        /** Among the exercises that can start the earliest, the longest one. */
+        LPT,
+        /** Among the exercises that can start the earliest, the student with the most work left. */
+        MWKR
+    }
+
+    /**
+     * Order of the items of an {@link IndexedHeap}.
+     */
+    private interface HeapOrder {
+        boolean isBefore(int a, int b);
+    }
+
+    /**
+     * Binary min-heap of int items that keeps the position of every item, so any
+     * item can be removed or have its key changed in O(log size). The positions
+     * array can be shared by heaps whose items never sit in two of them at once.
+     */
+    private static class IndexedHeap {
+        final int[] positions; // Position of each item, -1 when it is not on a heap
+        final HeapOrder order;
+        int[] heap = new int[4];
+        int size;
+
+        IndexedHeap(int[] positions, HeapOrder order) {
+            this.positions = positions;
+            this.order = order;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int item) {
+            return positions[item] >= 0;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void add(int item) {
+            if (size == heap.length)
+                heap = Arrays.copyOf(heap, 2 * size);
+
+            heap[size] = item;
+            positions[item] = size;
+            siftUp(size++);
+        }
+
+        void remove(int item) {
+            final int position = positions[item];
+            final int last = heap[--size];
+
+            positions[item] = -1;
+
+            if (position < size) {
+                heap[position] = last;
+                positions[last] = position;
+                siftDown(position);
+                siftUp(positions[last]);
+            }
+        }
+
+        /**
+         * Restores the heap order after the key of an item changed.
+         */
+        void update(int item) {
+            siftUp(positions[item]);
+            siftDown(positions[item]);
+        }
+
+        private void siftUp(int position) {
+            final int item = heap[position];
+
+            while (position > 0) {
+                final int parent = (position - 1) >>> 1;
+
+                if (!order.isBefore(item, heap[parent]))
+                    break;
+
+                heap[position] = heap[parent];
+                positions[heap[position]] = position;
+                position = parent;
+            }
+
+            heap[position] = item;
+            positions[item] = position;
+        }
+
+        private void siftDown(int position) {
+            final int item = heap[position];
+
+            while (true) {
+                int child = 2 * position + 1;
+
+                if (child >= size)
+                    break;
+                if (child + 1 < size && order.isBefore(heap[child + 1], heap[child]))
+                    child++;
+                if (!order.isBefore(heap[child], item))
+                    break;
+
+                heap[position] = heap[child];
+                positions[heap[position]] = position;
+                position = child;
+            }
+
+            heap[position] = item;
+            positions[item] = position;
+        }
+    }
+
+    /**
+     * Candidates of the approximate heuristic, one per student: its next exercise.
+     * Each equipment splits its candidates into the ready ones, whose student is
+     * free by the time the equipment is, and the pending ones, ordered by when
+     * their student gets free. Equipment and student ready times only grow, so a
+     * pending candidate moves to ready once and a step only changes the two
+     * equipment it touches, both re-keyed on a heap of equipment.
+     */
+    private static class DispatchQueue {
+        final ScheduleKernel kernel;
+        final DispatchRule rule;
+        final int[] studentProgress;
+        final double[] equipmentFreeTimes;
+        final double[] studentsElapsedTimes;
+        final double[] shifts; // Added to the start time of each candidate, the duration when ordering by finish
+        final double[] priorities; // Tie-break of each candidate, lower goes first
+        final IndexedHeap[] readyHeaps;
+        final IndexedHeap[] pendingHeaps;
+        final IndexedHeap equipmentHeap;
+        final int[] bestStudents; // Best candidate of each equipment
+        final double[] bestTimes; // Start time plus shift of that candidate
+
+        DispatchQueue(ScheduleKernel kernel, DispatchRule rule) {
+            this(kernel, rule, new double[kernel.M], new double[kernel.N]);
+        }
+
+        /**
+         * @param kernel               compact academy representation
+         * @param rule                 dispatch rule choosing the next exercise
+         * @param equipmentFreeTimes   time each equipment gets free, updated in place
+         * @param studentsElapsedTimes time each student gets free, updated in place
+         */
+        DispatchQueue(ScheduleKernel kernel, DispatchRule rule, double[] equipmentFreeTimes,
+                double[] studentsElapsedTimes) {
+            this.kernel = kernel;
+            this.rule = rule;
+            this.studentProgress = new int[kernel.N];
+            this.equipmentFreeTimes = equipmentFreeTimes;
+            this.studentsElapsedTimes = studentsElapsedTimes;
+            this.shifts = new double[kernel.N];
+            this.priorities = new double[kernel.N];
+            this.readyHeaps = new IndexedHeap[kernel.M];
+            this.pendingHeaps = new IndexedHeap[kernel.M];
+            this.bestStudents = new int[kernel.M];
+            this.bestTimes = new double[kernel.M];
+
+            final int[] readyPositions = new int[kernel.N];
+            final int[] pendingPositions = new int[kernel.N];
+            final int[] equipmentPositions = new int[kernel.M];
+            final HeapOrder readyOrder = (a, b) -> isBefore(shifts[a], priorities[a], a, shifts[b], priorities[b], b);
+            final HeapOrder pendingOrder = (a, b) -> isBefore(studentsElapsedTimes[a] + shifts[a], priorities[a], a,
+                    studentsElapsedTimes[b] + shifts[b], priorities[b], b);
+
+            Arrays.fill(readyPositions, -1);
+            Arrays.fill(pendingPositions, -1);
+            Arrays.fill(equipmentPositions, -1);
+
+            for (int equipmentIdx = 0; equipmentIdx < kernel.M; equipmentIdx++) {
+                readyHeaps[equipmentIdx] = new IndexedHeap(readyPositions, readyOrder);
+                pendingHeaps[equipmentIdx] = new IndexedHeap(pendingPositions, pendingOrder);
+            }
+
+            this.equipmentHeap = new IndexedHeap(equipmentPositions, (a, b) -> isBefore(bestTimes[a],
+                    priorities[bestStudents[a]], bestStudents[a], bestTimes[b], priorities[bestStudents[b]],
+                    bestStudents[b]));
+
+            for (int student = 0; student < kernel.N; student++)
+                addCandidate(student);
+
+            for (int equipmentIdx = 0; equipmentIdx < kernel.M; equipmentIdx++)
+                refreshEquipment(equipmentIdx);
+        }
+
+        private static boolean isBefore(double timeA, double priorityA, int studentA, double timeB, double priorityB,
+                int studentB) {
+            if (timeA != timeB)
+                return timeA < timeB;
+            if (priorityA != priorityB)
+                return priorityA < priorityB;
+
+            return studentA < studentB;
+        }
+
+        /**
+         * Places the next exercise of a student on its equipment, if it has one left.
+         */
+        private void addCandidate(int student) {
+            final int exercise = kernel.sheetOffsets[student] + studentProgress[student];
+
+            if (exercise >= kernel.sheetOffsets[student + 1])
+                return;
+
+            final int equipmentIdx = kernel.equipments[exercise];
+
+            shifts[student] = rule == DispatchRule.EARLIEST_FINISH ? kernel.durations[exercise] : 0.0;
+            priorities[student] = dispatchPriority(kernel, rule, exercise);
+
+            if (studentsElapsedTimes[student] <= equipmentFreeTimes[equipmentIdx])
+                readyHeaps[equipmentIdx].add(student);
+            else
+                pendingHeaps[equipmentIdx].add(student);
+        }
+
+        /**
+         * Moves the candidates of an equipment whose student became free to ready
+         * and re-keys the equipment with its best candidate.
+         */
+        private void refreshEquipment(int equipmentIdx) {
+            final IndexedHeap ready = readyHeaps[equipmentIdx];
+            final IndexedHeap pending = pendingHeaps[equipmentIdx];
+            final double freeTime = equipmentFreeTimes[equipmentIdx];
+
+            while (!pending.isEmpty() && studentsElapsedTimes[pending.peek()] <= freeTime) {
+                final int student = pending.peek();
+
+                pending.remove(student);
+                ready.add(student);
+            }
+
+            if (ready.isEmpty() && pending.isEmpty()) {
+                if (equipmentHeap.contains(equipmentIdx))
+                    equipmentHeap.remove(equipmentIdx);
+
+                return;
+            }
+
+            int best = -1;
+            double bestTime = Double.MAX_VALUE;
+
+            if (!ready.isEmpty()) {
+                best = ready.peek();
+                bestTime = freeTime + shifts[best];
+            }
+
+            if (!pending.isEmpty()) {
+                final int student = pending.peek();
+                final double time = studentsElapsedTimes[student] + shifts[student];
+
+                if (best < 0 || isBefore(time, priorities[student], student, bestTime, priorities[best], best)) {
+                    best = student;
+                    bestTime = time;
+                }
+            }
+
+            bestStudents[equipmentIdx] = best;
+            bestTimes[equipmentIdx] = bestTime;
+
+            if (equipmentHeap.contains(equipmentIdx))
+                equipmentHeap.update(equipmentIdx);
+            else
+                equipmentHeap.add(equipmentIdx);
+        }
+
+        /**
+         * Schedules the best candidate and replaces it by the next exercise of its
+         * student.
+         *
+         * @return kernel exercise index of the scheduled exercise
+         */
+        int scheduleNext() {
+            final int equipmentIdx = equipmentHeap.peek();
+            final int student = bestStudents[equipmentIdx];
+            final int exercise = kernel.sheetOffsets[student] + studentProgress[student];
+            final double finishTime = Math.max(equipmentFreeTimes[equipmentIdx], studentsElapsedTimes[student])
+                    + kernel.durations[exercise];
+
+            if (readyHeaps[equipmentIdx].contains(student))
+                readyHeaps[equipmentIdx].remove(student);
+            else
+                pendingHeaps[equipmentIdx].remove(student);
+
+            equipmentFreeTimes[equipmentIdx] = finishTime;
+            studentsElapsedTimes[student] = finishTime;
+            studentProgress[student]++;
+            addCandidate(student);
+            refreshEquipment(equipmentIdx);
+
+            if (exercise + 1 < kernel.sheetOffsets[student + 1] && kernel.equipments[exercise + 1] != equipmentIdx)
+                refreshEquipment(kernel.equipments[exercise + 1]);
+
+            return exercise;
+        }
+    }
+
+    /**
+     * Builds the approximate heuristic schedule with the default rule.
+     *
+     * @param kernel compact academy representation
+     * @return kernel exercise indexes in schedule order
+     */
+    private static int[] buildApproximateSchedule(ScheduleKernel kernel) {
+        return buildApproximateSchedule(kernel, DispatchRule.EARLIEST_START);
+    }
+
+    /**
+     * Builds the approximate heuristic schedule: at every step, the next exercise
+     * of one student is placed, chosen by the dispatch rule. Ready times are kept
+     * incrementally and the candidates sit on heaps, so a step costs O(log n)
+     * amortized instead of a simulation per candidate.
+     *
+     * @param kernel compact academy representation
+     * @param rule   dispatch rule choosing the next exercise
+     * @return kernel exercise indexes in schedule order
+     */
+    private static int[] buildApproximateSchedule(ScheduleKernel kernel, DispatchRule rule) {
+        return buildApproximateSchedule(kernel, rule, new double[kernel.M], new double[kernel.N]);
+    }
+
+    /**
+     * Builds the approximate heuristic schedule of exercises that cannot start
+     * before some equipment and students get free.
+     *
+     * @param kernel              compact academy representation
+     * @param rule                dispatch rule choosing the next exercise
+     * @param equipmentReadyTimes time each equipment gets free
+     * @param studentReadyTimes   time each student gets free
+     * @return kernel exercise indexes in schedule order
+     */
+    private static int[] buildApproximateSchedule(ScheduleKernel kernel, DispatchRule rule,
+            double[] equipmentReadyTimes, double[] studentReadyTimes) {
+        final int[] approximateSchedule = new int[kernel.n];
+        final DispatchQueue queue = new DispatchQueue(kernel, rule, equipmentReadyTimes.clone(),
+                studentReadyTimes.clone());
+
+        for (int length = 0; length < kernel.n; length++)
+            approximateSchedule[length] = queue.scheduleNext();
+
+        return approximateSchedule;
+    }
+
+    /**
+     * Builds the approximate heuristic schedule of every dispatch rule and keeps
+     * the shortest one.
+     *
+     * @param kernel compact academy representation
+     * @return kernel exercise indexes in schedule order
+     */
+    private static int[] buildBestApproximateSchedule(ScheduleKernel kernel) {
+        final double[] equipmentFreeTimes = new double[kernel.M];
+        final double[] studentsElapsedTimes = new double[kernel.N];
+        int[] bestSchedule = null;
+        double bestMakespan = Double.MAX_VALUE;
+
+        for (DispatchRule rule : DispatchRule.values()) {
+            final int[] schedule = buildApproximateSchedule(kernel, rule);
+            final double makespan = simulateSchedule(kernel, schedule, kernel.n, equipmentFreeTimes,
+                    studentsElapsedTimes);
+
+            if (bestSchedule == null || makespan < bestMakespan) {
+                bestSchedule = schedule;
+                bestMakespan = makespan;
+            }
+        }
+
+        return bestSchedule;
+    }
+
+    /**
+     * Calculates the tie-break of a candidate among the ones with the same time,
+     * lower goes first.
+     *
+     * @param kernel   compact academy representation
+     * @param rule     dispatch rule
+     * @param exercise candidate kernel exercise index
+     * @return the tie-break used to order candidates with the same time
+     */
+    private static double dispatchPriority(ScheduleKernel kernel, DispatchRule rule, int exercise) {
+        switch (rule) {
+            case SPT:
+                return kernel.durations[exercise];
+            case LPT:
+                return -kernel.durations[exercise];
+            case MWKR:
+                return -kernel.sheetTails[exercise];
+            default:
+                return 0.0;
+        }
+    }
+
+    /**
+     * Controls approximate heuristic processing
+     *
+     * @param academy receives an Academy object generated from the read file
+     * @param rule    dispatch rule choosing the next exercise
+     * @return a list of exercises that represents the optimal solution
+     */
+    private static List<Exercise> approximateHeuristic(Academy academy, DispatchRule rule) {
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final int[] approximateSchedule = buildApproximateSchedule(kernel, rule);
+        final List<Exercise> approximateSolution = kernel.toExercises(approximateSchedule, kernel.n);
+        final double minTime = simulateSchedule(academy.M, approximateSolution);
+
+        System.out.printf("\nApproximate Heuristic lowest time: %.2f minutes%n", minTime);
+        System.out.println("Optimal sequence solution:");
+
+        for (Exercise exercise : approximateSolution)
+            System.out.println("> " + exercise);
+
+        return approximateSolution;
+    }
+    // endregion
+
+    // region Event simulation
+
+    /**
+     * Kind of schedule built by the Giffler-Thompson generation.
+     */
+    private enum ScheduleKind {
+        /** No exercise can start earlier without delaying another one; a unit may wait for a preferred exercise. */
+        ACTIVE,
+        /** No unit stays idle while an exercise waits for its equipment. */
+        NON_DELAY
+    }
+
+    /**
+     * Calculates the makespan of a schedule given as kernel exercise indexes.
+     */
+    private interface ScheduleEvaluator {
+        /**
+         * @param schedule kernel exercise indexes in schedule order
+         * @param length   number of scheduled exercises
+         * @return minutes duration in double
+         */
+        double evaluate(int[] schedule, int length);
+    }
+
+    /**
+     * Simulation of an academy whose equipment have several identical units.
+     * <p>
+     * {@link #evaluate} places a schedule in list order, like simulateSchedule,
+     * each exercise on a unit of its equipment, so any solver working on schedule
+     * arrays can use it as its evaluator. With one unit per equipment both give
+     * the same start times.
+     * <p>
+     * {@link #generate} builds a schedule in the style of Giffler and Thompson.
+     * Every student offers its next exercise to its equipment. The event queue
+     * holds, for each equipment with candidates, the time of its next decision:
+     * the earliest start of its candidates in a non-delay schedule, their earliest
+     * finish in an active one. The equipment of the earliest event picks, among
+     * the candidates that can start before that time, the one preferred by the
+     * dispatch rule. SPT, LPT and MWKR compare durations or remaining work first,
+     * EARLIEST_START and EARLIEST_FINISH compare times. Candidates sit on heaps,
+     * split like in DispatchQueue into ready and pending ones, so a decision
+     * costs O(log N) plus the pending candidates inside its window.
+     * <p>
+     * An exercise takes the unit freed last among the ones already free when it
+     * can start, so earlier units stay available, or else the unit freed first.
+     * Units are few, so they are scanned.
+     */
+    private static class EventSimulator implements ScheduleEvaluator {
+        final ScheduleKernel kernel;
+        final int[] unitOffsets; // Units of equipment m are [unitOffsets[m], unitOffsets[m + 1])
+        final double[] unitFreeTimes; // Time each unit gets free
+        final double[] equipmentFreeTimes; // Time the first unit of each equipment gets free
+        final double[] studentReadyTimes; // Time each student gets free
+        final double[] startTimes; // Start time of each exercise in the last simulated schedule
+        final int[] exerciseUnits; // Unit of each exercise in the last simulated schedule
+        // Generation state
+        DispatchRule rule = DispatchRule.EARLIEST_START;
+        ScheduleKind kind = ScheduleKind.ACTIVE;
+        final int[] studentProgress;
+        final double[] ranks; // Rule rank of each candidate, lower goes first
+        final double[] candidateDurations;
+        final IndexedHeap[] readyByRank;
+        final IndexedHeap[] readyByDuration;
+        final IndexedHeap[] pendingByArrival;
+        final IndexedHeap[] pendingByFinish;
+        final double[] earliestStarts; // Earliest start among the candidates of each equipment
+        final double[] eventTimes; // Next decision time of each equipment
+        final IndexedHeap events;
+        final int[] conflictStack; // Scratch stack walking the pending heap
+
+        /**
+         * @param kernel compact academy representation
+         * @param units  number of units of each equipment, at least one
+         */
+        EventSimulator(ScheduleKernel kernel, int[] units) {
+            if (units.length != kernel.M)
+                throw new IllegalArgumentException("Expected the units of " + kernel.M + " equipment");
+
+            this.kernel = kernel;
+            this.unitOffsets = new int[kernel.M + 1];
+
+            for (int m = 0; m < kernel.M; m++) {
+                if (units[m] < 1)
+                    throw new IllegalArgumentException("Equipment " + (m + 1) + " needs at least one unit");
+
+                unitOffsets[m + 1] = unitOffsets[m] + units[m];
+            }
+
+            this.unitFreeTimes = new double[unitOffsets[kernel.M]];
+            this.equipmentFreeTimes = new double[kernel.M];
+            this.studentReadyTimes = new double[kernel.N];
+            this.startTimes = new double[kernel.n];
+            this.exerciseUnits = new int[kernel.n];
+            this.studentProgress = new int[kernel.N];
+            this.ranks = new double[kernel.N];
+            this.candidateDurations = new double[kernel.N];
+            this.readyByRank = new IndexedHeap[kernel.M];
+            this.readyByDuration = new IndexedHeap[kernel.M];
+            this.pendingByArrival = new IndexedHeap[kernel.M];
+            this.pendingByFinish = new IndexedHeap[kernel.M];
+            this.earliestStarts = new double[kernel.M];
+            this.eventTimes = new double[kernel.M];
+            this.conflictStack = new int[kernel.N + 1];
+
+            final int[][] positions = new int[4][kernel.N];
+            final int[] eventPositions = new int[kernel.M];
+
+            for (int[] heapPositions : positions)
+                Arrays.fill(heapPositions, -1);
+
+            Arrays.fill(eventPositions, -1);
+
+            final HeapOrder rankOrder = (a, b) -> ranks[a] != ranks[b] ? ranks[a] < ranks[b] : a < b;
+            final HeapOrder durationOrder = (a, b) -> candidateDurations[a] != candidateDurations[b]
+                    ? candidateDurations[a] < candidateDurations[b] : a < b;
+            final HeapOrder arrivalOrder = (a, b) -> studentReadyTimes[a] != studentReadyTimes[b]
+                    ? studentReadyTimes[a] < studentReadyTimes[b] : a < b;
+            final HeapOrder finishOrder = (a, b) -> {
+                final double finishA = studentReadyTimes[a] + candidateDurations[a];
+                final double finishB = studentReadyTimes[b] + candidateDurations[b];
+
+                return finishA != finishB ? finishA < finishB : a < b;
+            };
+
+            for (int m = 0; m < kernel.M; m++) {
+                readyByRank[m] = new IndexedHeap(positions[0], rankOrder);
+                readyByDuration[m] = new IndexedHeap(positions[1], durationOrder);
+                pendingByArrival[m] = new IndexedHeap(positions[2], arrivalOrder);
+                pendingByFinish[m] = new IndexedHeap(positions[3], finishOrder);
+            }
+
+            this.events = new IndexedHeap(eventPositions,
+                    (a, b) -> eventTimes[a] != eventTimes[b] ? eventTimes[a] < eventTimes[b] : a < b);
+        }
+
+        /**
+         * Returns the largest equipment load divided by its units or student sheet
+         * duration, which no schedule can finish before.
+         *
+         * @return lower bound of the makespan in minutes
+         */
+        double loadLowerBound() {
+            final double[] equipmentLoads = new double[kernel.M];
+            double lowerBound = 0.0;
+
+            for (int i = 0; i < kernel.n; i++)
+                equipmentLoads[kernel.equipments[i]] += kernel.durations[i];
+
+            for (int m = 0; m < kernel.M; m++)
+                lowerBound = Math.max(lowerBound, equipmentLoads[m] / (unitOffsets[m + 1] - unitOffsets[m]));
+
+            for (int s = 0; s < kernel.N; s++)
+                lowerBound = Math.max(lowerBound, kernel.remainingWork(s, 0));
+
+            return lowerBound;
+        }
+
+        private void reset() {
+            Arrays.fill(unitFreeTimes, 0.0);
+            Arrays.fill(equipmentFreeTimes, 0.0);
+            Arrays.fill(studentReadyTimes, 0.0);
+            Arrays.fill(studentProgress, 0);
+        }
+
+        /**
+         * Picks the unit an exercise of an equipment runs on when its student is
+         * ready at a given time.
+         *
+         * @param equipmentIdx zero-based equipment index
+         * @param readyTime    time the student gets free
+         * @return the unit index
+         */
+        private int pickUnit(int equipmentIdx, double readyTime) {
+            int freeUnit = -1;
+            int firstUnit = unitOffsets[equipmentIdx];
+
+            for (int unit = unitOffsets[equipmentIdx]; unit < unitOffsets[equipmentIdx + 1]; unit++) {
+                final double freeTime = unitFreeTimes[unit];
+
+                if (freeTime <= readyTime && (freeUnit < 0 || freeTime > unitFreeTimes[freeUnit]))
+                    freeUnit = unit;
+                if (freeTime < unitFreeTimes[firstUnit])
+                    firstUnit = unit;
+            }
+
+            return freeUnit >= 0 ? freeUnit : firstUnit;
+        }
+
+        /**
+         * Places an exercise on the unit chosen for it.
+         *
+         * @param exercise kernel exercise index
+         * @return the finish time of the exercise
+         */
+        private double place(int exercise) {
+            final int equipmentIdx = kernel.equipments[exercise];
+            final int student = kernel.exerciseStudents[exercise];
+            final int unit = pickUnit(equipmentIdx, studentReadyTimes[student]);
+            final double startTime = Math.max(unitFreeTimes[unit], studentReadyTimes[student]);
+            final double finishTime = startTime + kernel.durations[exercise];
+            double freeTime = Double.MAX_VALUE;
+
+            startTimes[exercise] = startTime;
+            exerciseUnits[exercise] = unit;
+            unitFreeTimes[unit] = finishTime;
+            studentReadyTimes[student] = finishTime;
+
+            for (int u = unitOffsets[equipmentIdx]; u < unitOffsets[equipmentIdx + 1]; u++)
+                freeTime = Math.min(freeTime, unitFreeTimes[u]);
+
+            equipmentFreeTimes[equipmentIdx] = freeTime;
+            return finishTime;
+        }
+
+        @Override
+        public double evaluate(int[] schedule, int length) {
+            double makespan = 0.0;
+
+            reset();
+
+            for (int i = 0; i < length; i++)
+                makespan = Math.max(makespan, place(schedule[i]));
+
+            return makespan;
+        }
+
+        /**
+         * Builds a schedule with the Giffler-Thompson generation.
+         *
+         * @param rule     dispatch rule choosing among the conflicting exercises
+         * @param kind     active or non-delay schedule
+         * @param schedule target array, filled with the kernel exercise indexes in
+         *                 the order they were placed
+         * @return minutes duration in double
+         */
+        double generate(DispatchRule rule, ScheduleKind kind, int[] schedule) {
+            double makespan = 0.0;
+
+            this.rule = rule;
+            this.kind = kind;
+            reset();
+
+            for (int student = 0; student < kernel.N; student++)
+                addCandidate(student);
+
+            for (int m = 0; m < kernel.M; m++)
+                refreshEquipment(m);
+
+            for (int length = 0; length < kernel.n; length++) {
+                final int equipmentIdx = events.peek();
+                final int student = chooseCandidate(equipmentIdx);
+                final int exercise = kernel.sheetOffsets[student] + studentProgress[student];
+
+                if (readyByRank[equipmentIdx].contains(student)) {
+                    readyByRank[equipmentIdx].remove(student);
+                    readyByDuration[equipmentIdx].remove(student);
+                } else {
+                    pendingByArrival[equipmentIdx].remove(student);
+                    pendingByFinish[equipmentIdx].remove(student);
+                }
+
+                makespan = Math.max(makespan, place(exercise));
+                schedule[length] = exercise;
+                studentProgress[student]++;
+                addCandidate(student);
+                refreshEquipment(equipmentIdx);
+
+                if (exercise + 1 < kernel.sheetOffsets[student + 1] && kernel.equipments[exercise + 1] != equipmentIdx)
+                    refreshEquipment(kernel.equipments[exercise + 1]);
+            }
+
+            return makespan;
+        }
+
+        /**
+         * Offers the next exercise of a student to its equipment, if it has one left.
+         */
+        private void addCandidate(int student) {
+            final int exercise = kernel.sheetOffsets[student] + studentProgress[student];
+
+            if (exercise >= kernel.sheetOffsets[student + 1])
+                return;
+
+            final int equipmentIdx = kernel.equipments[exercise];
+
+            candidateDurations[student] = kernel.durations[exercise];
+            ranks[student] = rule == DispatchRule.EARLIEST_START ? 0.0
+                    : rule == DispatchRule.EARLIEST_FINISH ? kernel.durations[exercise]
+                            : dispatchPriority(kernel, rule, exercise);
+
+            if (studentReadyTimes[student] <= equipmentFreeTimes[equipmentIdx]) {
+                readyByRank[equipmentIdx].add(student);
+                readyByDuration[equipmentIdx].add(student);
+            } else {
+                pendingByArrival[equipmentIdx].add(student);
+                pendingByFinish[equipmentIdx].add(student);
+            }
+        }
+
+        /**
+         * Moves the candidates of an equipment whose student became free to ready
+         * and re-keys the equipment on the event queue.
+         */
+        private void refreshEquipment(int equipmentIdx) {
+            final IndexedHeap pending = pendingByArrival[equipmentIdx];
+            final double freeTime = equipmentFreeTimes[equipmentIdx];
+
+            while (!pending.isEmpty() && studentReadyTimes[pending.peek()] <= freeTime) {
+                final int student = pending.peek();
+
+                pending.remove(student);
+                pendingByFinish[equipmentIdx].remove(student);
+                readyByRank[equipmentIdx].add(student);
+                readyByDuration[equipmentIdx].add(student);
+            }
+
+            final IndexedHeap ready = readyByDuration[equipmentIdx];
+
+            if (ready.isEmpty() && pending.isEmpty()) {
+                if (events.contains(equipmentIdx))
+                    events.remove(equipmentIdx);
+
+                return;
+            }
+
+            earliestStarts[equipmentIdx] = !ready.isEmpty() ? freeTime : studentReadyTimes[pending.peek()];
+
+            if (kind == ScheduleKind.NON_DELAY) {
+                eventTimes[equipmentIdx] = earliestStarts[equipmentIdx];
+            } else {
+                double earliestFinish = Double.MAX_VALUE;
+
+                if (!ready.isEmpty())
+                    earliestFinish = freeTime + candidateDurations[ready.peek()];
+
+                if (!pending.isEmpty()) {
+                    final int student = pendingByFinish[equipmentIdx].peek();
+
+                    earliestFinish = Math.min(earliestFinish, studentReadyTimes[student] + candidateDurations[student]);
+                }
+
+                eventTimes[equipmentIdx] = earliestFinish;
+            }
+
+            if (events.contains(equipmentIdx))
+                events.update(equipmentIdx);
+            else
+                events.add(equipmentIdx);
+        }
+
+        /**
+         * Picks the exercise the equipment of the earliest event runs next, among
+         * the ready candidates and the pending ones that arrive inside the window.
+         * The pending heap is walked from its root, skipping the subtrees that
+         * arrive after the window.
+         *
+         * @param equipmentIdx equipment of the earliest event
+         * @return the student whose next exercise is chosen
+         */
+        private int chooseCandidate(int equipmentIdx) {
+            final IndexedHeap pending = pendingByArrival[equipmentIdx];
+            final double earliestStart = earliestStarts[equipmentIdx];
+            final double eventTime = eventTimes[equipmentIdx];
+            int best = readyByRank[equipmentIdx].isEmpty() ? -1 : readyByRank[equipmentIdx].peek();
+            double bestStart = equipmentFreeTimes[equipmentIdx];
+            int top = 0;
+
+            if (!pending.isEmpty())
+                conflictStack[top++] = 0;
+
+            while (top > 0) {
+                final int position = conflictStack[--top];
+                final int student = pending.heap[position];
+                final double readyTime = studentReadyTimes[student];
+
+                // Zero-duration exercises finish when they start, so the earliest start is always inside
+                if (readyTime > earliestStart && (kind == ScheduleKind.NON_DELAY || readyTime >= eventTime))
+                    continue;
+
+                if (best < 0 || isPreferred(student, readyTime, best, bestStart)) {
+                    best = student;
+                    bestStart = readyTime;
+                }
+
+                if (2 * position + 1 < pending.size)
+                    conflictStack[top++] = 2 * position + 1;
+                if (2 * position + 2 < pending.size)
+                    conflictStack[top++] = 2 * position + 2;
+            }
+
+            return best;
+        }
+
+        private boolean isPreferred(int studentA, double startA, int studentB, double startB) {
+            final boolean timed = rule == DispatchRule.EARLIEST_START || rule == DispatchRule.EARLIEST_FINISH;
+            final double keyA = timed ? startA + ranks[studentA] : ranks[studentA];
+            final double keyB = timed ? startB + ranks[studentB] : ranks[studentB];
+
+            if (keyA != keyB)
+                return keyA < keyB;
+            if (startA != startB)
+                return startA < startB;
+
+            return studentA < studentB;
+        }
+
+        /**
+         * Copies the start times of the last simulated schedule into its exercises.
+         *
+         * @param schedule kernel exercise indexes of the schedule
+         * @param solution Exercise objects of the same schedule, in the same order
+         */
+        void applyStartTimes(int[] schedule, List<Exercise> solution) {
+            for (int i = 0; i < solution.size(); i++)
+                solution.get(i).startTime = startTimes[schedule[i]];
+        }
+    }
+
+    /**
+     * Expands the units option into one count per equipment.
+     *
+     * @param units one count for every equipment, or one count per equipment
+     * @param M     equipment count
+     * @return number of units of each equipment
+     */
+    private static int[] expandEquipmentUnits(int[] units, int M) {
+        if (units.length == 1) {
+            final int[] expanded = new int[M];
+
+            Arrays.fill(expanded, units[0]);
+            return expanded;
+        }
+
+        if (units.length != M)
+            throw new IllegalArgumentException("Expected 1 or " + M + " equipment units, got " + units.length);
+
+        return units;
+    }
+
+    /**
+     * Controls Giffler-Thompson schedule generation
+     *
+     * @param academy receives an Academy object generated from the read file
+     * @param units   number of units of each equipment
+     * @param rule    dispatch rule choosing among the conflicting exercises
+     * @param kind    active or non-delay schedule
+     * @return a list of exercises that represents the generated solution
+     */
+    private static List<Exercise> handleScheduleGeneration(Academy academy, int[] units, DispatchRule rule,
+            ScheduleKind kind) {
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final EventSimulator simulator = new EventSimulator(kernel, units);
+        final int[] schedule = new int[kernel.n];
+        final double makespan = simulator.generate(rule, kind, schedule);
+        final List<Exercise> generatedSolution = kernel.toExercises(schedule, kernel.n);
+
+        simulator.applyStartTimes(schedule, generatedSolution);
+
+        System.out.printf("\nGiffler-Thompson %s schedule lowest time: %.2f minutes (lower bound %.2f)%n",
+                kind.name().toLowerCase().replace('_', '-'), makespan, simulator.loadLowerBound());
+        System.out.println("Optimal sequence solution:");
+
+        for (Exercise exercise : generatedSolution)
+            System.out.println("> " + exercise);
+
+        return generatedSolution;
+    }
+
+    /**
+     * Solves an academy whose equipment have several units. Only the solvers
+     * that evaluate whole schedules run: the brute force, with the event
+     * simulator as its evaluator, and the Giffler-Thompson generation. The exact
+     * solvers and the local search model one unit per equipment.
+     *
+     * @param academy academy read from the file
+     * @param options parsed command line options
+     * @throws IOException if a Gantt chart file cannot be written
+     */
+    private static void solveWithEquipmentUnits(Academy academy, CommandLineOptions options) throws IOException {
+        final int[] units = expandEquipmentUnits(options.equipmentUnits, academy.M);
+
+        long timeStart = System.nanoTime();
+        final List<Exercise> bruteForceSolution = handleBruteForcePermutation(academy.clone(), units);
+        final long bruteForceTime = System.nanoTime() - timeStart;
+
+        timeStart = System.nanoTime();
+        final List<Exercise> generatedSolution = handleScheduleGeneration(academy.clone(), units,
+                options.dispatchRule, options.scheduleKind);
+        final long generationTime = System.nanoTime() - timeStart;
+
+        System.out.println("\nBrute-Force Time: " + (bruteForceTime / 1_000_000.0) + " milissegundos");
+        System.out.println("Giffler-Thompson Time: " + (generationTime / 1_000_000.0) + " milissegundos");
+
+        presentGanttCharts(options, new ArrayList<>(Arrays.asList("Brute-Force", "Giffler-Thompson")),
+                new ArrayList<>(Arrays.asList(bruteForceSolution, generatedSolution)));
+    }
+    // endregion
+
+    // region Local Search
+
+    /**
+     * Metaheuristic driving the local search.
+     */
+    private enum LocalSearchMethod {
+        /** Applies the best of a sample of moves, recently moved exercises stay put for a while. */
+        TABU,
+        /** Simulated annealing, worse moves are accepted with a probability that cools down over time. */
+        ANNEALING
+    }
+
+    /**
+     * Local search tuning parameters.
+     */
+    private static class LocalSearchSettings {
+        LocalSearchMethod method = LocalSearchMethod.TABU;
+        long timeLimitMillis = 1000; // Wall-clock budget of every restart
+        int restarts = Runtime.getRuntime().availableProcessors();
+        long seed = 0;
+        int window = 32; // Largest distance between the two positions of a move
+        int candidates = 16; // Moves sampled per tabu iteration
+        int tabuTenure = 10; // Iterations during which a moved exercise may not move again
+        SolverMetrics metrics = null; // Filled by the restarts when not null
+    }
+
+    /**
+     * Best schedule found by the local search.
+     */
+    private static class LocalSearchResult {
+        final int[] schedule;
+        final double makespan;
+        final double initialMakespan;
+        final long evaluatedMoves;
+
+        LocalSearchResult(int[] schedule, double makespan, double initialMakespan, long evaluatedMoves) {
+            this.schedule = schedule;
+            this.makespan = makespan;
+            this.initialMakespan = initialMakespan;
+            this.evaluatedMoves = evaluatedMoves;
+        }
+    }
+
+    /**
+     * Kind of a local search move on the positions first to last of the schedule.
+     */
+    private enum MoveKind {
+        /** Exchanges the students at both positions. */
+        SWAP,
+        /** Moves the student at the first position to the last one. */
+        FORWARD_INSERT,
+        /** Moves the student at the last position to the first one. */
+        BACKWARD_INSERT
+    }
+
+    /**
+     * Schedule improved by moves on its student sequence: each position holds the
+     * student of the exercise placed there, and the k-th appearance of a student
+     * is its k-th sheet exercise, so any rearrangement keeps every sheet in order.
+     * <p>
+     * Moves are evaluated incrementally. The equipment free times are kept every
+     * CHECKPOINT_INTERVAL positions, so the simulation resumes from the checkpoint
+     * before the move, and it stops as soon as every equipment and student gets
+     * free at the same time as before the move, since the rest of the schedule is
+     * then unchanged. The latest finish time of each block between checkpoints
+     * gives the makespan of the untouched parts.
+     */
+    private static class LocalSearch {
+        private static final int CHECKPOINT_INTERVAL = 128;
+        private static final int CRITICAL_PATH_REFRESH = 32;
+        final ScheduleKernel kernel;
+        final int[] students; // Student of each position
+        final int[] schedule; // Kernel exercise index of each position
+        final double[] finishTimes; // Finish time of each exercise
+        final double[] checkpoints; // Equipment free times before every CHECKPOINT_INTERVAL positions
+        final double[] blockMaxima; // Latest finish time of each block
+        final double[] blockPrefixMaxima; // Latest finish time before each block
+        final double[] blockSuffixMaxima; // Latest finish time from each block on
+        double makespan;
+        double totalFinishTime; // Sum of the finish times, tells apart schedules with the same makespan
+        long evaluatedMoves;
+        SolverMetrics metrics; // Null unless metrics are collected
+
+        // Critical path, refreshed when the makespan changes and every CRITICAL_PATH_REFRESH applied moves
+        final int[] criticalPositions;
+        final int[] criticalMarks; // Exercises known to be critical, when == criticalStamp
+        final boolean[] equipmentWaiting; // The previous exercise on the equipment is critical if it is tight
+        final double[] waitingFinishTimes;
+        final double[] waitingDurations;
+        int criticalCount;
+        int criticalStamp;
+        int movesSinceCriticalPath;
+
+        // Staged move and its evaluation
+        final int[] moveStudents;
+        final int[] moveExercises;
+        final double[] trialFinishTimes;
+        final int[] trialStamps; // trialFinishTimes[i] belongs to the evaluation when trialStamps[i] == stamp
+        final int[] studentCursors;
+        final int[] studentStamps;
+        final int[] studentChanges; // Students free at another time than before the move, when == stamp
+        final int[] equipmentChanges; // Same for the equipment
+        final double[] equipmentFreeTimes;
+        final double[] previousFreeTimes;
+        int stamp;
+        MoveKind moveKind;
+        int moveFirst;
+        int moveLast;
+        int trialLast; // Last position simulated by the evaluation
+        double trialMakespan;
+        double trialTotalFinishTime;
+
+        LocalSearch(ScheduleKernel kernel, int[] initialSchedule, int window) {
+            final int blockCount = (kernel.n + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL;
+
+            this.kernel = kernel;
+            this.students = new int[kernel.n];
+            this.schedule = Arrays.copyOf(initialSchedule, kernel.n);
+            this.finishTimes = new double[kernel.n];
+            this.checkpoints = new double[blockCount * kernel.M];
+            this.blockMaxima = new double[blockCount];
+            this.blockPrefixMaxima = new double[blockCount];
+            this.blockSuffixMaxima = new double[blockCount + 1];
+            this.moveStudents = new int[window + 1];
+            this.moveExercises = new int[window + 1];
+            this.trialFinishTimes = new double[kernel.n];
+            this.trialStamps = new int[kernel.n];
+            this.studentCursors = new int[kernel.N];
+            this.studentStamps = new int[kernel.N];
+            this.studentChanges = new int[kernel.N];
+            this.equipmentChanges = new int[kernel.M];
+            this.equipmentFreeTimes = new double[kernel.M];
+            this.previousFreeTimes = new double[kernel.M];
+            this.criticalPositions = new int[kernel.n];
+            this.criticalMarks = new int[kernel.n];
+            this.equipmentWaiting = new boolean[kernel.M];
+            this.waitingFinishTimes = new double[kernel.M];
+            this.waitingDurations = new double[kernel.M];
+
+            for (int p = 0; p < kernel.n; p++)
+                students[p] = kernel.exerciseStudents[schedule[p]];
+
+            Arrays.fill(equipmentFreeTimes, 0.0);
+
+            for (int p = 0; p < kernel.n; p++) {
+                final int exercise = schedule[p];
+                final int equipmentIdx = kernel.equipments[exercise];
+                final double studentReadyTime = exercise == kernel.sheetOffsets[students[p]] ? 0.0
+                        : finishTimes[exercise - 1];
+                final double finishTime = Math.max(equipmentFreeTimes[equipmentIdx], studentReadyTime)
+                        + kernel.durations[exercise];
+
+                finishTimes[exercise] = finishTime;
+                equipmentFreeTimes[equipmentIdx] = finishTime;
+                makespan = Math.max(makespan, finishTime);
+                totalFinishTime += finishTime;
+            }
+
+            refreshBlocks(0, blockCount - 1);
+            findCriticalPath();
+        }
+
+        /**
+         * Finds the positions of a critical path: a chain of exercises, each one
+         * starting as the previous one on its sheet or equipment finishes, that ends
+         * at the makespan. Only moving its exercises can shorten the schedule. The
+         * schedule is swept backwards once, and an exercise is tight with the one
+         * after it when its finish time plus the duration of that one gives the
+         * finish time of that one, exactly as simulated.
+         */
+        void findCriticalPath() {
+            boolean found = false;
+
+            criticalCount = 0;
+            criticalStamp++;
+            movesSinceCriticalPath = 0;
+            Arrays.fill(equipmentWaiting, false);
+
+            for (int p = kernel.n - 1; p >= 0; p--) {
+                final int exercise = schedule[p];
+                final int equipmentIdx = kernel.equipments[exercise];
+                final double finishTime = finishTimes[exercise];
+                final double duration = kernel.durations[exercise];
+                boolean critical = criticalMarks[exercise] == criticalStamp;
+
+                if (equipmentWaiting[equipmentIdx]) {
+                    equipmentWaiting[equipmentIdx] = false;
+                    critical |= finishTime + waitingDurations[equipmentIdx] == waitingFinishTimes[equipmentIdx];
+                }
+
+                if (!found && finishTime == makespan) {
+                    found = true;
+                    critical = true;
+                }
+
+                if (!critical)
+                    continue;
+
+                criticalPositions[criticalCount++] = p;
+
+                if (finishTime == duration)
+                    continue;
+
+                final boolean studentTight = exercise != kernel.sheetOffsets[students[p]]
+                        && finishTimes[exercise - 1] + duration == finishTime;
+
+                if (studentTight) {
+                    criticalMarks[exercise - 1] = criticalStamp;
+                } else {
+                    equipmentWaiting[equipmentIdx] = true;
+                    waitingFinishTimes[equipmentIdx] = finishTime;
+                    waitingDurations[equipmentIdx] = duration;
+                }
+            }
+        }
+
+        /**
+         * Recomputes the checkpoints and latest finish times of a range of blocks
+         * from the finish times, then the prefix and suffix maxima of all blocks.
+         */
+        private void refreshBlocks(int fromBlock, int toBlock) {
+            final int M = kernel.M;
+            final int end = Math.min(kernel.n, (toBlock + 1) * CHECKPOINT_INTERVAL);
+
+            System.arraycopy(checkpoints, fromBlock * M, equipmentFreeTimes, 0, M);
+
+            for (int block = fromBlock; block <= toBlock; block++) {
+                final int blockEnd = Math.min(end, (block + 1) * CHECKPOINT_INTERVAL);
+                double latest = 0.0;
+
+                if (block > fromBlock)
+                    System.arraycopy(equipmentFreeTimes, 0, checkpoints, block * M, M);
+
+                for (int p = block * CHECKPOINT_INTERVAL; p < blockEnd; p++) {
+                    final int exercise = schedule[p];
+
+                    equipmentFreeTimes[kernel.equipments[exercise]] = finishTimes[exercise];
+                    latest = Math.max(latest, finishTimes[exercise]);
+                }
+
+                blockMaxima[block] = latest;
+            }
+
+            for (int block = 1; block < blockMaxima.length; block++)
+                blockPrefixMaxima[block] = Math.max(blockPrefixMaxima[block - 1], blockMaxima[block - 1]);
+
+            for (int block = blockMaxima.length - 1; block >= 0; block--)
+                blockSuffixMaxima[block] = Math.max(blockSuffixMaxima[block + 1], blockMaxima[block]);
+        }
+
+        /**
+         * Stages a move on the positions first to last, both included.
+         *
+         * @return false when the move would leave the schedule unchanged
+         */
+        boolean prepareMove(MoveKind kind, int first, int last) {
+            final int length = last - first + 1;
+
+            switch (kind) {
+                case SWAP:
+                    if (students[first] == students[last])
+                        return false;
+
+                    System.arraycopy(students, first, moveStudents, 0, length);
+                    moveStudents[0] = students[last];
+                    moveStudents[length - 1] = students[first];
+                    break;
+                case FORWARD_INSERT:
+                    if (students[first] == students[first + 1])
+                        return false;
+
+                    System.arraycopy(students, first + 1, moveStudents, 0, length - 1);
+                    moveStudents[length - 1] = students[first];
+                    break;
+                default:
+                    if (students[last] == students[last - 1])
+                        return false;
+
+                    moveStudents[0] = students[last];
+                    System.arraycopy(students, first, moveStudents, 1, length - 1);
+            }
+
+            moveKind = kind;
+            moveFirst = first;
+            moveLast = last;
+            return true;
+        }
+
+        private double finishTime(int exercise) {
+            return trialStamps[exercise] == stamp ? trialFinishTimes[exercise] : finishTimes[exercise];
+        }
+
+        /**
+         * Evaluates the staged move, setting trialMakespan and trialTotalFinishTime.
+         */
+        void evaluateMove() {
+            final boolean timed = metrics != null && metrics.countSimulation();
+            final long timeStart = timed ? System.nanoTime() : 0;
+            final int[] equipments = kernel.equipments;
+            final int[] exerciseStudents = kernel.exerciseStudents;
+            final int first = moveFirst;
+            final int last = moveLast;
+            final int block = first / CHECKPOINT_INTERVAL;
+            double latest = blockPrefixMaxima[block];
+
+            stamp++;
+            evaluatedMoves++;
+            System.arraycopy(checkpoints, block * kernel.M, equipmentFreeTimes, 0, kernel.M);
+
+            for (int p = block * CHECKPOINT_INTERVAL; p < first; p++) {
+                final int exercise = schedule[p];
+
+                equipmentFreeTimes[equipments[exercise]] = finishTimes[exercise];
+                latest = Math.max(latest, finishTimes[exercise]);
+            }
+
+            System.arraycopy(equipmentFreeTimes, 0, previousFreeTimes, 0, kernel.M);
+
+            // The exercises of the moved positions are dealt again to their students in the new order
+            for (int p = first; p <= last; p++) {
+                if (studentStamps[students[p]] != stamp) {
+                    studentStamps[students[p]] = stamp;
+                    studentCursors[students[p]] = schedule[p];
+                }
+            }
+
+            for (int k = 0; k <= last - first; k++)
+                moveExercises[k] = studentCursors[moveStudents[k]]++;
+
+            double total = totalFinishTime;
+            int changes = 0;
+            int p = first;
+
+            for (; p < kernel.n; p++) {
+                final int exercise = p <= last ? moveExercises[p - first] : schedule[p];
+                final int equipmentIdx = equipments[exercise];
+                final int student = exerciseStudents[exercise];
+                final double studentReadyTime = exercise == kernel.sheetOffsets[student] ? 0.0
+                        : finishTime(exercise - 1);
+                final double finishTime = Math.max(equipmentFreeTimes[equipmentIdx], studentReadyTime)
+                        + kernel.durations[exercise];
+
+                trialFinishTimes[exercise] = finishTime;
+                trialStamps[exercise] = stamp;
+                equipmentFreeTimes[equipmentIdx] = finishTime;
+                latest = Math.max(latest, finishTime);
+                total += finishTime - finishTimes[exercise];
+
+                if (p < last) {
+                    previousFreeTimes[equipments[schedule[p]]] = finishTimes[schedule[p]];
+                    continue;
+                }
+
+                if (p == last) {
+                    previousFreeTimes[equipments[schedule[p]]] = finishTimes[schedule[p]];
+                    changes = countChanges();
+                } else {
+                    // The same exercise was placed here before the move
+                    final boolean changed = finishTime != finishTimes[exercise];
+
+                    changes += updateChange(equipmentChanges, equipmentIdx, changed);
+                    changes += updateChange(studentChanges, student, changed);
+                }
+
+                if (changes == 0)
+                    break;
+            }
+
+            trialLast = Math.min(p, kernel.n - 1);
+            trialTotalFinishTime = total;
+
+            if (p < kernel.n) {
+                final int stopBlock = p / CHECKPOINT_INTERVAL;
+                final int blockEnd = Math.min(kernel.n, (stopBlock + 1) * CHECKPOINT_INTERVAL);
+
+                for (int q = p + 1; q < blockEnd; q++)
+                    latest = Math.max(latest, finishTimes[schedule[q]]);
+
+                latest = Math.max(latest, blockSuffixMaxima[stopBlock + 1]);
+            }
+
+            trialMakespan = latest;
+
+            if (timed)
+                metrics.recordSimulation(System.nanoTime() - timeStart);
+        }
+
+        /**
+         * Marks the equipment and students that get free at another time than
+         * before the move, once the moved positions are simulated.
+         *
+         * @return the number of marked equipment and students
+         */
+        private int countChanges() {
+            int changes = 0;
+
+            for (int equipmentIdx = 0; equipmentIdx < kernel.M; equipmentIdx++) {
+                if (equipmentFreeTimes[equipmentIdx] != previousFreeTimes[equipmentIdx]) {
+                    equipmentChanges[equipmentIdx] = stamp;
+                    changes++;
+                }
+            }
+
+            // Only the last moved exercise of each student matters
+            for (int k = 0; k <= moveLast - moveFirst; k++) {
+                final int exercise = moveExercises[k];
+                final int student = moveStudents[k];
+
+                if (exercise == studentCursors[student] - 1 && trialFinishTimes[exercise] != finishTimes[exercise]) {
+                    studentChanges[student] = stamp;
+                    changes++;
+                }
+            }
+
+            return changes;
+        }
+
+        private int updateChange(int[] changes, int index, boolean changed) {
+            final boolean wasChanged = changes[index] == stamp;
+
+            if (changed == wasChanged)
+                return 0;
+
+            changes[index] = changed ? stamp : 0;
+            return changed ? 1 : -1;
+        }
+
+        /**
+         * Applies the last evaluated move.
+         */
+        void applyMove() {
+            final int length = moveLast - moveFirst + 1;
+
+            System.arraycopy(moveStudents, 0, students, moveFirst, length);
+            System.arraycopy(moveExercises, 0, schedule, moveFirst, length);
+
+            for (int p = moveFirst; p <= trialLast; p++)
+                finishTimes[schedule[p]] = trialFinishTimes[schedule[p]];
+
+            final boolean makespanChanged = makespan != trialMakespan;
+
+            makespan = trialMakespan;
+            totalFinishTime = trialTotalFinishTime;
+            refreshBlocks(moveFirst / CHECKPOINT_INTERVAL, trialLast / CHECKPOINT_INTERVAL);
+
+            if (makespanChanged || ++movesSinceCriticalPath >= CRITICAL_PATH_REFRESH)
+                findCriticalPath();
+        }
+
+        /**
+         * Stages a random move of at most window positions. Half of the moves take
+         * an exercise of the critical path, the other half any exercise.
+         *
+         * @return false when the move would leave the schedule unchanged
+         */
+        boolean prepareRandomMove(Random random, int window) {
+            final int n = kernel.n;
+            int first;
+            int last;
+
+            if (criticalCount > 0 && random.nextBoolean()) {
+                final int position = criticalPositions[random.nextInt(criticalCount)];
+
+                if (position == 0 || position + 1 < n && random.nextBoolean()) {
+                    first = position;
+                    last = first + 1 + random.nextInt(Math.min(window, n - 1 - first));
+                } else {
+                    last = position;
+                    first = last - 1 - random.nextInt(Math.min(window, last));
+                }
+            } else {
+                first = random.nextInt(n - 1);
+                last = first + 1 + random.nextInt(Math.min(window, n - 1 - first));
+            }
+
+            return prepareMove(MOVE_KINDS[random.nextInt(MOVE_KINDS.length)], first, last);
+        }
+
+        /**
+         * Returns the exercise that the staged move takes out of its place.
+         */
+        int movedExercise() {
+            return schedule[moveKind == MoveKind.BACKWARD_INSERT ? moveLast : moveFirst];
+        }
+    }
+
+    private static final MoveKind[] MOVE_KINDS = MoveKind.values();
+
+    private static boolean isBetterSchedule(double makespan, double totalFinishTime, double otherMakespan,
+            double otherTotalFinishTime) {
+        if (makespan != otherMakespan)
+            return makespan < otherMakespan;
+
+        return totalFinishTime < otherTotalFinishTime;
+    }
+
+    /**
+     * Tabu search: every iteration applies the best of a sample of moves, even a
+     * worse one, unless it takes out of place an exercise moved during the last
+     * tabuTenure iterations and does not beat the best makespan.
+     *
+     * @param search     local search positioned on the initial schedule
+     * @param settings   local search settings
+     * @param random     random source of the restart
+     * @param deadline   System.nanoTime() value at which the search stops
+     * @param lowerBound makespan no schedule can beat, the search stops once it
+     *                   reaches it
+     * @return the best schedule found
+     */
+    private static int[] runTabuSearch(LocalSearch search, LocalSearchSettings settings, Random random,
+            long deadline, double lowerBound) {
+        final long[] tabuUntil = new long[search.kernel.n];
+        int[] bestSchedule = search.schedule.clone();
+        double bestMakespan = search.makespan;
+
+        for (long iteration = 1; bestMakespan > lowerBound && System.nanoTime() - deadline < 0; iteration++) {
+            MoveKind chosenKind = null;
+            int chosenFirst = 0;
+            int chosenLast = 0;
+            double chosenMakespan = Double.MAX_VALUE;
+            double chosenTotalFinishTime = Double.MAX_VALUE;
+
+            for (int candidate = 0; candidate < settings.candidates; candidate++) {
+                if (!search.prepareRandomMove(random, settings.window))
+                    continue;
+
+                search.evaluateMove();
+
+                if (tabuUntil[search.movedExercise()] > iteration && search.trialMakespan >= bestMakespan)
+                    continue;
+
+                if (isBetterSchedule(search.trialMakespan, search.trialTotalFinishTime, chosenMakespan,
+                        chosenTotalFinishTime)) {
+                    chosenKind = search.moveKind;
+                    chosenFirst = search.moveFirst;
+                    chosenLast = search.moveLast;
+                    chosenMakespan = search.trialMakespan;
+                    chosenTotalFinishTime = search.trialTotalFinishTime;
+                }
+            }
+
+            if (chosenKind == null)
+                continue;
+
+            search.prepareMove(chosenKind, chosenFirst, chosenLast);
+            tabuUntil[search.movedExercise()] = iteration + settings.tabuTenure;
+            search.evaluateMove();
+            search.applyMove();
+
+            if (search.makespan < bestMakespan) {
+                bestMakespan = search.makespan;
+                bestSchedule = search.schedule.clone();
+                recordIncumbent(settings.metrics, "Local Search", bestMakespan);
+            }
+        }
+
+        return bestSchedule;
+    }
+
+    /**
+     * Simulated annealing over random moves. The energy is the makespan plus the
+     * mean finish time, so moves that keep the makespan but free the schedule
+     * earlier are preferred. The temperature cools geometrically with the elapsed
+     * time, from half the mean exercise duration to a thousandth of it.
+     *
+     * @param search     local search positioned on the initial schedule
+     * @param settings   local search settings
+     * @param random     random source of the restart
+     * @param deadline   System.nanoTime() value at which the search stops
+     * @param lowerBound makespan no schedule can beat, the search stops once it
+     *                   reaches it
+     * @return the best schedule found
+     */
+    private static int[] runAnnealing(LocalSearch search, LocalSearchSettings settings, Random random,
+            long deadline, double lowerBound) {
+        final ScheduleKernel kernel = search.kernel;
+        final long timeStart = System.nanoTime();
+        final double duration = Math.max(1, deadline - timeStart);
+        double meanDuration = 0.0;
+
+        for (double exerciseDuration : kernel.durations)
+            meanDuration += exerciseDuration / kernel.n;
+
+        final double initialTemperature = Math.max(meanDuration, 1e-9) / 2;
+        int[] bestSchedule = search.schedule.clone();
+        double bestMakespan = search.makespan;
+        double temperature = initialTemperature;
+
+        for (long iteration = 0; bestMakespan > lowerBound; iteration++) {
+            if ((iteration & 63) == 0) {
+                final long now = System.nanoTime();
+
+                if (now - deadline >= 0)
+                    break;
+
+                temperature = initialTemperature * Math.pow(1e-3, (now - timeStart) / duration);
+            }
+
+            if (!search.prepareRandomMove(random, settings.window))
+                continue;
+
+            search.evaluateMove();
+
+            final double delta = search.trialMakespan - search.makespan
+                    + (search.trialTotalFinishTime - search.totalFinishTime) / kernel.n;
+
+            if (delta > 0 && random.nextDouble() >= Math.exp(-delta / temperature))
+                continue;
+
+            search.applyMove();
+
+            if (search.makespan < bestMakespan) {
+                bestMakespan = search.makespan;
+                bestSchedule = search.schedule.clone();
+                recordIncumbent(settings.metrics, "Local Search", bestMakespan);
+            }
+        }
+
+        return bestSchedule;
+    }
+
+    /**
+     * Runs the local search on several independent restarts in parallel. All of
+     * them start from the best approximate heuristic schedule among the dispatch
+     * rules, and each one uses its own random seed. Restarts stop as soon as
+     * they reach the certified lower bound, and none runs when the heuristic
+     * schedule already does.
+     *
+     * @param kernel   compact academy representation
+     * @param settings local search settings
+     * @param threads  number of worker threads
+     * @return the best schedule of all restarts
+     */
+    private static LocalSearchResult runLocalSearch(ScheduleKernel kernel, LocalSearchSettings settings,
+            int threads) {
+        final int[] initialSchedule = buildBestApproximateSchedule(kernel);
+        final double initialMakespan = simulateSchedule(kernel, initialSchedule, kernel.n, new double[kernel.M],
+                new double[kernel.N]);
+
+        recordIncumbent(settings.metrics, "Local Search", initialMakespan);
+
+        // No move changes the schedule without two exercises of different students
+        if (kernel.n < 2 || kernel.N < 2)
+            return new LocalSearchResult(initialSchedule, initialMakespan, initialMakespan, 0);
+
+        // None beats a schedule already at the lower bound either
+        final double lowerBound = certifyLowerBound(kernel).value;
+
+        if (initialMakespan <= lowerBound)
+            return new LocalSearchResult(initialSchedule, initialMakespan, initialMakespan, 0);
+
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        final List<ForkJoinTask<LocalSearchResult>> restarts = new ArrayList<>();
+        LocalSearchResult best = null;
+        long evaluatedMoves = 0;
+
+        try {
+            for (int restart = 0; restart < Math.max(1, settings.restarts); restart++) {
+                final long seed = settings.seed + restart;
+
+                restarts.add(pool.submit(() -> runLocalSearchRestart(kernel, initialSchedule, settings, seed,
+                        lowerBound)));
+            }
+
+            for (ForkJoinTask<LocalSearchResult> restart : restarts) {
+                final LocalSearchResult result = restart.join();
+
+                evaluatedMoves += result.evaluatedMoves;
+
+                if (best == null || result.makespan < best.makespan)
+                    best = result;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return new LocalSearchResult(best.schedule, best.makespan, initialMakespan, evaluatedMoves);
+    }
+
+    private static LocalSearchResult runLocalSearchRestart(ScheduleKernel kernel, int[] initialSchedule,
+            LocalSearchSettings settings, long seed, double lowerBound) {
+        final long deadline = System.nanoTime() + settings.timeLimitMillis * 1_000_000;
+        final long threadId = Thread.currentThread().getId();
+        final long allocationStart = settings.metrics == null ? 0 : threadAllocatedBytes(threadId);
+        final LocalSearch search = new LocalSearch(kernel, initialSchedule, Math.max(1, settings.window));
+        final double initialMakespan = search.makespan;
+        final Random random = new Random(seed);
+
+        search.metrics = settings.metrics;
+
+        final int[] bestSchedule = settings.method == LocalSearchMethod.TABU
+                ? runTabuSearch(search, settings, random, deadline, lowerBound)
+                : runAnnealing(search, settings, random, deadline, lowerBound);
+        final double makespan = simulateSchedule(kernel, bestSchedule, kernel.n, new double[kernel.M],
+                new double[kernel.N]);
+
+        if (settings.metrics != null) {
+            settings.metrics.nodes.add(search.evaluatedMoves);
+            settings.metrics.recordThreadAllocation(threadId, allocationStart);
+        }
+
+        return new LocalSearchResult(bestSchedule, makespan, initialMakespan, search.evaluatedMoves);
+    }
+
+    /**
+     * Controls local search processing
+     *
+     * @param academy  receives an Academy object generated from the read file
+     * @param settings local search settings
+     * @param threads  number of worker threads
+     * @return a list of exercises that represents the best solution found
+     */
+    private static List<Exercise> handleLocalSearch(Academy academy, LocalSearchSettings settings, int threads) {
+        final SolveEvent event = beginSolveEvent();
+        final ScheduleKernel kernel = new ScheduleKernel(academy);
+        final LocalSearchResult result = runLocalSearch(kernel, settings, threads);
+
+        finishSolveEvent(event, "Local Search", kernel.n, result.evaluatedMoves, 0, result.makespan, false);
+
+        if (settings.metrics != null)
+            settings.metrics.finish();
+        final List<Exercise> localSearchSolution = kernel.toExercises(result.schedule, kernel.n);
+
+        simulateSchedule(academy.M, localSearchSolution);
+
+        System.out.println("\nEvaluated Local Search moves count: " + result.evaluatedMoves + " ("
+                + Math.max(1, settings.restarts) + " restarts, " + threads + " threads)");
+        System.out.printf("Local Search lowest time: %.2f minutes (initial %.2f minutes)%n", result.makespan,
+                result.initialMakespan);
+        System.out.println("Optimal sequence solution:");
+
+        for (Exercise exercise : localSearchSolution)
+            System.out.println("> " + exercise);
+
+        return localSearchSolution;
+    }
+    // endregion
+
+    // region Incremental rescheduling
+
+    /**
+     * Scheduling state of one student inside an {@link IncrementalScheduler}.
+     */
+    private static class StudentTimeline {
+        final Student student;
+        int frozenCount = 0; // Exercises of its sheet already started
+        double availableTime = 0.0; // Time the student arrives
+        int walkStamp = 0; // Replay that last placed one of its exercises
+        int sheetIndex; // Sheet index of that exercise
+        int dirtyStamp = 0; // Replay in which it gets free at another time than before
+        int windowStamp = 0; // Window that last indexed it
+        int index; // Dense student index inside that window
+
+        StudentTimeline(Student student) {
+            this.student = student;
+        }
+    }
+
+    /**
+     * Keeps a schedule up to date while the day goes on. Every change (a student
+     * arriving, leaving or running late, an exercise taking longer, an equipment
+     * breaking down) is applied to the Academy and Student objects and repaired
+     * from the first exercise of the sequence it can move:
+     * <ol>
+     * <li>A window of exercises starting there is ordered again: its current order
+     * and the order of every dispatch rule are simulated on the window alone, and
+     * the one finishing it first is kept.</li>
+     * <li>The sequence is replayed from there, stopping as soon as every
+     * equipment and student gets free at the same time as before the change,
+     * since nothing after that point moves.</li>
+     * </ol>
+     * Exercises started before the clock are frozen and never move again.
+     */
+    private static class IncrementalScheduler {
+        final Academy academy;
+        final Map<Integer, StudentTimeline> timelines = new HashMap<>();
+        final List<Exercise> sequence; // Schedule order, the frozen exercises first
+        final double[] equipmentAvailableTimes; // Time each equipment is back online
+        final double[] frozenEquipmentTimes; // Finish time of the last frozen exercise on each equipment
+        final int[] waitingCounts; // Exercises not started yet on each equipment
+        int frozenCount = 0;
+        double currentTime = 0.0;
+        double makespan = 0.0;
+        boolean makespanStale = false; // The last exercise to finish moved earlier or left
+        int windowLength = 128; // Exercises ordered again after each change
+        int windowCount = 0;
+        int replayedCount = 0; // Start times computed again by the last change
+
+        // Replay scratch, indexed by equipment
+        final double[] equipmentReadyTimes; // Finish time of the last exercise before the replayed ones
+        final double[] lastFinishTimes;
+        final int[] walkStamps;
+        final int[] dirtyStamps;
+        int stamp = 0;
+        int dirtyCount = 0; // Equipment and students getting free at another time than before
+
+        /**
+         * @param academy  academy the changes are applied to
+         * @param schedule schedule of the academy exercises from any solver
+         */
+        IncrementalScheduler(Academy academy, List<Exercise> schedule) {
+            final ScheduleKernel kernel = new ScheduleKernel(academy);
+            final int M = academy.M;
+
+            this.academy = academy;
+            this.sequence = new ArrayList<>(kernel.toExercises(kernel.toSchedule(schedule), kernel.n));
+            this.equipmentAvailableTimes = new double[M];
+            this.frozenEquipmentTimes = new double[M];
+            this.waitingCounts = new int[M];
+            this.equipmentReadyTimes = new double[M];
+            this.lastFinishTimes = new double[M];
+            this.walkStamps = new int[M];
+            this.dirtyStamps = new int[M];
+
+            for (Student student : academy.students) {
+                if (timelines.put(student.studentId, new StudentTimeline(student)) != null)
+                    throw new IllegalArgumentException("Duplicate student id: " + student.studentId);
+            }
+
+            for (Exercise exercise : sequence) {
+                exercise.startTime = Double.NaN;
+                waitingCounts[exercise.equipmentId - 1]++;
+            }
+
+            beginChange();
+            replay(0, 0, null);
+        }
+
+        /**
+         * @return finish time of the last exercise, 0 when there is none
+         */
+        double makespan() {
+            if (makespanStale) {
+                makespan = 0.0;
+
+                for (Exercise exercise : sequence)
+                    makespan = Math.max(makespan, exercise.startTime + exercise.duration);
+
+                makespanStale = false;
+            }
+
+            return makespan;
+        }
+
+        /**
+         * Advances the clock and freezes the exercises started before it. The
+         * schedule does not change, since it was followed as planned.
+         *
+         * @param time new current time in minutes
+         */
+        void advanceTo(double time) {
+            if (time < currentTime)
+                throw new IllegalArgumentException("The clock cannot go back to " + time);
+
+            // An exercise after a waiting one on the same equipment waits too, so the scan
+            // stops once every equipment showed a waiting exercise or ran out of them
+            final int[] remainingCounts = waitingCounts.clone();
+            final List<Exercise> waiting = new ArrayList<>();
+            int openCount = 0;
+            int i = frozenCount;
+
+            for (int count : remainingCounts)
+                openCount += count > 0 ? 1 : 0;
+
+            currentTime = time;
+
+            for (; i < sequence.size() && openCount > 0; i++) {
+                final Exercise exercise = sequence.get(i);
+                final int equipmentIdx = exercise.equipmentId - 1;
+
+                if (remainingCounts[equipmentIdx] > 0 && exercise.startTime < time) {
+                    // Started exercises move to the front, no start time changes
+                    freeze(exercise);
+                    sequence.set(frozenCount++, exercise);
+
+                    if (--remainingCounts[equipmentIdx] == 0)
+                        openCount--;
+                } else {
+                    waiting.add(exercise);
+
+                    if (remainingCounts[equipmentIdx] > 0) {
+                        remainingCounts[equipmentIdx] = 0;
+                        openCount--;
+                    }
+                }
+            }
+
+            for (int k = 0; k < waiting.size(); k++)
+                sequence.set(frozenCount + k, waiting.get(k));
+        }
+
+        private void freeze(Exercise exercise) {
+            final int equipmentIdx = exercise.equipmentId - 1;
+
+            timelines.get(exercise.studentId).frozenCount++;
+            waitingCounts[equipmentIdx]--;
+            frozenEquipmentTimes[equipmentIdx] = Math.max(frozenEquipmentTimes[equipmentIdx],
+                    exercise.startTime + exercise.duration);
+        }
+
+        /**
+         * Adds a student whose sheet starts after the current time. Its exercises
+         * join the sequence at the end of the window ordered again, which starts
+         * at the first waiting exercise.
+         *
+         * @param student new student, with an id not used yet
+         */
+        void addStudent(Student student) {
+            if (timelines.containsKey(student.studentId))
+                throw new IllegalArgumentException("Duplicate student id: " + student.studentId);
+
+            for (Exercise exercise : student.exercises) {
+                if (exercise.equipmentId < 1 || exercise.equipmentId > academy.M)
+                    throw new IllegalArgumentException("Invalid equipment id: " + exercise.equipmentId);
+            }
+
+            final int position = Math.min(sequence.size(), frozenCount + windowLength);
+            final double[] rangeEnds = recordRangeEnds(frozenCount, position);
+
+            for (Exercise exercise : student.exercises) {
+                exercise.startTime = Double.NaN;
+                waitingCounts[exercise.equipmentId - 1]++;
+            }
+
+            academy.addStudent(student);
+            academy.N++;
+            academy.n += student.exercises.size();
+            timelines.put(student.studentId, new StudentTimeline(student));
+            sequence.addAll(position, student.exercises);
+            beginChange();
+            repair(frozenCount, position + student.exercises.size(), position + student.exercises.size(),
+                    rangeEnds);
+        }
+
+        /**
+         * Removes the exercises a student has not started yet. A student with no
+         * started exercise leaves the academy.
+         *
+         * @param studentId id of the student
+         */
+        void removeStudent(int studentId) {
+            final StudentTimeline timeline = getTimeline(studentId);
+            final List<Exercise> sheet = timeline.student.exercises;
+            final int removedCount = sheet.size() - timeline.frozenCount;
+            final int from = findWaiting(timeline);
+            // Every vacated slot may let the next exercise on its equipment start earlier, so the
+            // replay covers at least the whole range the student exercises spread over
+            final int end = Math.max(Math.min(sequence.size(), from + windowLength),
+                    removedCount > 0 ? sequence.lastIndexOf(sheet.get(sheet.size() - 1)) + 1 : from);
+            final double[] rangeEnds = recordRangeEnds(from, end);
+
+            for (int k = timeline.frozenCount; k < sheet.size(); k++) {
+                final Exercise exercise = sheet.get(k);
+
+                updateMakespan(exercise.startTime + exercise.duration, Double.NaN);
+                waitingCounts[exercise.equipmentId - 1]--;
+            }
+
+            academy.n -= removedCount;
+            sheet.subList(timeline.frozenCount, sheet.size()).clear();
+
+            if (timeline.frozenCount == 0) {
+                academy.students.remove(timeline.student);
+                academy.N--;
+                timelines.remove(studentId);
+            }
+
+            sequence.subList(from, end).removeIf(exercise -> exercise.studentId == studentId);
+            beginChange();
+            repair(from, Math.min(from + windowLength, end - removedCount), end - removedCount, rangeEnds);
+        }
+
+        /**
+         * Changes the duration of an exercise that has not finished yet. An
+         * exercise already started keeps its start time and finishes earlier or
+         * later.
+         *
+         * @param studentId     id of the student
+         * @param exerciseIndex index of the exercise inside the student sheet
+         * @param duration      new duration in minutes
+         */
+        void changeDuration(int studentId, int exerciseIndex, double duration) {
+            final StudentTimeline timeline = getTimeline(studentId);
+
+            if (exerciseIndex < 0 || exerciseIndex >= timeline.student.exercises.size())
+                throw new IllegalArgumentException("Invalid exercise index: " + exerciseIndex);
+            if (!(duration >= 0) || Double.isInfinite(duration))
+                throw new IllegalArgumentException("Invalid duration: " + duration);
+
+            final Exercise exercise = timeline.student.exercises.get(exerciseIndex);
+            final int equipmentIdx = exercise.equipmentId - 1;
+            final boolean started = exerciseIndex < timeline.frozenCount;
+
+            if (started && exercise.startTime + exercise.duration <= currentTime)
+                throw new IllegalArgumentException("The exercise already finished: " + exercise);
+
+            final int from = started ? frozenCount : sequence.indexOf(exercise);
+            final int end = Math.min(sequence.size(), from + windowLength);
+            final double[] rangeEnds = recordRangeEnds(from, end);
+
+            beginChange();
+
+            if (started) {
+                updateMakespan(exercise.startTime + exercise.duration, exercise.startTime + duration);
+                exercise.duration = duration;
+                frozenEquipmentTimes[equipmentIdx] = 0.0;
+
+                for (int i = 0; i < frozenCount; i++) {
+                    final Exercise frozen = sequence.get(i);
+
+                    if (frozen.equipmentId == exercise.equipmentId)
+                        frozenEquipmentTimes[equipmentIdx] = Math.max(frozenEquipmentTimes[equipmentIdx],
+                                frozen.startTime + frozen.duration);
+                }
+
+                markEquipment(equipmentIdx, true);
+                markStudent(timeline, true);
+            } else {
+                // Placed again by the replay
+                updateMakespan(exercise.startTime + exercise.duration, Double.NaN);
+                exercise.duration = duration;
+                exercise.startTime = Double.NaN;
+            }
+
+            repair(from, end, end, rangeEnds);
+        }
+
+        /**
+         * Takes an equipment offline until a given time. Exercises already started
+         * on it are not interrupted.
+         *
+         * @param equipmentId id of the equipment
+         * @param until       time the equipment is back online, in minutes
+         */
+        void takeEquipmentOffline(int equipmentId, double until) {
+            if (equipmentId < 1 || equipmentId > academy.M)
+                throw new IllegalArgumentException("Invalid equipment id: " + equipmentId);
+
+            int from = frozenCount;
+
+            while (from < sequence.size() && sequence.get(from).equipmentId != equipmentId)
+                from++;
+
+            final int end = Math.min(sequence.size(), from + windowLength);
+            final double[] rangeEnds = recordRangeEnds(from, end);
+
+            equipmentAvailableTimes[equipmentId - 1] = until;
+            beginChange();
+            markEquipment(equipmentId - 1, true);
+            repair(from, end, end, rangeEnds);
+        }
+
+        /**
+         * Delays the exercises a student has not started yet until a given time.
+         *
+         * @param studentId id of the student
+         * @param until     time the student arrives, in minutes
+         */
+        void delayStudent(int studentId, double until) {
+            final StudentTimeline timeline = getTimeline(studentId);
+            final int from = findWaiting(timeline);
+            final int end = Math.min(sequence.size(), from + windowLength);
+            final double[] rangeEnds = recordRangeEnds(from, end);
+
+            timeline.availableTime = until;
+            beginChange();
+            markStudent(timeline, true);
+            repair(from, end, end, rangeEnds);
+        }
+
+        private StudentTimeline getTimeline(int studentId) {
+            final StudentTimeline timeline = timelines.get(studentId);
+
+            if (timeline == null)
+                throw new IllegalArgumentException("Unknown student id: " + studentId);
+
+            return timeline;
+        }
+
+        /**
+         * @return sequence position of the first waiting exercise of a student, the
+         *         sequence size when there is none
+         */
+        private int findWaiting(StudentTimeline timeline) {
+            final List<Exercise> sheet = timeline.student.exercises;
+
+            return timeline.frozenCount < sheet.size() ? sequence.indexOf(sheet.get(timeline.frozenCount))
+                    : sequence.size();
+        }
+
+        /**
+         * Records when each equipment gets free after the exercises of a sequence
+         * range, before a change.
+         *
+         * @return finish time of the last exercise on each equipment in the range,
+         *         NaN for the equipment without one
+         */
+        private double[] recordRangeEnds(int from, int end) {
+            final double[] rangeEnds = new double[academy.M];
+
+            Arrays.fill(rangeEnds, Double.NaN);
+
+            for (int i = from; i < end; i++) {
+                final Exercise exercise = sequence.get(i);
+
+                rangeEnds[exercise.equipmentId - 1] = exercise.startTime + exercise.duration;
+            }
+
+            return rangeEnds;
+        }
+
+        /**
+         * Keeps the makespan up to date when an exercise finish time changes. NaN
+         * stands for an exercise not placed yet or removed.
+         */
+        private void updateMakespan(double previousFinishTime, double finishTime) {
+            if (finishTime > makespan) {
+                makespan = finishTime;
+                makespanStale = false;
+            } else if (previousFinishTime == makespan && finishTime != makespan) {
+                makespanStale = true;
+            }
+        }
+
+        /**
+         * Starts a replay: no equipment or student is marked yet.
+         */
+        private void beginChange() {
+            stamp++;
+            dirtyCount = 0;
+        }
+
+        private void markEquipment(int equipmentIdx, boolean dirty) {
+            if (dirty != (dirtyStamps[equipmentIdx] == stamp)) {
+                dirtyStamps[equipmentIdx] = dirty ? stamp : 0;
+                dirtyCount += dirty ? 1 : -1;
+            }
+        }
+
+        private void markStudent(StudentTimeline timeline, boolean dirty) {
+            if (dirty != (timeline.dirtyStamp == stamp)) {
+                timeline.dirtyStamp = dirty ? stamp : 0;
+                dirtyCount += dirty ? 1 : -1;
+            }
+        }
+
+        /**
+         * Orders a window again, then replays the sequence from its start.
+         *
+         * @param from      first sequence position whose start time may change
+         * @param windowEnd end of the window ordered again
+         * @param end       end of the range replayed in any case
+         * @param rangeEnds finish time of the last exercise on each equipment in the
+         *                  range before the change, NaN for the equipment without
+         *                  one
+         */
+        private void repair(int from, int windowEnd, int end, double[] rangeEnds) {
+            replayedCount = 0;
+            reorderWindow(from, windowEnd);
+            replay(from, end, rangeEnds);
+        }
+
+        /**
+         * Finds when each equipment gets free before a sequence position, looking
+         * back only until every equipment was found.
+         */
+        private void computeEquipmentReadyTimes(int position) {
+            int foundCount = 0;
+
+            Arrays.fill(equipmentReadyTimes, Double.NaN);
+
+            for (int i = position - 1; i >= frozenCount && foundCount < academy.M; i--) {
+                final Exercise exercise = sequence.get(i);
+
+                if (Double.isNaN(equipmentReadyTimes[exercise.equipmentId - 1])) {
+                    equipmentReadyTimes[exercise.equipmentId - 1] = exercise.startTime + exercise.duration;
+                    foundCount++;
+                }
+            }
+
+            for (int m = 0; m < academy.M; m++) {
+                if (Double.isNaN(equipmentReadyTimes[m]))
+                    equipmentReadyTimes[m] = frozenEquipmentTimes[m];
+            }
+        }
+
+        /**
+         * Computes the start times again in sequence order. Once past the given end,
+         * the replay stops as soon as every equipment and student gets free at the
+         * same time as before, at an exercise already placed.
+         *
+         * @param from      first sequence position to replay
+         * @param end       sequence position the replay reaches at least
+         * @param rangeEnds finish time of the last exercise on each equipment in
+         *                  [from, end) before the change, NaN for the equipment
+         *                  without one, null when the range is empty
+         */
+        private void replay(int from, int end, double[] rangeEnds) {
+            int i = from;
+
+            computeEquipmentReadyTimes(from);
+
+            for (; i < sequence.size(); i++) {
+                if (i == end && rangeEnds != null) {
+                    // Equipment without exercises in the range keep their marks
+                    for (int m = 0; m < academy.M; m++) {
+                        if (walkStamps[m] == stamp || !Double.isNaN(rangeEnds[m]))
+                            markEquipment(m, (Double.isNaN(rangeEnds[m]) ? equipmentReadyTimes[m] : rangeEnds[m])
+                                    != (walkStamps[m] == stamp ? lastFinishTimes[m] : equipmentReadyTimes[m]));
+                    }
+                }
+
+                final Exercise exercise = sequence.get(i);
+
+                if (i >= end && dirtyCount == 0 && !Double.isNaN(exercise.startTime))
+                    break;
+
+                final int equipmentIdx = exercise.equipmentId - 1;
+                final StudentTimeline timeline = timelines.get(exercise.studentId);
+                final List<Exercise> sheet = timeline.student.exercises;
+
+                if (timeline.walkStamp == stamp) {
+                    timeline.sheetIndex++;
+                } else {
+                    timeline.walkStamp = stamp;
+                    timeline.sheetIndex = sheet.indexOf(exercise);
+                }
+
+                final Exercise previous = timeline.sheetIndex > 0 ? sheet.get(timeline.sheetIndex - 1) : null;
+                final double studentReadyTime = previous != null ? previous.startTime + previous.duration : 0.0;
+                final double equipmentReadyTime = walkStamps[equipmentIdx] == stamp ? lastFinishTimes[equipmentIdx]
+                        : equipmentReadyTimes[equipmentIdx];
+                final double releaseTime = Math.max(currentTime, Math.max(timeline.availableTime,
+                        equipmentAvailableTimes[equipmentIdx]));
+                final double startTime = Math.max(releaseTime, Math.max(equipmentReadyTime, studentReadyTime));
+                final double finishTime = startTime + exercise.duration;
+                // NaN for an exercise not placed yet, which differs from any time
+                final double previousFinishTime = exercise.startTime + exercise.duration;
+
+                if (startTime != exercise.startTime) {
+                    updateMakespan(previousFinishTime, finishTime);
+                    exercise.startTime = startTime;
+                }
+
+                walkStamps[equipmentIdx] = stamp;
+                lastFinishTimes[equipmentIdx] = finishTime;
+
+                // Inside the range, the order on an equipment may have changed, so its mark
+                // waits for the range end
+                if (i >= end)
+                    markEquipment(equipmentIdx, finishTime != previousFinishTime);
+
+                // The last exercise of a sheet delays nothing of its student
+                markStudent(timeline, finishTime != previousFinishTime && timeline.sheetIndex + 1 < sheet.size());
+            }
+
+            replayedCount += i - from;
+        }
+
+        /**
+         * Orders the exercises of a sequence window again, starting from when each
+         * equipment and student gets free before it. The current order and the order
+         * of every dispatch rule are simulated on the window alone, and the one with
+         * the earliest last finish time, then the lowest sum of finish times, is
+         * kept. Start times are left to the replay.
+         *
+         * @param from      first sequence position of the window
+         * @param windowEnd end of the window
+         */
+        private void reorderWindow(int from, int windowEnd) {
+            final int length = windowEnd - from;
+
+            if (length < 2)
+                return;
+
+            final List<StudentTimeline> students = new ArrayList<>();
+            final int[] firstIndexes = new int[length]; // Sheet index of the first window exercise of each student
+
+            windowCount++;
+
+            // Dense index of every window student, in order of first appearance
+            for (int i = from; i < windowEnd; i++) {
+                final Exercise exercise = sequence.get(i);
+                final StudentTimeline timeline = timelines.get(exercise.studentId);
+
+                if (timeline.windowStamp != windowCount) {
+                    timeline.windowStamp = windowCount;
+                    timeline.index = students.size();
+                    firstIndexes[students.size()] = timeline.student.exercises.indexOf(exercise);
+                    students.add(timeline);
+                }
+            }
+
+            final int N = students.size();
+            final int[] studentIds = new int[N];
+            final int[] sheetOffsets = new int[N + 1];
+            final double[] studentReadyTimes = new double[N];
+            final double[] readyTimes = new double[academy.M];
+            final int[] equipments = new int[length];
+            final double[] durations = new double[length];
+            final Exercise[] exercises = new Exercise[length];
+
+            for (int i = from; i < windowEnd; i++)
+                sheetOffsets[timelines.get(sequence.get(i).studentId).index + 1]++;
+
+            for (int s = 0; s < N; s++) {
+                final StudentTimeline timeline = students.get(s);
+                final List<Exercise> sheet = timeline.student.exercises;
+                final Exercise previous = firstIndexes[s] > 0 ? sheet.get(firstIndexes[s] - 1) : null;
+
+                studentIds[s] = timeline.student.studentId;
+                sheetOffsets[s + 1] += sheetOffsets[s];
+                studentReadyTimes[s] = Math.max(Math.max(currentTime, timeline.availableTime),
+                        previous != null ? previous.startTime + previous.duration : 0.0);
+
+                for (int index = sheetOffsets[s]; index < sheetOffsets[s + 1]; index++) {
+                    exercises[index] = sheet.get(firstIndexes[s] + index - sheetOffsets[s]);
+                    equipments[index] = exercises[index].equipmentId - 1;
+                    durations[index] = exercises[index].duration;
+                }
+            }
+
+            computeEquipmentReadyTimes(from);
+
+            for (int m = 0; m < academy.M; m++)
+                readyTimes[m] = Math.max(Math.max(currentTime, equipmentAvailableTimes[m]), equipmentReadyTimes[m]);
+
+            final ScheduleKernel kernel = new ScheduleKernel(academy.M, studentIds, sheetOffsets, equipments,
+                    durations);
+            final int[] nextIndexes = Arrays.copyOf(sheetOffsets, N);
+            int[] bestOrder = new int[length];
+            boolean improved = false;
+
+            for (int k = 0; k < length; k++)
+                bestOrder[k] = nextIndexes[timelines.get(sequence.get(from + k).studentId).index]++;
+
+            double[] bestFinishTimes = evaluateWindow(kernel, bestOrder, readyTimes, studentReadyTimes);
+
+            for (DispatchRule rule : DispatchRule.values()) {
+                final int[] order = buildApproximateSchedule(kernel, rule, readyTimes, studentReadyTimes);
+                final double[] finishTimes = evaluateWindow(kernel, order, readyTimes, studentReadyTimes);
+
+                if (finishTimes[0] < bestFinishTimes[0]
+                        || finishTimes[0] == bestFinishTimes[0] && finishTimes[1] < bestFinishTimes[1]) {
+                    bestOrder = order;
+                    bestFinishTimes = finishTimes;
+                    improved = true;
+                }
+            }
+
+            if (improved) {
+                for (int k = 0; k < length; k++)
+                    sequence.set(from + k, exercises[bestOrder[k]]);
+            }
+        }
+
+        /**
+         * Simulates the exercises of a window from the times equipment and students
+         * get free.
+         *
+         * @param kernel              kernel of the window exercises
+         * @param order               kernel exercise indexes in schedule order
+         * @param equipmentReadyTimes time each equipment gets free
+         * @param studentReadyTimes   time each student gets free
+         * @return the latest finish time and the sum of the finish times
+         */
+        private static double[] evaluateWindow(ScheduleKernel kernel, int[] order, double[] equipmentReadyTimes,
+                double[] studentReadyTimes) {
+            final double[] equipmentFreeTimes = equipmentReadyTimes.clone();
+            final double[] studentsElapsedTimes = studentReadyTimes.clone();
+            final double[] finishTimes = new double[2];
+
+            for (int exercise : order) {
+                final int equipmentIdx = kernel.equipments[exercise];
+                final int student = kernel.exerciseStudents[exercise];
+                final double finishTime = Math.max(equipmentFreeTimes[equipmentIdx], studentsElapsedTimes[student])
+                        + kernel.durations[exercise];
+
+                equipmentFreeTimes[equipmentIdx] = finishTime;
+                studentsElapsedTimes[student] = finishTime;
+                finishTimes[0] = Math.max(finishTimes[0], finishTime);
+                finishTimes[1] += finishTime;
+            }
+
+            return finishTimes;
+        }
+    }
+    // endregion
+
+    // region Instance generator
+
+    /**
+     * Distribution of the generated exercise durations, all within the minimum
+     * and maximum durations of the generator settings.
+     */
+    private enum DurationDistribution {
+        /** Multiples of 5 minutes, uniformly. */
+        FIVE_MINUTE_STEPS,
+        /** Uniform, rounded to a tenth of a minute. */
+        UNIFORM,
+        /** Mostly short exercises with a long tail, capped at the maximum. */
+        EXPONENTIAL,
+        /** Either the minimum or the maximum duration, with equal odds. */
+        BIMODAL
+    }
+
+    /**
+     * Parameters of a generated academy. The same settings always produce the
+     * same academy.
+     */
+    private static class GeneratorSettings {
+        int M = 6;
+        int N = 4;
+        int exercisesPerStudent = 3;
+        long seed = 0;
+        DurationDistribution durations = DurationDistribution.FIVE_MINUTE_STEPS;
+        double minDuration = 5.0;
+        double maxDuration = 30.0;
+        // Equipment m is drawn with weight 1 / m^equipmentSkew, so equipment 1 is the
+        // hottest. 0 draws every equipment with the same odds
+        double equipmentSkew = 0.0;
+
+        GeneratorSettings() {
+        }
+
+        GeneratorSettings(int M, int N, int exercisesPerStudent, long seed) {
+            this.M = M;
+            this.N = N;
+            this.exercisesPerStudent = exercisesPerStudent;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Draws the exercises of a generated academy one at a time, student by
+     * student, so they can be streamed without holding the academy.
+     */
+    private static class AcademyGenerator {
+        final GeneratorSettings settings;
+        final Random random;
+        final double[] equipmentWeights; // Cumulative equipment weights, null when they are all equal
+
+        AcademyGenerator(GeneratorSettings settings) {
+            if (settings.M <= 0 || settings.N < 0 || settings.exercisesPerStudent < 0)
+                throw new IllegalArgumentException("Invalid academy size");
+            if (!(settings.minDuration >= 0) || !(settings.maxDuration >= settings.minDuration)
+                    || Double.isInfinite(settings.maxDuration))
+                throw new IllegalArgumentException("Invalid duration range");
+            if (!(settings.equipmentSkew >= 0))
+                throw new IllegalArgumentException("The equipment skew must not be negative");
+
+            this.settings = settings;
+            this.random = new Random(settings.seed);
+
+            if (settings.equipmentSkew == 0.0) {
+                this.equipmentWeights = null;
+            } else {
+                this.equipmentWeights = new double[settings.M];
+
+                double total = 0.0;
+
+                for (int m = 0; m < settings.M; m++) {
+                    total += 1.0 / Math.pow(m + 1, settings.equipmentSkew);
+                    equipmentWeights[m] = total;
+                }
+            }
+        }
+
+        int nextEquipmentId() {
+            if (equipmentWeights == null)
+                return random.nextInt(settings.M) + 1;
+
+            final double target = random.nextDouble() * equipmentWeights[settings.M - 1];
+            final int index = Arrays.binarySearch(equipmentWeights, target);
+
+            return Math.min(settings.M - 1, index >= 0 ? index + 1 : -index - 1) + 1;
+        }
+
+        double nextDuration() {
+            final double min = settings.minDuration;
+            final double max = settings.maxDuration;
+
+            switch (settings.durations) {
+                case FIVE_MINUTE_STEPS:
+                    return min + 5.0 * random.nextInt((int) ((max - min) / 5.0) + 1);
+                case UNIFORM:
+                    return Math.round((min + random.nextDouble() * (max - min)) * 10.0) / 10.0;
+                case EXPONENTIAL:
+                    // Mean of a quarter of the range above the minimum
+                    final double tail = -Math.log(1.0 - random.nextDouble()) * (max - min) / 4.0;
+
+                    return Math.min(max, Math.round((min + tail) * 10.0) / 10.0);
+                default:
+                    return random.nextBoolean() ? min : max;
+            }
+        }
+    }
+
+    /**
+     * Generates a random academy. The same seed always produces the same academy.
+     *
+     * @param M                   equipments count
+     * @param N                   students count
+     * @param exercisesPerStudent exercises on each student sheet
+     * @param seed                random generator seed
+     * @return a generated Academy object
+     */
+    private static Academy generateRandomAcademy(int M, int N, int exercisesPerStudent, long seed) {
+        return generateAcademy(new GeneratorSettings(M, N, exercisesPerStudent, seed));
+    }
+
+    /**
+     * Generates an academy in memory.
+     *
+     * @param settings generator parameters
+     * @return a generated Academy object
+     */
+    private static Academy generateAcademy(GeneratorSettings settings) {
+        final AcademyGenerator generator = new AcademyGenerator(settings);
+        final Academy academy = new Academy(settings.M, settings.N, settings.N * settings.exercisesPerStudent);
+
+        for (int studentId = 1; studentId <= settings.N; studentId++) {
+            final Student student = new Student(studentId);
+
+            for (int i = 0; i < settings.exercisesPerStudent; i++) {
+                final int equipmentId = generator.nextEquipmentId();
+
+                student.addExercise(new Exercise(studentId, equipmentId, generator.nextDuration()));
+            }
+
+            academy.addStudent(student);
+        }
+
+        return academy;
+    }
+
+    /**
+     * Writes a generated academy straight to a file, in the text or the binary
+     * format, without holding it in memory. The file holds the same academy as
+     * {@link #generateAcademy(GeneratorSettings)}.
+     *
+     * @param settings generator parameters
+     * @param filePath the path to the output file
+     * @param binary   true for the binary format, false for the text one
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeGeneratedAcademy(GeneratorSettings settings, String filePath, boolean binary)
+            throws IOException {
+        final AcademyGenerator generator = new AcademyGenerator(settings);
+        final long n = (long) settings.N * settings.exercisesPerStudent;
+
+        if (n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many exercises: " + n);
+
+        if (binary) {
+            writeGeneratedBinaryAcademy(generator, filePath);
+            return;
+        }
+
+        final StringBuilder line = new StringBuilder();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath))) {
+            writer.write("M=" + settings.M + "\nN=" + settings.N + "\nn=" + n + "\n");
+
+            for (int studentId = 1; studentId <= settings.N; studentId++) {
+                for (int i = 0; i < settings.exercisesPerStudent; i++) {
+                    final int equipmentId = generator.nextEquipmentId();
+
+                    line.setLength(0);
+                    line.append(studentId).append(' ').append(equipmentId).append(' ')
+                            .append(generator.nextDuration()).append('\n');
+                    writer.append(line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams a generated academy in the binary format. The equipment and the
+     * duration sections are filled at the same time through positional writes,
+     * each from its own buffer.
+     *
+     * @param generator exercise source
+     * @param filePath  the path to the output file
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeGeneratedBinaryAcademy(AcademyGenerator generator, String filePath) throws IOException {
+        final GeneratorSettings settings = generator.settings;
+        final int N = settings.N;
+        final int n = N * settings.exercisesPerStudent;
+        final ByteBuffer equipmentBuffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteBuffer durationBuffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        long equipmentPosition = BINARY_HEADER_SIZE + (long) (N + N + 1) * Integer.BYTES;
+        long durationPosition = binaryDurationsOffset(N, n);
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Header, student ids and sheet offsets are known up front
+            equipmentBuffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(settings.M).putInt(N).putInt(n)
+                    .putInt(0);
+
+            for (int studentId = 1; studentId <= N; studentId++) {
+                if (!equipmentBuffer.hasRemaining())
+                    flushBuffer(channel, equipmentBuffer);
+
+                equipmentBuffer.putInt(studentId);
+            }
+
+            for (int s = 0; s <= N; s++) {
+                if (!equipmentBuffer.hasRemaining())
+                    flushBuffer(channel, equipmentBuffer);
+
+                equipmentBuffer.putInt(s * settings.exercisesPerStudent);
+            }
+
+            flushBuffer(channel, equipmentBuffer);
+
+            for (int i = 0; i < n; i++) {
+                if (!equipmentBuffer.hasRemaining())
+                    equipmentPosition += flushBuffer(channel, equipmentBuffer, equipmentPosition);
+                if (!durationBuffer.hasRemaining())
+                    durationPosition += flushBuffer(channel, durationBuffer, durationPosition);
+
+                equipmentBuffer.putInt(generator.nextEquipmentId() - 1);
+                durationBuffer.putDouble(generator.nextDuration());
+            }
+
+            flushBuffer(channel, equipmentBuffer, equipmentPosition);
+            flushBuffer(channel, durationBuffer, durationPosition);
+
+            // The padding is written too, so the file has its full size even without exercises
+            final long paddingPosition = BINARY_HEADER_SIZE + (2L * N + 1 + n) * Integer.BYTES;
+
+            if (paddingPosition < binaryDurationsOffset(N, n))
+                channel.write(ByteBuffer.allocate(Integer.BYTES), paddingPosition);
+        }
+    }
+    // endregion
+
+    // region Gantt export
+
+    /**
+     * Output of the Gantt charts. WINDOW opens the Swing window, the image and
+     * timeline formats write one file per solver, and NONE skips them.
+     */
+    private enum GanttFormat {
+        WINDOW,
+        NONE,
+        PNG,
+        SVG,
+        CSV,
+        JSON
+    }
+
+    /**
+     * Writes the schedule of a solver to a file. Only the PNG exporter uses AWT
+     * and JFreeChart, and its class is only loaded when that format is chosen, so
+     * the other formats run on headless servers.
+     */
+    private interface GanttExporter {
+        /**
+         * @param title    The title of the chart
+         * @param solution The solution containing an ordered exercise object list,
+         *                 with its start times set
+         * @param file     file to write
+         * @throws IOException if the file cannot be written
+         */
+        void export(String title, List<Exercise> solution, Path file) throws IOException;
+    }
+
+    /**
+     * Timeline with one CSV record per exercise, in schedule order.
+     */
+    private static class TimelineCsvExporter implements GanttExporter {
+        @Override
+        public void export(String title, List<Exercise> solution, Path file) throws IOException {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("student,equipment,start,finish,duration");
+                writer.newLine();
+
+                for (Exercise exercise : solution) {
+                    writer.write(String.format(Locale.ROOT, "%d,%d,%.2f,%.2f,%.2f", exercise.studentId,
+                            exercise.equipmentId, exercise.startTime, exercise.startTime + exercise.duration,
+                            exercise.duration));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Timeline as a JSON object holding the title, the makespan and the exercises
+     * in schedule order.
+     */
+    private static class TimelineJsonExporter implements GanttExporter {
+        @Override
+        public void export(String title, List<Exercise> solution, Path file) throws IOException {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(String.format(Locale.ROOT, "{\"title\":%s,\"makespan\":%.2f,\"exercises\":[",
+                        quoteJson(title), calculateMakespan(solution)));
+
+                for (int i = 0; i < solution.size(); i++) {
+                    final Exercise exercise = solution.get(i);
+
+                    writer.write(String.format(Locale.ROOT,
+                            "%s{\"student\":%d,\"equipment\":%d,\"start\":%.2f,\"finish\":%.2f}", i > 0 ? "," : "",
+                            exercise.studentId, exercise.equipmentId, exercise.startTime,
+                            exercise.startTime + exercise.duration));
+                }
+
+                writer.write("]}");
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Gantt chart drawn as SVG text, one row per equipment and one color per
+     * student, without AWT.
+     */
+    private static class SvgGanttExporter implements GanttExporter {
+        private static final int WIDTH = 1000;
+        private static final int LABEL_WIDTH = 110;
+        private static final int ROW_HEIGHT = 24;
+        private static final int TOP = 40;
+
+        @Override
+        public void export(String title, List<Exercise> solution, Path file) throws IOException {
+            final double makespan = Math.max(calculateMakespan(solution), 1e-9);
+            final double scale = (WIDTH - LABEL_WIDTH - 20) / makespan;
+            int equipmentCount = 0;
+
+            for (Exercise exercise : solution)
+                equipmentCount = Math.max(equipmentCount, exercise.equipmentId);
+
+            final int height = TOP + ROW_HEIGHT * equipmentCount + 30;
+
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" "
+                        + "height=\"%d\" font-family=\"sans-serif\" font-size=\"12\">", WIDTH, height));
+                writer.newLine();
+                writer.write(String.format(Locale.ROOT, "<text x=\"%d\" y=\"22\" font-size=\"16\" "
+                        + "text-anchor=\"middle\">%s</text>", WIDTH / 2, escapeXml(title)));
+                writer.newLine();
+
+                for (int equipmentId = 1; equipmentId <= equipmentCount; equipmentId++) {
+                    writer.write(String.format(Locale.ROOT, "<text x=\"4\" y=\"%d\">Equipment %d</text>",
+                            TOP + ROW_HEIGHT * (equipmentId - 1) + 16, equipmentId));
+                    writer.newLine();
+                }
+
+                for (Exercise exercise : solution) {
+                    final int y = TOP + ROW_HEIGHT * (exercise.equipmentId - 1) + 3;
+                    final int hue = Math.floorMod(exercise.studentId * 137, 360); // Spreads close ids apart
+
+                    writer.write(String.format(Locale.ROOT, "<rect x=\"%.2f\" y=\"%d\" width=\"%.2f\" "
+                            + "height=\"%d\" fill=\"hsl(%d,65%%,55%%)\" stroke=\"#333\">"
+                            + "<title>Student %d, %.2f - %.2f</title></rect>", LABEL_WIDTH + exercise.startTime * scale,
+                            y, exercise.duration * scale, ROW_HEIGHT - 6, hue, exercise.studentId, exercise.startTime,
+                            exercise.startTime + exercise.duration));
+                    writer.newLine();
+                }
+
+                writer.write(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\">0</text>"
+                        + "<text x=\"%d\" y=\"%d\" text-anchor=\"end\">%.2f minutes</text>", LABEL_WIDTH,
+                        height - 8, WIDTH - 20, height - 8, makespan));
+                writer.newLine();
+                writer.write("</svg>");
+                writer.newLine();
+            }
+        }
+
+        private static String escapeXml(String value) {
+            return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+
+    /**
+     * Gantt chart rendered offscreen by JFreeChart as a PNG image.
+     */
+    private static class PngGanttExporter implements GanttExporter {
+        PngGanttExporter() {
+            // No window is ever opened, so AWT does not need a display
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        @Override
+        public void export(String title, List<Exercise> solution, Path file) throws IOException {
+            ChartPlotter.saveGanttChartAsPng(title, solution, file);
+        }
+    }
+
+    private static double calculateMakespan(List<Exercise> solution) {
+        double makespan = 0.0;
+
+        for (Exercise exercise : solution)
+            makespan = Math.max(makespan, exercise.startTime + exercise.duration);
+
+        return makespan;
+    }
+
+    /**
+     * Creates the exporter of a file format.
+     *
+     * @param format PNG, SVG, CSV or JSON
+     * @return the exporter
+     */
+    private static GanttExporter createGanttExporter(GanttFormat format) {
+        switch (format) {
+            case PNG:
+                return new PngGanttExporter();
+            case SVG:
+                return new SvgGanttExporter();
+            case CSV:
+                return new TimelineCsvExporter();
+            case JSON:
+                return new TimelineJsonExporter();
+            default:
+                throw new IllegalArgumentException("No exporter for Gantt format: " + format);
+        }
+    }
+
+    /**
+     * Writes the schedule of every solver to its own file, named after the solver,
+     * such as {@code approximate-heuristic.svg}.
+     *
+     * @param format    file format
+     * @param directory directory of the files, created if missing
+     * @param titles    name of each solver
+     * @param solutions solutions containing an ordered exercise object list
+     * @throws IOException if a file cannot be written
+     */
+    private static void exportGanttCharts(GanttFormat format, String directory, List<String> titles,
+            List<List<Exercise>> solutions) throws IOException {
+        final GanttExporter exporter = createGanttExporter(format);
+        final String extension = format.name().toLowerCase();
+
+        Files.createDirectories(Paths.get(directory));
+
+        for (int i = 0; i < titles.size(); i++) {
+            final Path file = Paths.get(directory,
+                    titles.get(i).toLowerCase().replace(' ', '-') + "." + extension);
+
+            exporter.export(titles.get(i) + " Solution", solutions.get(i), file);
+            System.out.println("Gantt chart written to " + file);
+        }
+    }
+    // endregion
+
+    // region Batch solving
+
+    /**
+     * Algorithm applied to every instance of a batch. AUTO uses the dynamic
+     * programming when it fits its memory budget and the disjunctive graph search
+     * otherwise.
+     */
+    private enum BatchSolver {
+        AUTO,
+        BRANCH_AND_BOUND,
+        DYNAMIC_PROGRAMMING,
+        DISJUNCTIVE_GRAPH,
+        HEURISTIC,
+        LOCAL_SEARCH
+    }
+
+    /**
+     * Batch mode parameters.
+     */
+    private static class BatchSettings {
+        BatchSolver solver = BatchSolver.AUTO;
+        long timeLimitMillis = 10_000; // Budget of every instance
+        boolean csv = false; // CSV lines instead of JSON lines
+        DispatchRule dispatchRule = DispatchRule.EARLIEST_START;
+        LowerBound lowerBound = LowerBound.LOAD;
+        LocalSearchMethod localSearchMethod = LocalSearchMethod.TABU;
+        long dynamicProgrammingBudget = 256L * 1024 * 1024; // Bytes
+        SolutionCache cache = null; // Shared by the workers when not null
+        boolean decompose = false; // Solves the components of every instance apart
+    }
+
+    /**
+     * Outcome of one batch instance.
+     */
+    private static class BatchResult {
+        final String file;
+        String error = null;
+        BatchSolver solver;
+        int students;
+        int exercises;
+        double makespan; // Read from the verified schedule
+        double lowerBound;
+        double gap; // Share of the makespan above the lower bound
+        boolean optimal; // False when a budget ran out before the makespan was proven
+        double millis;
+
+        BatchResult(String file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * Schedule a batch solver found for one kernel.
+     */
+    private static class BatchSolution {
+        final BatchSolver solver; // Solver that found the schedule, after any fallback
+        final int[] schedule;
+        final double makespan;
+        final boolean optimal;
+
+        BatchSolution(BatchSolver solver, int[] schedule, double makespan, boolean optimal) {
+            this.solver = solver;
+            this.schedule = schedule;
+            this.makespan = makespan;
+            this.optimal = optimal;
+        }
+    }
+
+    /**
+     * Lists the instance files of a batch: the regular files of a directory, in
+     * name order, or the paths listed by a manifest file, one per line and
+     * relative to the manifest directory. Blank manifest lines and lines starting
+     * with # are skipped.
+     *
+     * @param batchPath directory or manifest file
+     * @return instance file paths
+     * @throws IOException if the directory or manifest cannot be read
+     */
+    private static List<String> listBatchInstances(String batchPath) throws IOException {
+        final Path path = Paths.get(batchPath);
+        final List<String> files = new ArrayList<>();
+
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> entries = Files.list(path)) {
+                entries.filter(Files::isRegularFile).sorted().forEach(file -> files.add(file.toString()));
+            }
+
+            return files;
+        }
+
+        final Path directory = path.toAbsolutePath().getParent();
+
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            final String entry = line.trim();
+
+            if (!entry.isEmpty() && !entry.startsWith("#"))
+                files.add(directory.resolve(entry).toString());
+        }
+
+        return files;
+    }
+
+    /**
+     * Reads and solves one batch instance without printing anything. Read, validation
+     * or solver failures, running out of memory included, end up in the result error.
+     *
+     * @param file     instance file path
+     * @param settings batch settings
+     * @return the instance outcome
+     */
+    private static BatchResult solveBatchInstance(String file, BatchSettings settings) {
+        final long timeStart = System.nanoTime();
+        final long deadline = timeStart + settings.timeLimitMillis * 1_000_000;
+        final BatchResult result = new BatchResult(file);
+
+        try {
+            final ScheduleKernel kernel = readAcademyKernel(file);
+            BatchSolver solver = settings.solver;
+
+            result.students = kernel.N;
+            result.exercises = kernel.n;
+            final LowerBoundCertificate lowerBound = certifyLowerBound(kernel);
+
+            result.lowerBound = lowerBound.value;
+
+            final List<KernelComponent> components = settings.decompose ? decomposeKernel(kernel) : null;
+            final boolean decomposed = components != null && components.size() > 1;
+
+            if (solver == BatchSolver.AUTO) {
+                final long budget = settings.dynamicProgrammingBudget;
+                final boolean fits = decomposed
+                        ? components.stream().allMatch(component -> fitsDynamicProgramming(component.kernel, budget))
+                        : fitsDynamicProgramming(kernel, budget);
+
+                solver = fits ? BatchSolver.DYNAMIC_PROGRAMMING : BatchSolver.DISJUNCTIVE_GRAPH;
+            }
+
+            // Exact solvers share the proven optima, local search results depend on the clock and are not cached
+            final CanonicalAcademy canonical = settings.cache != null && solver != BatchSolver.LOCAL_SEARCH
+                    ? new CanonicalAcademy(kernel) : null;
+            // Heuristic schedules depend on the student order, which is part of their key
+            final String solverKey = solver == BatchSolver.HEURISTIC && canonical != null
+                    ? (decomposed ? "decomposed-heuristic-" : "heuristic-")
+                            + settings.dispatchRule.name().toLowerCase().replace('_', '-') + "-"
+                            + canonical.orderFingerprint()
+                    : "optimal";
+            final CachedSchedule cached = canonical != null ? settings.cache.get(kernel, canonical, solverKey) : null;
+            int[] schedule = null;
+
+            if (cached != null) {
+                result.solver = solver;
+                result.makespan = verifyKernelSchedule(kernel, cached.schedule);
+                result.gap = lowerBound.gap(result.makespan);
+                result.optimal = solver != BatchSolver.HEURISTIC || result.gap == 0.0;
+                result.millis = (System.nanoTime() - timeStart) / 1_000_000.0;
+
+                return result;
+            }
+
+            if (!decomposed) {
+                final BatchSolution solution = solveBatchKernel(kernel, solver, settings, deadline);
+
+                result.solver = solution.solver;
+                result.makespan = solution.makespan;
+                result.optimal = solution.optimal;
+                schedule = solution.schedule;
+            } else {
+                final List<int[]> schedules = new ArrayList<>(Collections.nCopies(components.size(), null));
+
+                result.solver = solver;
+                result.optimal = true;
+
+                // The batch workers keep every thread busy, so components are solved one after the other, smallest
+                // first, each with an even share of the time left
+                for (int c = components.size() - 1; c >= 0; c--) {
+                    final long now = System.nanoTime();
+                    final BatchSolution solution = solveBatchKernel(components.get(c).kernel, solver, settings,
+                            now + (deadline - now) / (c + 1));
+
+                    schedules.set(c, solution.schedule);
+                    result.makespan = Math.max(result.makespan, solution.makespan);
+                    result.optimal &= solution.optimal;
+
+                    if (solution.solver != solver)
+                        result.solver = solution.solver;
+                }
+
+                schedule = mergeComponentSchedules(kernel, components, schedules);
+            }
+
+            result.makespan = verifyKernelSchedule(kernel, schedule);
+            result.gap = lowerBound.gap(result.makespan);
+            // Reaching the lower bound proves the schedule optimal
+            result.optimal |= result.gap == 0.0;
+
+            if (canonical != null && schedule != null && (result.optimal || solver == BatchSolver.HEURISTIC))
+                settings.cache.put(canonical, solverKey, schedule, result.makespan);
+        } catch (NoSuchFileException e) {
+            result.error = "File not found";
+        } catch (IOException | RuntimeException e) {
+            result.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } catch (OutOfMemoryError | StackOverflowError e) {
+            // Only this instance is given up, its memory is released when the worker unwinds
+            result.error = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        }
+
+        result.millis = (System.nanoTime() - timeStart) / 1_000_000.0;
+        return result;
+    }
+
+    /**
+     * Verifies a kernel schedule with {@link #verifySolution}.
+     *
+     * @param kernel   compact academy representation
+     * @param schedule kernel exercise indexes in schedule order
+     * @return the makespan in minutes
+     * @throws IllegalStateException if the schedule is not feasible
+     */
+    private static double verifyKernelSchedule(ScheduleKernel kernel, int[] schedule) {
+        final List<Exercise> solution = kernel.toExercises(schedule, kernel.n);
+
+        simulateSchedule(kernel.M, solution);
+
+        return verifySolution(kernel.toAcademy(), solution);
+    }
+
+    /**
+     * Solves one kernel with a batch solver until a deadline.
+     *
+     * @param kernel   compact academy representation
+     * @param solver   batch solver, other than AUTO
+     * @param settings batch settings
+     * @param deadline System.nanoTime() value past which the search stops
+     * @return the best schedule found
+     */
+    private static BatchSolution solveBatchKernel(ScheduleKernel kernel, BatchSolver solver, BatchSettings settings,
+            long deadline) {
+        if (solver == BatchSolver.DYNAMIC_PROGRAMMING) {
+            final int[] approximateSchedule = buildBestApproximateSchedule(kernel);
+            final double upperBound = simulateSchedule(kernel, approximateSchedule, kernel.n, new double[kernel.M],
+                    new double[kernel.N]);
+            final DynamicProgramming dynamicProgramming = new DynamicProgramming(kernel, upperBound,
+                    settings.dynamicProgrammingBudget);
+
+            dynamicProgramming.deadline = deadline;
+
+            final int[] optimalSchedule = dynamicProgramming.solve();
+
+            // Out of memory: the disjunctive graph search gets the rest of the budget
+            if (!dynamicProgramming.memoryExhausted) {
+                return new BatchSolution(solver, optimalSchedule != null ? optimalSchedule : approximateSchedule,
+                        optimalSchedule != null ? dynamicProgramming.minTime : upperBound,
+                        !dynamicProgramming.timeExhausted);
+            }
+        }
+
+        if (solver == BatchSolver.DYNAMIC_PROGRAMMING || solver == BatchSolver.DISJUNCTIVE_GRAPH) {
+            final DisjunctiveGraphSearch search = new DisjunctiveGraphSearch(kernel,
+                    buildBestApproximateSchedule(kernel));
+
+            search.deadline = deadline;
+            search.solve();
+
+            return new BatchSolution(BatchSolver.DISJUNCTIVE_GRAPH, search.optimalSolution, search.minTime,
+                    !search.stopped);
+        }
+
+        if (solver == BatchSolver.BRANCH_AND_BOUND) {
+            final BranchAndBoundSettings branchAndBound = new BranchAndBoundSettings();
+
+            branchAndBound.lowerBound = settings.lowerBound;
+            branchAndBound.timeLimitMillis = Math.max(1, (deadline - System.nanoTime()) / 1_000_000);
+
+            final BranchAndBoundState state = createBranchAndBoundState(kernel, branchAndBound);
+
+            exploreBranch(state);
+
+            return new BatchSolution(solver, state.optimalSolution, state.minTime, !state.stopped);
+        }
+
+        if (solver == BatchSolver.HEURISTIC) {
+            final int[] schedule = buildApproximateSchedule(kernel, settings.dispatchRule);
+            final double makespan = simulateSchedule(kernel, schedule, kernel.n, new double[kernel.M],
+                    new double[kernel.N]);
+
+            return new BatchSolution(solver, schedule, makespan, makespan == kernel.loadLowerBound());
+        }
+
+        final LocalSearchSettings localSearch = new LocalSearchSettings();
+
+        localSearch.method = settings.localSearchMethod;
+        localSearch.timeLimitMillis = Math.max(1, (deadline - System.nanoTime()) / 1_000_000);
+        localSearch.restarts = 1;
+
+        final LocalSearchResult localSearchResult = runLocalSearch(kernel, localSearch, 1);
+
+        return new BatchSolution(solver, localSearchResult.schedule, localSearchResult.makespan,
+                localSearchResult.makespan == kernel.loadLowerBound());
+    }
+
+    /**
+     * Formats a batch result as one JSON object or CSV record.
+     *
+     * @param result instance outcome
+     * @param csv    true for a CSV record
+     * @return the line, without line break
+     */
+    private static String formatBatchResult(BatchResult result, boolean csv) {
+        final String status = result.error == null ? "ok" : "error";
+        final String solver = result.solver == null ? "" : result.solver.name().toLowerCase().replace('_', '-');
+
+        if (csv) {
+            return String.join(",", quoteCsv(result.file), status, solver, String.valueOf(result.students),
+                    String.valueOf(result.exercises), String.format(Locale.ROOT, "%.2f", result.makespan),
+                    String.format(Locale.ROOT, "%.2f", result.lowerBound),
+                    String.format(Locale.ROOT, "%.4f", result.gap), String.valueOf(result.optimal),
+                    String.format(Locale.ROOT, "%.3f", result.millis),
+                    result.error == null ? "" : quoteCsv(result.error));
+        }
+
+        if (result.error != null) {
+            return String.format(Locale.ROOT, "{\"file\":%s,\"status\":\"error\",\"error\":%s,\"millis\":%.3f}",
+                    quoteJson(result.file), quoteJson(result.error), result.millis);
+        }
+
+        return String.format(Locale.ROOT,
+                "{\"file\":%s,\"status\":\"ok\",\"solver\":\"%s\",\"students\":%d,\"exercises\":%d,"
+                        + "\"makespan\":%.2f,\"lowerBound\":%.2f,\"gap\":%.4f,\"optimal\":%b,\"millis\":%.3f}",
+                quoteJson(result.file), solver, result.students, result.exercises, result.makespan,
+                result.lowerBound, result.gap, result.optimal, result.millis);
+    }
+
+    private static String quoteJson(String value) {
+        final StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            if (c == '"' || c == '\\')
+                quoted.append('\\').append(c);
+            else if (c < 0x20)
+                quoted.append(String.format("\\u%04x", (int) c));
+            else
+                quoted.append(c);
+        }
+
+        return quoted.append('"').toString();
+    }
+
+    private static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0)
+            return value;
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Solves every instance of a batch on a fixed pool of worker threads. At most
+     * twice as many instances as threads are read or solved at once, so memory
+     * stays bounded whatever the batch size. Each result is written to the
+     * standard output as soon as its instance finishes, and the throughput and
+     * latency percentiles are written to the standard error at the end.
+     *
+     * @param batchPath directory or manifest file
+     * @param settings  batch settings
+     * @param threads   number of worker threads
+     * @throws IOException if the directory or manifest cannot be read
+     */
+    private static void runBatch(String batchPath, BatchSettings settings, int threads) throws IOException {
+        final List<String> files = listBatchInstances(batchPath);
+        final double[] latencies = new double[files.size()];
+        final boolean[] failures = new boolean[files.size()];
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final Semaphore inFlight = new Semaphore(2 * threads);
+        final long timeStart = System.nanoTime();
+
+        if (settings.csv)
+            System.out.println("file,status,solver,students,exercises,makespan,lower_bound,gap,optimal,millis,error");
+
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                final int index = i;
+
+                inFlight.acquire();
+                pool.execute(() -> {
+                    // Counted as failed until its result line is written
+                    failures[index] = true;
+
+                    try {
+                        final BatchResult result = solveBatchInstance(files.get(index), settings);
+                        final String line = formatBatchResult(result, settings.csv);
+
+                        latencies[index] = result.millis;
+                        failures[index] = result.error != null;
+
+                        synchronized (System.out) {
+                            System.out.println(line);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        final double seconds = (System.nanoTime() - timeStart) / 1_000_000_000.0;
+        final double[] sortedLatencies = latencies.clone();
+        int failedCount = 0;
+
+        for (boolean failed : failures)
+            failedCount += failed ? 1 : 0;
+
+        Arrays.sort(sortedLatencies);
+        System.err.printf("Solved %d instances (%d failed) in %.2f s with %d threads: %.2f instances/s, "
+                + "latency p50 %.2f ms, p99 %.2f ms%n", files.size(), failedCount, seconds, threads,
+                files.size() / seconds, percentile(sortedLatencies, 50), percentile(sortedLatencies, 99));
+
+        if (settings.cache != null)
+            System.err.println("Solution cache: " + settings.cache.describe());
+    }
+
+    /**
+     * Returns a percentile of sorted values, by the nearest-rank method.
+     *
+     * @param sortedValues values in ascending order
+     * @param percentile   percentile between 0 and 100
+     * @return the percentile, 0 when there are no values
+     */
+    private static double percentile(double[] sortedValues, double percentile) {
+        if (sortedValues.length == 0)
+            return 0.0;
+
+        final int rank = (int) Math.ceil(percentile / 100 * sortedValues.length);
+
+        return sortedValues[Math.max(0, rank - 1)];
+    }
+    // endregion
+
+    // region Benchmark
+
+    /**
+     * Measures Branch-And-Bound throughput in explored nodes per second, comparing
+     * the replayed prefix evaluation against the incremental one on generated
+     * academies with 8 to 12 students.
+     */
+    private static void runBranchAndBoundBenchmark() {
+        final long nodesLimit = 2_000_000;
+
+        // Warm-up, so both evaluations run compiled code
+        for (boolean replaySchedule : new boolean[] { true, false }) {
+            final Academy academy = generateRandomAcademy(4, 8, 3, 0);
+            final BranchAndBoundState state = new BranchAndBoundState(new ScheduleKernel(academy),
+                    LowerBound.BASIC);
+
+            state.nodesLimit = nodesLimit / 4;
+            state.replaySchedule = replaySchedule;
+            exploreBranch(state);
+        }
+
+        System.out.println("\nBranch-and-Bound benchmark (" + nodesLimit + " nodes per run)");
+        System.out.printf("%-10s %-20s %-20s %s%n", "Students", "Replay nodes/s", "Incremental nodes/s",
+                "Speedup");
+
+        for (int N = 8; N <= 12; N++) {
+            final ScheduleKernel kernel = new ScheduleKernel(generateRandomAcademy(N / 2 + 1, N, 3, N));
+            final double[] nodesPerSecond = new double[2];
+
+            for (int i = 0; i < 2; i++) {
+                final BranchAndBoundState state = new BranchAndBoundState(kernel, LowerBound.BASIC);
+
+                state.nodesLimit = nodesLimit;
+                state.replaySchedule = i == 0;
+
+                final long timeStart = System.nanoTime();
+                exploreBranch(state);
+                final long timeEnd = System.nanoTime();
+
+                nodesPerSecond[i] = state.nodesCount / ((timeEnd - timeStart) / 1_000_000_000.0);
+            }
+
+            System.out.printf("%-10d %-20.0f %-20.0f %.2fx%n", N, nodesPerSecond[0], nodesPerSecond[1],
+                    nodesPerSecond[1] / nodesPerSecond[0]);
+        }
+    }
+
+    /**
+     * Compares the explored nodes and running time of each Branch-And-Bound lower
+     * bound on generated academies. Runs hitting the nodes limit are flagged, since
+     * their lowest time is not proven optimal.
+     */
+    private static void runLowerBoundBenchmark() {
+        final long nodesLimit = 50_000_000;
+
+        System.out.println("\nLower bound benchmark (limit of " + nodesLimit + " nodes per run)");
+        System.out.printf("%-10s %-12s %-14s %-14s %-12s %s%n", "Students", "Bound", "Nodes", "Pruned", "Time (ms)",
+                "Lowest time");
+
+        for (int N = 4; N <= 7; N++) {
+            final ScheduleKernel kernel = new ScheduleKernel(generateRandomAcademy(3, N, 3, N));
+
+            for (LowerBound lowerBound : LowerBound.values()) {
+                final BranchAndBoundState state = new BranchAndBoundState(kernel, lowerBound);
+
+                state.nodesLimit = nodesLimit;
+
+                final long timeStart = System.nanoTime();
+                exploreBranch(state);
+                final long timeEnd = System.nanoTime();
+
+                System.out.printf("%-10d %-12s %-14d %-14d %-12.1f %.2f%s%n", N, lowerBound, state.nodesCount,
+                        state.prunedCount, (timeEnd - timeStart) / 1_000_000.0, state.minTime,
+                        state.nodesCount >= nodesLimit ? " (limit reached)" : "");
+            }
+        }
+    }
+
+    /**
+     * Compares the depth-first search in input and earliest-finish child order with
+     * the best-first search, reporting explored nodes, total time and the time at
+     * which the final incumbent was found.
+     *
+     * @param settings Branch-And-Bound settings, used for the lower bound and the
+     *                 frontier limit
+     */
+    private static void runSearchBenchmark(BranchAndBoundSettings settings) {
+        final long nodesLimit = 20_000_000;
+        final String[] strategies = { "DFS input", "DFS earliest-finish", "Best-first" };
+
+        System.out.println("\nSearch strategy benchmark (" + settings.lowerBound + " bound, limit of " + nodesLimit
+                + " nodes per run)");
+        System.out.printf("%-10s %-22s %-12s %-12s %-16s %s%n", "Students", "Strategy", "Nodes", "Time (ms)",
+                "Incumbent (ms)", "Lowest time");
+
+        for (int N = 6; N <= 10; N++) {
+            final ScheduleKernel kernel = new ScheduleKernel(generateRandomAcademy(N / 2 + 1, N, 3, N));
+
+            for (int i = 0; i < strategies.length; i++) {
+                final BranchAndBoundState state = new BranchAndBoundState(kernel, settings.lowerBound);
+
+                state.childOrder = i == 0 ? ChildOrder.INPUT : ChildOrder.EARLIEST_FINISH;
+                state.nodesLimit = nodesLimit;
+
+                final long timeStart = System.nanoTime();
+
+                if (i < 2)
+                    exploreBranch(state);
+                else
+                    exploreBestFirst(state, settings.frontierLimit);
+
+                final long timeEnd = System.nanoTime();
+
+                System.out.printf("%-10d %-22s %-12d %-12.1f %-16.1f %.2f%s%n", N, strategies[i], state.nodesCount,
+                        (timeEnd - timeStart) / 1_000_000.0, state.incumbentTime / 1_000_000.0, state.minTime,
+                        state.nodesCount >= nodesLimit ? " (limit reached)" : "");
+            }
+        }
+    }
+
+    /**
+     * Measures the parallel Branch-And-Bound speedup against the thread count on a
+     * set of generated academies.
+     *
+     * @param settings   Branch-And-Bound settings, used for the lower bound and the
+     *                   child order
+     * @param maxThreads largest thread count measured
+     */
+    private static void runParallelBranchAndBoundBenchmark(BranchAndBoundSettings settings, int maxThreads) {
+        final List<ScheduleKernel> kernels = new ArrayList<>();
+
+        // Seeds whose search proves optimality in well under a second up to a few
+        // seconds, so every thread count finishes the whole set
+        for (long seed : new long[] { 1, 3, 13, 14 })
+            kernels.add(new ScheduleKernel(generateRandomAcademy(4, 7, 3, seed)));
+
+        final BranchAndBoundSettings benchmarkSettings = new BranchAndBoundSettings();
+
+        benchmarkSettings.lowerBound = settings.lowerBound;
+        benchmarkSettings.childOrder = settings.childOrder;
+        benchmarkSettings.seedWithHeuristic = settings.seedWithHeuristic;
+
+        System.out.println("\nParallel Branch-and-Bound benchmark (" + kernels.size() + " academies)");
+        System.out.printf("%-10s %-14s %-12s %s%n", "Threads", "Nodes", "Time (ms)", "Speedup");
+
+        double baseTime = 0.0;
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            long nodesCount = 0;
+            final long timeStart = System.nanoTime();
+
+            try {
+                for (ScheduleKernel kernel : kernels) {
+                    final BranchAndBoundState rootState = createBranchAndBoundState(kernel, benchmarkSettings);
+
+                    new ParallelBranchAndBound(kernel, benchmarkSettings, rootState, threads).run(pool);
+                    nodesCount += rootState.nodesCount;
+                }
+            } finally {
+                pool.shutdown();
+            }
+
+            final double time = (System.nanoTime() - timeStart) / 1_000_000.0;
+
+            if (threads == 1)
+                baseTime = time;
+
+            System.out.printf("%-10d %-14d %-12.1f %.2fx%n", threads, nodesCount, time, baseTime / time);
+        }
+    }
+
+    /**
+     * Times every dispatch rule of the approximate heuristic on generated
+     * academies from a thousand to a million exercises, reporting the makespan
+     * each rule reaches.
+     */
+    private static void runHeuristicBenchmark() {
+        System.out.println("\nApproximate Heuristic benchmark (20 exercises per student, 20 equipment)");
+        System.out.printf("%-10s %-16s %-12s %s%n", "n", "Rule", "Time (ms)", "Makespan");
+
+        for (int n = 1_000; n <= 1_000_000; n *= 10) {
+            final ScheduleKernel kernel = new ScheduleKernel(generateRandomAcademy(20, n / 20, 20, n));
+            final double[] equipmentFreeTimes = new double[kernel.M];
+            final double[] studentsElapsedTimes = new double[kernel.N];
+
+            for (DispatchRule rule : DispatchRule.values()) {
+                // Best of three runs, the first ones also warm the JIT up
+                long bestTime = Long.MAX_VALUE;
+                int[] schedule = null;
+
+                for (int run = 0; run < 3; run++) {
+                    final long timeStart = System.nanoTime();
+
+                    schedule = buildApproximateSchedule(kernel, rule);
+                    bestTime = Math.min(bestTime, System.nanoTime() - timeStart);
+                }
+
+                final double makespan = simulateSchedule(kernel, schedule, kernel.n, equipmentFreeTimes,
+                        studentsElapsedTimes);
+
+                System.out.printf("%-10d %-16s %-12.2f %.2f%n", n, rule, bestTime / 1_000_000.0, makespan);
+            }
+        }
+    }
+
+    /**
+     * Times the academy file reader on generated files from a thousand to ten
+     * million exercises, reporting the parsing throughput and the time taken to
+     * build the Academy objects from the parsed arrays.
+     *
+     * @throws IOException if a benchmark file cannot be written or read
+     */
+    private static void runParserBenchmark() throws IOException {
+        System.out.println("\nParser benchmark (20 exercises per student, 20 equipment)");
+        System.out.printf("%-10s %-12s %-12s %-10s %s%n", "n", "File (MB)", "Parse (ms)", "MB/s", "Academy (ms)");
+
+        for (int n = 1_000; n <= 10_000_000; n *= 10) {
+            final Path file = Files.createTempFile("academy", ".txt");
+
+            try {
+                writeGeneratedAcademy(new GeneratorSettings(20, n / 20, 20, n), file.toString(), false);
+
+                final double megabytes = Files.size(file) / (1024.0 * 1024.0);
+                // Best of three runs, the first ones also warm the JIT and the page cache up
+                long bestParseTime = Long.MAX_VALUE;
+                long bestAcademyTime = Long.MAX_VALUE;
+
+                for (int run = 0; run < 3; run++) {
+                    final long timeStart = System.nanoTime();
+                    final AcademyRecords records = readAcademyRecords(file.toString());
+                    final long timeParsed = System.nanoTime();
+
+                    records.toAcademy();
+                    bestParseTime = Math.min(bestParseTime, timeParsed - timeStart);
+                    bestAcademyTime = Math.min(bestAcademyTime, System.nanoTime() - timeParsed);
+                }
+
+                System.out.printf("%-10d %-12.1f %-12.2f %-10.1f %.2f%n", n, megabytes, bestParseTime / 1_000_000.0,
+                        megabytes / (bestParseTime / 1_000_000_000.0), bestAcademyTime / 1_000_000.0);
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Compares loading generated academies from the text format and from the
+     * binary format, from a thousand to ten million exercises.
+     *
+     * @throws IOException if a benchmark file cannot be written or read
+     */
+    private static void runBinaryBenchmark() throws IOException {
+        System.out.println("\nBinary format benchmark (20 exercises per student, 20 equipment)");
+        System.out.printf("%-10s %-12s %-12s %-12s %-14s %s%n", "n", "Text (MB)", "Binary (MB)", "Text (ms)",
+                "Convert (ms)", "Binary (ms)");
+
+        for (int n = 1_000; n <= 10_000_000; n *= 10) {
+            final Path textFile = Files.createTempFile("academy", ".txt");
+            final Path binaryFile = Files.createTempFile("academy", ".bin");
+
+            try {
+                writeGeneratedAcademy(new GeneratorSettings(20, n / 20, 20, n), textFile.toString(), false);
+
+                long bestTextTime = Long.MAX_VALUE;
+                long bestConvertTime = Long.MAX_VALUE;
+                long bestBinaryTime = Long.MAX_VALUE;
+
+                // Best of three runs, the first ones also warm the JIT and the page cache up
+                for (int run = 0; run < 3; run++) {
+                    long timeStart = System.nanoTime();
+
+                    readAcademyRecords(textFile.toString()).toKernel();
+                    bestTextTime = Math.min(bestTextTime, System.nanoTime() - timeStart);
+
+                    timeStart = System.nanoTime();
+                    convertAcademyFile(textFile.toString(), binaryFile.toString());
+                    bestConvertTime = Math.min(bestConvertTime, System.nanoTime() - timeStart);
+
+                    timeStart = System.nanoTime();
+                    readBinaryAcademy(binaryFile.toString());
+                    bestBinaryTime = Math.min(bestBinaryTime, System.nanoTime() - timeStart);
+                }
+
+                System.out.printf("%-10d %-12.1f %-12.1f %-12.2f %-14.2f %.2f%n", n,
+                        Files.size(textFile) / (1024.0 * 1024.0), Files.size(binaryFile) / (1024.0 * 1024.0),
+                        bestTextTime / 1_000_000.0, bestConvertTime / 1_000_000.0, bestBinaryTime / 1_000_000.0);
+            } finally {
+                Files.delete(textFile);
+                Files.delete(binaryFile);
+            }
+        }
+    }
+
+    /**
+     * Generated academy exposed to the JMH benchmarks under {@code src/jmh} and
+     * to the tests under {@code src/test}. They share this package but cannot
+     * reach the private solver classes, so this class runs the solver cores for
+     * them, without printing anything.
+     */
+    static final class BenchmarkInstance {
+        private final Academy academy;
+        private final int exercisesPerStudent;
+        private final ScheduleKernel kernel;
+        private final int[] schedule; // Heuristic schedule, a valid order to simulate
+        private final double[] equipmentFreeTimes;
+        private final double[] studentsElapsedTimes;
+        // Incremental rescheduling state, reset by startIncremental
+        private IncrementalScheduler scheduler;
+        private Random changeRandom;
+        private double dayLength; // Makespan of the heuristic schedule
+        private int changes; // Changes spread over the first half of the day
+        private int changeCount;
+        private int nextStudentId;
+        // Event simulation state, set by useEquipmentUnits
+        private EventSimulator eventSimulator;
+        private int[] eventSchedule;
+
+        BenchmarkInstance(int M, int N, int exercisesPerStudent, long seed) {
+            this.academy = generateRandomAcademy(M, N, exercisesPerStudent, seed);
+            this.exercisesPerStudent = exercisesPerStudent;
+            this.kernel = new ScheduleKernel(academy);
+            this.schedule = buildApproximateSchedule(kernel);
+            this.equipmentFreeTimes = new double[M];
+            this.studentsElapsedTimes = new double[N];
+        }
+
+        int exerciseCount() {
+            return kernel.n;
+        }
+
+        /**
+         * @return makespan of a complete schedule
+         */
+        double simulateSchedule() {
+            return Main.simulateSchedule(kernel, schedule, kernel.n, equipmentFreeTimes, studentsElapsedTimes);
+        }
+
+        /**
+         * @return optimal makespan found by enumerating every permutation
+         */
+        double bruteForce() {
+            final BruteForceSearch search = new BruteForceSearch(kernel);
+
+            enumerateBruteForcePermutations(search, 0, 0);
+
+            return search.minTime;
+        }
+
+        /**
+         * @param lowerBound name of a {@link LowerBound} constant
+         * @param bestFirst  true for the best-first search, false for depth-first
+         * @return optimal makespan found by Branch-And-Bound
+         */
+        double branchAndBound(String lowerBound, boolean bestFirst) {
+            final BranchAndBoundSettings settings = new BranchAndBoundSettings();
+
+            settings.lowerBound = LowerBound.valueOf(lowerBound);
+
+            final BranchAndBoundState state = createBranchAndBoundState(kernel, settings);
+
+            if (bestFirst)
+                exploreBestFirst(state, settings.frontierLimit);
+            else
+                exploreBranch(state);
+
+            return state.minTime;
+        }
+
+        /**
+         * @param rule name of a {@link DispatchRule} constant
+         * @return makespan of the approximate heuristic schedule
+         */
+        double heuristic(String rule) {
+            final int[] approximateSchedule = buildApproximateSchedule(kernel, DispatchRule.valueOf(rule));
+
+            return Main.simulateSchedule(kernel, approximateSchedule, kernel.n, equipmentFreeTimes,
+                    studentsElapsedTimes);
+        }
+
+        /**
+         * @return makespan of the best approximate heuristic schedule of all
+         *         dispatch rules, the re-solve an incremental change avoids
+         */
+        double bestHeuristic() {
+            return Main.simulateSchedule(kernel, buildBestApproximateSchedule(kernel), kernel.n, equipmentFreeTimes,
+                    studentsElapsedTimes);
+        }
+
+        /**
+         * @return optimal makespan found by the dynamic programming, seeded with
+         *         the heuristic schedule and no memory limit
+         */
+        double dynamicProgramming() {
+            final double upperBound = simulateSchedule();
+            final DynamicProgramming dynamicProgramming = new DynamicProgramming(kernel, upperBound, Long.MAX_VALUE);
+
+            return dynamicProgramming.solve() == null ? upperBound : dynamicProgramming.minTime;
+        }
+
+        /**
+         * @return optimal makespan found by the disjunctive graph search, seeded
+         *         with the heuristic schedule
+         */
+        double disjunctiveGraph() {
+            final DisjunctiveGraphSearch search = new DisjunctiveGraphSearch(kernel, schedule);
+
+            search.solve();
+
+            return search.minTime;
+        }
+
+        /**
+         * Runs one local search restart from the heuristic schedule.
+         *
+         * @param method          name of a {@link LocalSearchMethod} constant
+         * @param timeLimitMillis wall-clock budget of the restart
+         * @param seed            random seed of the restart
+         * @return number of moves evaluated
+         */
+        long localSearch(String method, long timeLimitMillis, long seed) {
+            final LocalSearchSettings settings = new LocalSearchSettings();
+
+            settings.method = LocalSearchMethod.valueOf(method);
+            settings.timeLimitMillis = timeLimitMillis;
+
+            // A zero lower bound never stops the restart early, so it always spends the whole budget
+            return runLocalSearchRestart(kernel, schedule, settings, seed, 0.0).evaluatedMoves;
+        }
+
+        /**
+         * Starts an incremental scheduler over a copy of the academy and its
+         * heuristic schedule, with the clock at zero.
+         *
+         * @param changes number of changes applyChange will spread over the first
+         *                half of the day
+         * @param seed    random seed of the changes
+         */
+        void startIncremental(int changes, long seed) {
+            final Academy copy = academy.clone();
+
+            scheduler = new IncrementalScheduler(copy, new ScheduleKernel(copy).toExercises(schedule, kernel.n));
+            changeRandom = new Random(seed);
+            dayLength = scheduler.makespan();
+            this.changes = changes;
+            changeCount = 0;
+            nextStudentId = kernel.N + 1;
+        }
+
+        /**
+         * Moves the clock forward and applies one random change: mostly delays,
+         * longer exercises and equipment breakdowns, and a student arriving or
+         * leaving once in ten changes.
+         *
+         * @return number of start times computed again
+         */
+        int applyChange() {
+            final int change = changeRandom.nextInt(10);
+
+            return applyChange(change < 3 ? "DELAY" : change < 6 ? "DURATION" : change < 8 ? "OFFLINE"
+                    : change == 8 ? "REMOVE" : "ADD");
+        }
+
+        /**
+         * Moves the clock forward and applies one change of a given kind to a random
+         * student or equipment.
+         *
+         * @param kind DELAY, DURATION, OFFLINE, REMOVE or ADD
+         * @return number of start times computed again
+         */
+        int applyChange(String kind) {
+            final Academy changed = scheduler.academy;
+            final double time = dayLength * changeCount++ / (2.0 * changes);
+            final Student student = changed.students.get(changeRandom.nextInt(changed.students.size()));
+            int unfinished = 0; // First exercise of the student sheet not finished by the clock
+
+            while (unfinished < student.exercises.size() && student.exercises.get(unfinished).startTime
+                    + student.exercises.get(unfinished).duration <= time)
+                unfinished++;
+
+            scheduler.replayedCount = 0;
+            scheduler.advanceTo(time);
+
+            if (kind.equals("DELAY")) {
+                scheduler.delayStudent(student.studentId, time + 5 + changeRandom.nextInt(30));
+            } else if (kind.equals("DURATION")) {
+                if (unfinished < student.exercises.size())
+                    scheduler.changeDuration(student.studentId,
+                            unfinished + changeRandom.nextInt(student.exercises.size() - unfinished),
+                            5.0 * (1 + changeRandom.nextInt(6)));
+            } else if (kind.equals("OFFLINE")) {
+                scheduler.takeEquipmentOffline(changeRandom.nextInt(changed.M) + 1,
+                        time + 10 + changeRandom.nextInt(50));
+            } else if (kind.equals("REMOVE")) {
+                scheduler.removeStudent(student.studentId);
+            } else if (kind.equals("ADD")) {
+                final Student newStudent = generateRandomAcademy(changed.M, 1, exercisesPerStudent,
+                        nextStudentId).students.get(0);
+
+                newStudent.studentId = nextStudentId++;
+
+                for (Exercise exercise : newStudent.exercises)
+                    exercise.studentId = newStudent.studentId;
+
+                scheduler.addStudent(newStudent);
+            } else {
+                throw new IllegalArgumentException("Unknown change: " + kind);
+            }
+
+            return scheduler.replayedCount;
+        }
+
+        /**
+         * Computes the start time of every waiting exercise again, placing the
+         * whole sequence after the started exercises as early as the clock, the
+         * arrivals, the breakdowns and the sheet order allow, and compares them
+         * with the start times the incremental scheduler kept.
+         *
+         * @return largest difference between a kept start time or the makespan and
+         *         the recomputed one, 0 when the incremental schedule is exact
+         */
+        double incrementalStartTimeError() {
+            final double[] equipmentFreeTimes = new double[scheduler.academy.M];
+            final Map<Integer, Double> studentFreeTimes = new HashMap<>();
+            double makespan = 0.0;
+            double error = 0.0;
+
+            for (int i = 0; i < scheduler.sequence.size(); i++) {
+                final Exercise exercise = scheduler.sequence.get(i);
+                final int equipmentIdx = exercise.equipmentId - 1;
+                double startTime = exercise.startTime;
+
+                if (i >= scheduler.frozenCount) {
+                    startTime = Math.max(Math.max(scheduler.currentTime,
+                            scheduler.timelines.get(exercise.studentId).availableTime),
+                            scheduler.equipmentAvailableTimes[equipmentIdx]);
+                    startTime = Math.max(startTime, Math.max(equipmentFreeTimes[equipmentIdx],
+                            studentFreeTimes.getOrDefault(exercise.studentId, 0.0)));
+                    error = Math.max(error, Math.abs(startTime - exercise.startTime));
+                }
+
+                equipmentFreeTimes[equipmentIdx] = Math.max(equipmentFreeTimes[equipmentIdx],
+                        startTime + exercise.duration);
+                studentFreeTimes.merge(exercise.studentId, startTime + exercise.duration, Math::max);
+                makespan = Math.max(makespan, startTime + exercise.duration);
+            }
+
+            return Math.max(error, Math.abs(scheduler.makespan() - makespan));
+        }
+
+        /**
+         * Builds the event simulator of the academy with the same number of units
+         * on every equipment.
+         *
+         * @param units units of each equipment
+         */
+        void useEquipmentUnits(int units) {
+            final int[] equipmentUnits = new int[kernel.M];
+
+            Arrays.fill(equipmentUnits, units);
+            eventSimulator = new EventSimulator(kernel, equipmentUnits);
+            eventSchedule = new int[kernel.n];
+        }
+
+        /**
+         * @param rule name of a {@link DispatchRule} constant
+         * @param kind name of a {@link ScheduleKind} constant
+         * @return makespan of the Giffler-Thompson schedule on the event simulator
+         */
+        double generateEventSchedule(String rule, String kind) {
+            return eventSimulator.generate(DispatchRule.valueOf(rule), ScheduleKind.valueOf(kind), eventSchedule);
+        }
+
+        /**
+         * @return makespan of the last generated schedule, evaluated again as a
+         *         list by the event simulator
+         */
+        double evaluateEventSchedule() {
+            return eventSimulator.evaluate(eventSchedule, kernel.n);
+        }
+    }
+    // endregion
+
+    // region Command line
+
+    /**
+     * Options read from the command line arguments.
+     */
+    private static class CommandLineOptions {
+        String filePath = "exercises.txt";
+        String convertFilePath = null;
+        String generateFilePath = null;
+        boolean generateBinary = false;
+        String batchPath = null;
+        final BatchSettings batch = new BatchSettings();
+        GanttFormat ganttFormat = GanttFormat.WINDOW;
+        String ganttDirectory = ".";
+        final GeneratorSettings generator = new GeneratorSettings();
+        boolean parallelBruteForce = false;
+        boolean parallelBranchAndBound = false;
+        DispatchRule dispatchRule = DispatchRule.EARLIEST_START;
+        boolean localSearchEnabled = false;
+        final LocalSearchSettings localSearch = new LocalSearchSettings();
+        String benchmark = null;
+        final BranchAndBoundSettings branchAndBound = new BranchAndBoundSettings();
+        ExactSolver exactSolver = ExactSolver.AUTO;
+        int dynamicProgrammingMegabytes = 256;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean metricsEnabled = false;
+        boolean metricsJson = false;
+        int[] equipmentUnits = null; // One count for every equipment or one per equipment, null for single units
+        ScheduleKind scheduleKind = ScheduleKind.ACTIVE;
+        String cacheDirectory = null;
+        int cacheMegabytes = 64;
+        boolean decompose = false;
+    }
+
+    /**
+     * Parses the command line arguments. Supported arguments:
+     * <ul>
+     * <li>{@code --file=<path>}, text or binary academy file</li>
+     * <li>{@code --convert=<path>}, writes the academy file in the binary format and exits</li>
+     * <li>{@code --generate=<path>}, writes a generated academy and exits</li>
+     * <li>{@code --generate-format=text|binary}</li>
+     * <li>{@code --equipment=<M>}, {@code --students=<N>}, {@code --exercises-per-student=<count>}</li>
+     * <li>{@code --generator-seed=<seed>}</li>
+     * <li>{@code --durations=five-minute-steps|uniform|exponential|bimodal}</li>
+     * <li>{@code --min-duration=<minutes>}, {@code --max-duration=<minutes>}</li>
+     * <li>{@code --equipment-skew=<exponent>}</li>
+     * <li>{@code --batch=<directory|manifest>}, solves every listed academy file and exits</li>
+     * <li>{@code --batch-solver=auto|branch-and-bound|dynamic-programming|disjunctive-graph|}
+     * {@code heuristic|local-search}</li>
+     * <li>{@code --batch-time-limit=<milliseconds>}, budget of every batch instance</li>
+     * <li>{@code --batch-format=json|csv}</li>
+     * <li>{@code --cache=<directory>}, reuses the schedules solved for the same academy up to student ids</li>
+     * <li>{@code --cache-size=<megabytes>}, least recently used schedules are evicted past it</li>
+     * <li>{@code --gantt=window|none|png|svg|csv|json}</li>
+     * <li>{@code --gantt-output=<directory>}, where the Gantt files are written</li>
+     * <li>{@code --headless}, never opens the Gantt window</li>
+     * <li>{@code --brute-force=sequential|parallel}</li>
+     * <li>{@code --branch-and-bound=sequential|parallel}</li>
+     * <li>{@code --threads=<count>}</li>
+     * <li>{@code --lower-bound=basic|load|one-machine}</li>
+     * <li>{@code --search=depth-first|best-first}</li>
+     * <li>{@code --child-order=input|earliest-finish}</li>
+     * <li>{@code --frontier-limit=<nodes>}</li>
+     * <li>{@code --seed=heuristic|none}</li>
+     * <li>{@code --time-limit=<milliseconds>}</li>
+     * <li>{@code --node-limit=<nodes>}</li>
+     * <li>{@code --trace-incumbents}</li>
+     * <li>{@code --metrics=text|json}, prints the search metrics of every solver</li>
+     * <li>{@code --transposition-table=<megabytes>}</li>
+     * <li>{@code --symmetry-reduction}</li>
+     * <li>{@code --decompose}, solves the independent groups of students and equipment apart, in parallel</li>
+     * <li>{@code --exact-solver=auto|branch-and-bound|dynamic-programming|disjunctive-graph}</li>
+     * <li>{@code --dynamic-programming-memory=<megabytes>}</li>
+     * <li>{@code --dispatch-rule=earliest-start|earliest-finish|spt|lpt|mwkr}</li>
+     * <li>{@code --equipment-units=<count>|<count,...>}, units of every equipment or of each one; runs the
+     * sequential brute force and the Giffler-Thompson generation only</li>
+     * <li>{@code --schedule-kind=active|non-delay}, schedules built by the Giffler-Thompson generation</li>
+     * <li>{@code --local-search=tabu|annealing}</li>
+     * <li>{@code --local-search-time=<milliseconds>}</li>
+     * <li>{@code --restarts=<count>}</li>
+     * <li>{@code --local-search-seed=<seed>}</li>
+     * <li>{@code --benchmark=branch-and-bound|lower-bound|search|parallel-branch-and-bound|heuristic|parser|binary}
+     * (the other solvers are benchmarked with JMH, under {@code src/jmh})</li>
+     * </ul>
+     *
+     * @param args arguments received by main
+     * @return parsed options
+     */
+    private static CommandLineOptions parseCommandLineOptions(String[] args) {
+        final CommandLineOptions options = new CommandLineOptions();
+
+        for (String arg : args) {
+            final String[] parts = arg.split("=", 2);
+            final String value = parts.length > 1 ? parts[1].trim() : "";
+
+            switch (parts[0]) {
+                case "--file":
+                    options.filePath = value;
+                    break;
+                case "--convert":
+                    options.convertFilePath = value;
+                    break;
+                case "--generate":
+                    options.generateFilePath = value;
+                    break;
+                case "--generate-format":
+                    if (!value.equals("text") && !value.equals("binary"))
+                        throw new IllegalArgumentException("Unknown academy format: " + value);
+
+                    options.generateBinary = value.equals("binary");
+                    break;
+                case "--equipment":
+                    options.generator.M = Integer.parseInt(value);
+                    break;
+                case "--students":
+                    options.generator.N = Integer.parseInt(value);
+                    break;
+                case "--exercises-per-student":
+                    options.generator.exercisesPerStudent = Integer.parseInt(value);
+                    break;
+                case "--generator-seed":
+                    options.generator.seed = Long.parseLong(value);
+                    break;
+                case "--durations":
+                    options.generator.durations = parseEnumOption(DurationDistribution.class, value);
+                    break;
+                case "--min-duration":
+                    options.generator.minDuration = Double.parseDouble(value);
+                    break;
+                case "--max-duration":
+                    options.generator.maxDuration = Double.parseDouble(value);
+                    break;
+                case "--equipment-skew":
+                    options.generator.equipmentSkew = Double.parseDouble(value);
+                    break;
+                case "--batch":
+                    options.batchPath = value;
+                    break;
+                case "--batch-solver":
+                    options.batch.solver = parseEnumOption(BatchSolver.class, value);
+                    break;
+                case "--batch-time-limit":
+                    options.batch.timeLimitMillis = Long.parseLong(value);
+
+                    if (options.batch.timeLimitMillis <= 0)
+                        throw new IllegalArgumentException("The batch time limit must be greater than 0");
+                    break;
+                case "--cache":
+                    options.cacheDirectory = value;
+                    break;
+                case "--cache-size":
+                    options.cacheMegabytes = Integer.parseInt(value);
+
+                    if (options.cacheMegabytes <= 0)
+                        throw new IllegalArgumentException("The cache size must be greater than 0");
+                    break;
+                case "--gantt":
+                    options.ganttFormat = parseEnumOption(GanttFormat.class, value);
+                    break;
+                case "--gantt-output":
+                    options.ganttDirectory = value;
+                    break;
+                case "--headless":
+                    System.setProperty("java.awt.headless", "true");
+                    break;
+                case "--batch-format":
+                    if (!value.equals("json") && !value.equals("csv"))
+                        throw new IllegalArgumentException("Unknown batch format: " + value);
+
+                    options.batch.csv = value.equals("csv");
+                    break;
+                case "--brute-force":
+                    if (!value.equals("sequential") && !value.equals("parallel"))
+                        throw new IllegalArgumentException("Unknown brute-force mode: " + value);
+
+                    options.parallelBruteForce = value.equals("parallel");
+                    break;
+                case "--branch-and-bound":
+                    if (!value.equals("sequential") && !value.equals("parallel"))
+                        throw new IllegalArgumentException("Unknown Branch-and-Bound mode: " + value);
+
+                    options.parallelBranchAndBound = value.equals("parallel");
+                    break;
+                case "--threads":
+                    options.threads = Integer.parseInt(value);
+
+                    if (options.threads <= 0)
+                        throw new IllegalArgumentException("The number of threads must be greater than 0");
+                    break;
+                case "--lower-bound":
+                    options.branchAndBound.lowerBound = parseEnumOption(LowerBound.class, value);
+                    break;
+                case "--search":
+                    if (!value.equals("depth-first") && !value.equals("best-first"))
+                        throw new IllegalArgumentException("Unknown search strategy: " + value);
+
+                    options.branchAndBound.bestFirst = value.equals("best-first");
+                    break;
+                case "--child-order":
+                    options.branchAndBound.childOrder = parseEnumOption(ChildOrder.class, value);
+                    break;
+                case "--frontier-limit":
+                    options.branchAndBound.frontierLimit = Integer.parseInt(value);
+
+                    if (options.branchAndBound.frontierLimit <= 0)
+                        throw new IllegalArgumentException("The frontier limit must be greater than 0");
+                    break;
+                case "--seed":
+                    if (!value.equals("heuristic") && !value.equals("none"))
+                        throw new IllegalArgumentException("Unknown seed: " + value);
+
+                    options.branchAndBound.seedWithHeuristic = value.equals("heuristic");
+                    break;
+                case "--time-limit":
+                    options.branchAndBound.timeLimitMillis = Long.parseLong(value);
+
+                    if (options.branchAndBound.timeLimitMillis <= 0)
+                        throw new IllegalArgumentException("The time limit must be greater than 0");
+                    break;
+                case "--node-limit":
+                    options.branchAndBound.nodesLimit = Long.parseLong(value);
+
+                    if (options.branchAndBound.nodesLimit <= 0)
+                        throw new IllegalArgumentException("The node limit must be greater than 0");
+                    break;
+                case "--trace-incumbents":
+                    options.branchAndBound.incumbentListener = (makespan, gap, elapsedNanos) -> System.out.printf(
+                            "Incumbent: %.2f minutes, gap %.2f%%, after %.3f ms%n", makespan, gap * 100,
+                            elapsedNanos / 1_000_000.0);
+                    break;
+                case "--metrics":
+                    if (!value.equals("text") && !value.equals("json"))
+                        throw new IllegalArgumentException("Unknown metrics format: " + value);
+
+                    options.metricsEnabled = true;
+                    options.metricsJson = value.equals("json");
+                    break;
+                case "--transposition-table":
+                    options.branchAndBound.transpositionMegabytes = Integer.parseInt(value);
+
+                    if (options.branchAndBound.transpositionMegabytes < 0)
+                        throw new IllegalArgumentException("The transposition table size must not be negative");
+                    break;
+                case "--symmetry-reduction":
+                    options.branchAndBound.symmetryReduction = true;
+                    break;
+                case "--decompose":
+                    options.decompose = true;
+                    break;
+                case "--exact-solver":
+                    options.exactSolver = parseEnumOption(ExactSolver.class, value);
+                    break;
+                case "--dynamic-programming-memory":
+                    options.dynamicProgrammingMegabytes = Integer.parseInt(value);
+
+                    if (options.dynamicProgrammingMegabytes <= 0)
+                        throw new IllegalArgumentException("The dynamic programming memory must be greater than 0");
+                    break;
+                case "--dispatch-rule":
+                    options.dispatchRule = parseEnumOption(DispatchRule.class, value);
+                    break;
+                case "--equipment-units":
+                    options.equipmentUnits = Arrays.stream(value.split(",")).mapToInt(
+                            count -> Integer.parseInt(count.trim())).toArray();
+
+                    if (Arrays.stream(options.equipmentUnits).anyMatch(count -> count <= 0))
+                        throw new IllegalArgumentException("The number of equipment units must be greater than 0");
+                    break;
+                case "--schedule-kind":
+                    options.scheduleKind = parseEnumOption(ScheduleKind.class, value);
+                    break;
+                case "--local-search":
+                    options.localSearch.method = parseEnumOption(LocalSearchMethod.class, value);
+                    options.localSearchEnabled = true;
+                    break;
+                case "--local-search-time":
+                    options.localSearch.timeLimitMillis = Long.parseLong(value);
+
+                    if (options.localSearch.timeLimitMillis <= 0)
+                        throw new IllegalArgumentException("The local search time must be greater than 0");
+                    break;
+                case "--restarts":
+                    options.localSearch.restarts = Integer.parseInt(value);
+
+                    if (options.localSearch.restarts <= 0)
+                        throw new IllegalArgumentException("The number of restarts must be greater than 0");
+                    break;
+                case "--local-search-seed":
+                    options.localSearch.seed = Long.parseLong(value);
+                    break;
+                case "--benchmark":
+                    if (!Arrays.asList("branch-and-bound", "lower-bound", "search", "parallel-branch-and-bound",
+                            "heuristic", "parser", "binary").contains(value))
+                        throw new IllegalArgumentException("Unknown benchmark: " + value);
+
+                    options.benchmark = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * Parses a dash-separated option value into an enum constant, so
+     * {@code one-machine} maps to {@code ONE_MACHINE}.
+     *
+     * @param type  enum class
+     * @param value option value
+     * @param <E>   enum type
+     * @return the matching enum constant
+     */
+    private static <E extends Enum<E>> E parseEnumOption(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown option value: " + value);
+        }
+    }
+    // endregion
+
+    /**
+     * Shows the Gantt charts of every solver in a window or writes them to files,
+     * as chosen by the options.
+     *
+     * @param options   parsed command line options
+     * @param titles    name of each solver
+     * @param solutions solutions containing an ordered exercise object list
+     * @throws IOException if a file cannot be written
+     */
+    private static void presentGanttCharts(CommandLineOptions options, List<String> titles,
+            List<List<Exercise>> solutions) throws IOException {
+        // Charts go through ChartPlotter and the exporters only, so AWT is not loaded unless it is needed
+        if (options.ganttFormat == GanttFormat.WINDOW && !Boolean.getBoolean("java.awt.headless"))
+            ChartPlotter.showGanttCharts(titles, solutions);
+        else if (options.ganttFormat != GanttFormat.WINDOW && options.ganttFormat != GanttFormat.NONE)
+            exportGanttCharts(options.ganttFormat, options.ganttDirectory, titles, solutions);
+    }
+
+    public static void main(String[] args) {
+        final CommandLineOptions options = parseCommandLineOptions(args);
+        final String filePath = options.filePath;
+
+        try {
+            if (options.benchmark != null) {
+                if (options.benchmark.equals("branch-and-bound"))
+                    runBranchAndBoundBenchmark();
+                else if (options.benchmark.equals("lower-bound"))
+                    runLowerBoundBenchmark();
+                else if (options.benchmark.equals("search"))
+                    runSearchBenchmark(options.branchAndBound);
+                else if (options.benchmark.equals("parallel-branch-and-bound"))
+                    runParallelBranchAndBoundBenchmark(options.branchAndBound, options.threads);
+                else if (options.benchmark.equals("heuristic"))
+                    runHeuristicBenchmark();
+                else if (options.benchmark.equals("parser"))
+                    runParserBenchmark();
+                else
+                    runBinaryBenchmark();
+
+                return;
+            }
+
+            if (options.convertFilePath != null) {
+                final ScheduleKernel kernel = convertAcademyFile(filePath, options.convertFilePath);
+
+                System.out.println("Converted " + kernel.n + " exercises of " + kernel.N + " students to "
+                        + options.convertFilePath);
+                return;
+            }
+
+            if (options.generateFilePath != null) {
+                writeGeneratedAcademy(options.generator, options.generateFilePath, options.generateBinary);
+
+                System.out.println("Generated " + (long) options.generator.N * options.generator.exercisesPerStudent
+                        + " exercises of " + options.generator.N + " students to " + options.generateFilePath);
+                return;
+            }
+
+            final SolutionCache cache = options.cacheDirectory != null ? new SolutionCache(
+                    Paths.get(options.cacheDirectory), options.cacheMegabytes * 1024L * 1024L) : null;
+
+            if (options.batchPath != null) {
+                options.batch.cache = cache;
+                options.batch.dispatchRule = options.dispatchRule;
+                options.batch.decompose = options.decompose;
+                options.batch.lowerBound = options.branchAndBound.lowerBound;
+                options.batch.localSearchMethod = options.localSearch.method;
+                options.batch.dynamicProgrammingBudget = options.dynamicProgrammingMegabytes * 1024L * 1024L;
+                runBatch(options.batchPath, options.batch, options.threads);
+                return;
+            }
+
+            final Academy academy = readAcademyDataFromFile(filePath);
+
+            if (academy.M <= 0) {
+                throw new IllegalArgumentException("The number of equipment must be greater than 0");
+            }
+
+            if (options.equipmentUnits != null) {
+                solveWithEquipmentUnits(academy, options);
+                return;
+            }
+
+            final List<KernelComponent> components = options.decompose
+                    ? decomposeKernel(new ScheduleKernel(academy)) : null;
+            // Components solved at once share the worker threads and the memory budgets
+            final int concurrentComponents = components != null
+                    ? Math.max(1, Math.min(options.threads, components.size())) : 1;
+            final int componentThreads = Math.max(1, options.threads / concurrentComponents);
+            final long dynamicProgrammingBudget = options.dynamicProgrammingMegabytes * 1024L * 1024L
+                    / concurrentComponents;
+
+            if (options.branchAndBound.transpositionMegabytes > 0)
+                options.branchAndBound.transpositionMegabytes = Math.max(1,
+                        options.branchAndBound.transpositionMegabytes / concurrentComponents);
+
+            long timeStart = System.nanoTime();
+            final List<Exercise> bruteForceSolution = solveWithCache(cache, "brute-force", true, false, "Brute Force",
+                    academy, () -> solveDecomposed("Brute Force", academy.clone(), options.decompose,
+                            options.threads, component -> options.parallelBruteForce
+                                    ? handleParallelBruteForcePermutation(component, componentThreads)
+                                    : handleBruteForcePermutation(component)));
+            long timeEnd = System.nanoTime();
+            long bruteForceTime = timeEnd - timeStart;
+
+            timeStart = System.nanoTime();
+            // A search cut short by a budget may not be optimal, so only unlimited ones are cached
+            final boolean exactCacheable = options.branchAndBound.timeLimitMillis == 0
+                    && options.branchAndBound.nodesLimit == Long.MAX_VALUE;
+            List<Exercise> exactSolution = null;
+            String exactSolverName = "Branch and Bound";
+
+            if (options.exactSolver == ExactSolver.DYNAMIC_PROGRAMMING || options.exactSolver == ExactSolver.AUTO
+                    && (components != null
+                            ? components.stream().allMatch(
+                                    component -> fitsDynamicProgramming(component.kernel, dynamicProgrammingBudget))
+                            : fitsDynamicProgramming(new ScheduleKernel(academy), dynamicProgrammingBudget))) {
+                final SolverMetrics metrics = options.metricsEnabled
+                        ? new SolverMetrics("Dynamic Programming", academy.n) : null;
+
+                // The expansion only honours the time limit, and a heuristic kept past it is not optimal
+                exactSolution = solveWithCache(cache, "optimal", options.branchAndBound.timeLimitMillis == 0, false,
+                        "Dynamic Programming", academy,
+                        () -> solveDecomposed("Dynamic Programming", academy.clone(), options.decompose,
+                                options.threads,
+                                component -> handleDynamicProgramming(component, dynamicProgrammingBudget,
+                                        options.branchAndBound.timeLimitMillis, metrics)));
+                printSolverMetrics(metrics, options.metricsJson);
+            }
+
+            if (exactSolution != null) {
+                exactSolverName = "Dynamic Programming";
+            } else if (options.exactSolver == ExactSolver.AUTO
+                    || options.exactSolver == ExactSolver.DISJUNCTIVE_GRAPH) {
+                exactSolverName = "Disjunctive Graph";
+                options.branchAndBound.metrics = options.metricsEnabled
+                        ? new SolverMetrics("Disjunctive Graph", academy.n) : null;
+                exactSolution = solveWithCache(cache, "optimal", exactCacheable, false, "Disjunctive Graph", academy,
+                        () -> solveDecomposed("Disjunctive Graph", academy.clone(), options.decompose,
+                                options.threads, component -> handleDisjunctiveGraph(component,
+                                        options.branchAndBound)));
+                printSolverMetrics(options.branchAndBound.metrics, options.metricsJson);
+            } else {
+                options.branchAndBound.metrics = options.metricsEnabled
+                        ? new SolverMetrics("Branch and Bound", academy.n) : null;
+
+                exactSolution = solveWithCache(cache, "optimal", exactCacheable, false, "Branch-and-Bound", academy,
+                        () -> solveDecomposed("Branch-and-Bound", academy.clone(), options.decompose,
+                                options.threads, component -> options.branchAndBound.bestFirst
+                                        ? handleBestFirstBranchAndBound(component, options.branchAndBound)
+                                        : options.parallelBranchAndBound
+                                                ? handleParallelBranchAndBound(component, options.branchAndBound,
+                                                        componentThreads)
+                                                : handleBranchAndBound(component, options.branchAndBound)));
+
+                printSolverMetrics(options.branchAndBound.metrics, options.metricsJson);
+            }
+            timeEnd = System.nanoTime();
+            long exactSolverTime = timeEnd - timeStart;
+
+            timeStart = System.nanoTime();
+            // Component schedules are built apart, so decomposed heuristic schedules are cached apart
+            final List<Exercise> approximateHeuristicSolution = solveWithCache(cache,
+                    (options.decompose ? "decomposed-heuristic-" : "heuristic-")
+                            + options.dispatchRule.name().toLowerCase().replace('_', '-'),
+                    true, true, "Approximate Heuristic", academy,
+                    () -> solveDecomposed("Approximate Heuristic", academy.clone(), options.decompose,
+                            options.threads, component -> approximateHeuristic(component, options.dispatchRule)));
+            timeEnd = System.nanoTime();
+            long heuristicTime = timeEnd - timeStart;
+
+            List<Exercise> localSearchSolution = null;
+            long localSearchTime = 0;
+
+            if (options.localSearchEnabled) {
+                // Components run in waves of concurrentComponents, each wave gets its share of the time budget
+                // and each component its share of the restarts, so the whole search takes as long as undecomposed
+                final int componentWaves = components != null
+                        ? (components.size() + concurrentComponents - 1) / concurrentComponents : 1;
+
+                options.localSearch.timeLimitMillis = Math.max(1, options.localSearch.timeLimitMillis / componentWaves);
+                options.localSearch.restarts = Math.max(1, options.localSearch.restarts / concurrentComponents);
+                options.localSearch.metrics = options.metricsEnabled ? new SolverMetrics("Local Search", 0) : null;
+                timeStart = System.nanoTime();
+                localSearchSolution = solveDecomposed("Local Search", academy.clone(), options.decompose,
+                        options.threads, component -> handleLocalSearch(component, options.localSearch,
+                                componentThreads));
+                timeEnd = System.nanoTime();
+                localSearchTime = timeEnd - timeStart;
+                printSolverMetrics(options.localSearch.metrics, options.metricsJson);
+            }
+
+            System.out.println("\nBrute-Force Time: " + (bruteForceTime / 1_000_000.0) + " milissegundos");
+            System.out.println(exactSolverName + " Time: " + (exactSolverTime / 1_000_000.0) + " milissegundos");
+            System.out.println("Heuristic Time: " + (heuristicTime / 1_000_000.0) + " milissegundos");
+
+            if (localSearchSolution != null)
+                System.out.println("Local Search Time: " + (localSearchTime / 1_000_000.0) + " milissegundos");
+
+            if (cache != null)
+                System.out.println("Solution cache: " + cache.describe());
+
+            final LowerBoundCertificate lowerBound = certifyLowerBound(new ScheduleKernel(academy));
+            final List<SolverResult> results = new ArrayList<>(Arrays.asList(
+                    new SolverResult("Brute-Force", academy, bruteForceSolution, lowerBound),
+                    new SolverResult(exactSolverName, academy, exactSolution, lowerBound),
+                    new SolverResult("Approximate Heuristic", academy, approximateHeuristicSolution, lowerBound)));
+
+            if (localSearchSolution != null)
+                results.add(new SolverResult("Local Search", academy, localSearchSolution, lowerBound));
+
+            System.out.println("\nLower bound: " + lowerBound.describe());
+
+            for (SolverResult result : results)
+                System.out.println(result.describe());
+
+            final List<String> solverTitles = new ArrayList<>();
+            final List<List<Exercise>> solutions = new ArrayList<>();
+
+            for (SolverResult result : results) {
+                solverTitles.add(result.solver);
+                solutions.add(result.solution);
+            }
 
-            final ChartPanel bruteForceChart = ChartPlotter.handleGanttChart("Brute-Force Solution",
-                    bruteForceSolution);
-            final ChartPanel branchBoundChart = ChartPlotter.handleGanttChart("Branch and Bound Solution",
-                    branchAndBoundSolution);
-            final ChartPanel heuristicChart = ChartPlotter.handleGanttChart("Approximate Heuristic Solution",
-                    approximateHeuristicSolution);
-            final List<String> chartTabTitles = Arrays.asList("Brute-Force", "Branch and Bound",
-                    "Approximate Heuristic");
-            final List<ChartPanel> chartPanels = Arrays.asList(bruteForceChart, branchBoundChart, heuristicChart);
-
-            ChartPlotter.plotGanttChart(chartTabTitles, chartPanels);
+            presentGanttCharts(options, solverTitles, solutions);
         } catch (IOException e) {
             System.err.println("Error reading the file: " + e.getMessage());
         }
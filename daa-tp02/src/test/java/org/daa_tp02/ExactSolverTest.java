@@ -0,0 +1,33 @@
+package org.daa_tp02;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the exact solvers agree: the dynamic programming, the
+ * disjunctive graph search and both Branch-And-Bound searches must return the
+ * same optimum on generated academies, never above the heuristic schedule.
+ */
+class ExactSolverTest {
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void exactSolversAgree() {
+        for (long seed = 1; seed <= 30; seed++) {
+            final int M = 2 + (int) (seed % 4);
+            final int N = 2 + (int) (seed % 3);
+            final int exercisesPerStudent = 2 + (int) (seed % 3);
+            final Main.BenchmarkInstance instance = new Main.BenchmarkInstance(M, N, exercisesPerStudent, seed);
+            final String academy = M + ":" + N + ":" + exercisesPerStudent + ":" + seed;
+            final double optimum = instance.branchAndBound("LOAD", false);
+
+            assertTrue(optimum <= instance.bestHeuristic() + TOLERANCE, "Heuristic beats the optimum of " + academy);
+            assertEquals(optimum, instance.branchAndBound("ONE_MACHINE", true), TOLERANCE,
+                    "Best-first Branch-And-Bound on " + academy);
+            assertEquals(optimum, instance.dynamicProgramming(), TOLERANCE, "Dynamic programming on " + academy);
+            assertEquals(optimum, instance.disjunctiveGraph(), TOLERANCE, "Disjunctive graph on " + academy);
+        }
+    }
+}
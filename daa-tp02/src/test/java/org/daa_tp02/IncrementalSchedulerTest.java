@@ -0,0 +1,74 @@
+package org.daa_tp02;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the incremental rescheduling against a full recompute: after every
+ * change, each waiting exercise must start when placing the whole sequence
+ * again would start it. The generated academies hold more exercises than the
+ * window ordered again, so the replay has to stop early on its own.
+ */
+class IncrementalSchedulerTest {
+    private static final double TOLERANCE = 1e-9;
+    private static final int CHANGES = 100;
+
+    /**
+     * Applies changes of one kind to several generated academies, checking the
+     * start times after each one.
+     *
+     * @param kind    DELAY, DURATION, OFFLINE, REMOVE or ADD, or null for a
+     *                random mix of them
+     * @param changes number of changes applied to each academy
+     */
+    private static void assertExactAfterEachChange(String kind, int changes) {
+        for (long seed = 1; seed <= 5; seed++) {
+            final Main.BenchmarkInstance instance = new Main.BenchmarkInstance(8, 60, 5, seed);
+
+            instance.startIncremental(changes, seed);
+            assertEquals(0.0, instance.incrementalStartTimeError(), TOLERANCE, "Initial schedule, seed " + seed);
+
+            for (int change = 0; change < changes; change++) {
+                if (kind == null)
+                    instance.applyChange();
+                else
+                    instance.applyChange(kind);
+
+                assertEquals(0.0, instance.incrementalStartTimeError(), TOLERANCE,
+                        (kind == null ? "Random" : kind) + " change " + change + ", seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void delayedStudents() {
+        assertExactAfterEachChange("DELAY", CHANGES);
+    }
+
+    @Test
+    void changedDurations() {
+        assertExactAfterEachChange("DURATION", CHANGES);
+    }
+
+    @Test
+    void equipmentOffline() {
+        assertExactAfterEachChange("OFFLINE", CHANGES);
+    }
+
+    @Test
+    void removedStudents() {
+        // Fewer changes than students, so some are always left to remove
+        assertExactAfterEachChange("REMOVE", 40);
+    }
+
+    @Test
+    void addedStudents() {
+        assertExactAfterEachChange("ADD", CHANGES);
+    }
+
+    @Test
+    void mixedChanges() {
+        assertExactAfterEachChange(null, CHANGES);
+    }
+}